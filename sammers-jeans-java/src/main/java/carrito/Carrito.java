@@ -2,7 +2,10 @@ package carrito;
 
 import producto.Producto;
 import usuarios.Usuario;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,27 +49,29 @@ public class Carrito {
             int cantidadActual = itemExistente.getCantidad();
             int nuevaCantidad = cantidadActual + cantidad;
 
-            // Validar si hay suficiente stock para la nueva cantidad
-            if (nuevaCantidad > producto.getStock() + cantidadActual) {
+            // Restar stock (de la misma variante si el producto lleva stock por talla y color);
+            // la reserva misma valida que alcance, así no depende de un stock leído antes
+            if (!itemExistente.reservarStock(cantidad)) {
                 int stockDisponible = producto.getStock();
-                System.out.println("No hay suficiente stock para " + producto.getNombre() +
-                        ". Stock disponible: " + producto.getStock());
+                System.out.println("No hay suficiente stock de " + itemExistente + " para agregar " +
+                        cantidad + " más.");
                 System.out.println("Ya tienes " + cantidadActual + " en el carrito. " +
-                        "Solo puedes agregar " + stockDisponible + " más.");
-                System.out.println("Stock disponible total: " + stockDisponible);
+                        "Stock disponible: " + stockDisponible);
                 return false;
             }
-
-            // Actualizar cantidad y restar stock
             itemExistente.setCantidad(nuevaCantidad);
-            producto.reducirStock(cantidad);
             System.out.println("Cantidad actualizada: " + nuevaCantidad +
                     " unidades de " + producto.getNombre() + " en el carrito.");
             return true;
 
         } else {
-            // Producto nuevo - Validar stock
-            if (producto.getStock() < cantidad) {
+            if (producto.tieneVariantes()) {
+                System.out.println("Debes elegir talla y color para " + producto.getNombre() + ".");
+                return false;
+            }
+
+            // Producto nuevo - Restar stock (si otro cliente se llevó las unidades mientras tanto, la reserva falla)
+            if (!producto.reducirStock(cantidad)) {
                 System.out.println("No hay suficiente stock para " + producto.getNombre() +
                         ". Stock disponible: " + producto.getStock() + " unidades.");
                 return false;
@@ -75,9 +80,6 @@ public class Carrito {
             // Agregar nuevo ítem
             Item_carrito nuevoItem = new Item_carrito(producto, cantidad);
             items.put(idProducto, nuevoItem);
-
-            // Restar stock
-            producto.reducirStock(cantidad);
             System.out.println("Se agregó " + producto.getNombre() + " x " + cantidad + " al carrito.");
             return true;
         }
@@ -104,20 +106,27 @@ public class Carrito {
         int idProducto = producto.getIdProducto();
 
         if (items.containsKey(idProducto)) {
+            Item_carrito itemExistente = items.get(idProducto);
+            if (producto.tieneVariantes() && !mismaVariante(itemExistente, talla, color)) {
+                System.out.println("Ya tienes " + itemExistente + " en el carrito. " +
+                        "Elimínalo para elegir otra talla o color.");
+                return false;
+            }
+
             // Si ya existe, actualizar cantidad
             return agregarProducto(producto, cantidad);
         } else {
-            // Validar stock
-            if (producto.getStock() < cantidad) {
+            // Crear nuevo item con talla y color y reservar su stock
+            Item_carrito nuevoItem = new Item_carrito(producto, cantidad, talla, color);
+            if (!nuevoItem.reservarStock(cantidad)) {
+                int stockVariante = producto.tieneVariantes()
+                        ? producto.getStockVariante(talla, color) : producto.getStock();
                 System.out.println("No hay suficiente stock para " + producto.getNombre() +
-                        ". Stock disponible: " + producto.getStock() + " unidades.");
+                        " (Talla: " + talla + ", Color: " + color + "). Stock disponible: " +
+                        stockVariante + " unidades.");
                 return false;
             }
-
-            // Crear nuevo item con talla y color
-            Item_carrito nuevoItem = new Item_carrito(producto, cantidad, talla, color);
             items.put(idProducto, nuevoItem);
-            producto.reducirStock(cantidad);
 
             System.out.println("Se agregó " + producto.getNombre() +
                     " (Talla: " + talla + ", Color: " + color +
@@ -126,6 +135,71 @@ public class Carrito {
         }
     }
 
+    /**
+     * Agrega varios productos como una sola operación: se reservan las unidades de todos
+     * o de ninguno. Si falta stock de alguno se devuelve lo que ya se había reservado,
+     * así que el carrito y el stock quedan como estaban
+     * Las reservas no toman candados, por lo que otros clientes pueden comprar al mismo tiempo
+     * Un mismo producto puede venir más de una vez (se suman las cantidades), pero con
+     * stock por talla y color siempre en la misma variante: el carrito lleva una por producto
+     * @param nuevosItems Productos a agregar, con cantidad y (si aplica) talla y color
+     * @return true si se agregaron todos
+     */
+    public boolean agregarTodos(Collection<Item_carrito> nuevosItems) {
+        // Primero se valida todo, para no reservar nada si la operación no puede completarse
+        Map<Integer, Item_carrito> primeros = new HashMap<>();    // Primer ítem de cada producto en el lote
+        for (Item_carrito nuevo : nuevosItems) {
+            Producto producto = nuevo.getProducto();
+            Item_carrito existente = items.get(producto.getIdProducto());
+            Item_carrito primero = primeros.putIfAbsent(producto.getIdProducto(), nuevo);
+            if (nuevo.getCantidad() <= 0) {
+                System.out.println("Cantidad inválida para " + producto.getNombre() + ".");
+                return false;
+            }
+            if (producto.tieneVariantes()
+                    && (nuevo.getTallaSeleccionada() == null || nuevo.getColorSeleccionado() == null)) {
+                System.out.println("Debes elegir talla y color para " + producto.getNombre() + ".");
+                return false;
+            }
+            if (existente != null && producto.tieneVariantes()
+                    && !mismaVariante(existente, nuevo.getTallaSeleccionada(), nuevo.getColorSeleccionado())) {
+                System.out.println("Ya tienes " + existente + " en el carrito. " +
+                        "Elimínalo para elegir otra talla o color.");
+                return false;
+            }
+            if (primero != null && producto.tieneVariantes()
+                    && !mismaVariante(primero, nuevo.getTallaSeleccionada(), nuevo.getColorSeleccionado())) {
+                System.out.println("No se pueden agregar dos tallas o colores de " + producto.getNombre() +
+                        " a la vez: el carrito lleva una sola variante por producto.");
+                return false;
+            }
+        }
+
+        // Reservar; ante el primer faltante se devuelve lo reservado
+        List<Item_carrito> reservados = new ArrayList<>();
+        for (Item_carrito nuevo : nuevosItems) {
+            if (!itemQueReserva(nuevo).reservarStock(nuevo.getCantidad())) {
+                for (Item_carrito reservado : reservados) {
+                    itemQueReserva(reservado).liberarStock(reservado.getCantidad());
+                }
+                System.out.println("No hay suficiente stock de " + nuevo + ". No se agregó ningún producto.");
+                return false;
+            }
+            reservados.add(nuevo);
+        }
+
+        for (Item_carrito nuevo : nuevosItems) {
+            Item_carrito existente = items.get(nuevo.getProducto().getIdProducto());
+            if (existente != null) {
+                existente.setCantidad(existente.getCantidad() + nuevo.getCantidad());
+            } else {
+                items.put(nuevo.getProducto().getIdProducto(), nuevo);
+            }
+        }
+        System.out.println("Se agregaron " + nuevosItems.size() + " productos al carrito.");
+        return true;
+    }
+
     // ==================== ELIMINAR PRODUCTO ====================
 
     /**
@@ -138,8 +212,7 @@ public class Carrito {
             Item_carrito itemEliminado = items.remove(idProducto);
 
             // Devolver el stock al producto
-            Producto producto = itemEliminado.getProducto();
-            producto.aumentarStock(itemEliminado.getCantidad());
+            itemEliminado.liberarStock(itemEliminado.getCantidad());
 
             System.out.println("Producto con ID " + idProducto + " eliminado del carrito");
             return true;
@@ -172,14 +245,13 @@ public class Carrito {
 
         if (diferencia > 0) {
             // Aumentar cantidad
-            if (producto.getStock() < diferencia) {
+            if (!item.reservarStock(diferencia)) {
                 System.out.println("No hay suficiente stock. Stock disponible: " + producto.getStock());
                 return false;
             }
-            producto.reducirStock(diferencia);
         } else if (diferencia < 0) {
             // Disminuir cantidad
-            producto.aumentarStock(Math.abs(diferencia));
+            item.liberarStock(Math.abs(diferencia));
         }
 
         item.setCantidad(nuevaCantidad);
@@ -230,13 +302,20 @@ public class Carrito {
      */
     public void vaciarCarrito() {
         for (Item_carrito item : items.values()) {
-            Producto producto = item.getProducto();
-            producto.aumentarStock(item.getCantidad());
+            item.liberarStock(item.getCantidad());
         }
         items.clear();
         System.out.println("Carrito vaciado.");
     }
 
+    /**
+     * Vacía el carrito sin devolver el stock: las unidades reservadas pasan al pedido
+     * creado con este carrito (que las devuelve si se cancela)
+     */
+    public void entregarAPedido() {
+        items.clear();
+    }
+
     /**
      * Verifica si el carrito tiene productos
      * @return true si está vacío
@@ -265,6 +344,20 @@ public class Carrito {
         return total;
     }
 
+    /**
+     * Item del que salen las unidades de un item a agregar: el que ya está en el
+     * carrito para ese producto (misma variante) o, si no hay, el nuevo
+     */
+    private Item_carrito itemQueReserva(Item_carrito nuevo) {
+        return items.getOrDefault(nuevo.getProducto().getIdProducto(), nuevo);
+    }
+
+    private static boolean mismaVariante(Item_carrito item, String talla, String color) {
+        return talla != null && color != null
+                && talla.equalsIgnoreCase(item.getTallaSeleccionada())
+                && color.equalsIgnoreCase(item.getColorSeleccionado());
+    }
+
     // ==================== GETTERS Y SETTERS ====================
 
     public Usuario getUsuario() {
@@ -71,6 +71,25 @@ public class Item_carrito {
         return false;
     }
 
+    /**
+     * Toma unidades del stock del producto: de la talla y el color elegidos si el
+     * producto lleva stock por variante, si no del stock general
+     * @param cantidad Unidades a tomar
+     * @return true si había unidades suficientes
+     */
+    public boolean reservarStock(int cantidad) {
+        return producto.reducirStock(tallaSeleccionada, colorSeleccionado, cantidad);
+    }
+
+    /**
+     * Devuelve unidades al stock del producto (a la misma variante de la que salieron)
+     * @param cantidad Unidades a devolver
+     * @return true si la devolución quedó confirmada
+     */
+    public boolean liberarStock(int cantidad) {
+        return producto.aumentarStock(tallaSeleccionada, colorSeleccionado, cantidad);
+    }
+
     /**
      * Verifica si hay suficiente stock para la cantidad seleccionada
      * @return true si hay stock suficiente
@@ -0,0 +1,104 @@
+package catalogo;
+
+import estructuras.Normalizador_texto;
+import estructuras.Trie_prefijos;
+import inventario.Oyente_inventario;
+import producto.Diccionario_categorias;
+import producto.Producto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sugerencias mientras se escribe: nombres de productos y categorías que empiezan
+ * por un prefijo, de mayor a menor stock total
+ * Se mantiene al día con los cambios del inventario, sin reconstruirse
+ */
+public final class Autocompletado implements Oyente_inventario {
+    private Trie_prefijos terminos;
+
+    /**
+     * Constructor que construye las sugerencias a partir del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Autocompletado(Map<Integer, Producto> productos) {
+        this.terminos = new Trie_prefijos();
+
+        for (Producto producto : productos.values()) {
+            agregar(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Suma el nombre y la categoría de un producto, con su stock como peso
+     * @param producto Producto a agregar
+     */
+    public void agregar(Producto producto) {
+        long stock = peso(producto);
+        terminos.agregar(Normalizador_texto.normalizar(producto.getNombre()), stock);
+        terminos.agregar(Normalizador_texto.normalizar(producto.getCategoria()), stock);
+    }
+
+    /**
+     * Resta el nombre y la categoría de un producto
+     * @param producto Producto a quitar
+     */
+    public void eliminar(Producto producto) {
+        long stock = peso(producto);
+        terminos.quitar(Normalizador_texto.normalizar(producto.getNombre()), stock);
+        terminos.quitar(Normalizador_texto.normalizar(producto.getCategoria()), stock);
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        agregar(producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        eliminar(producto);
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        long diferencia = peso(producto) - Math.max(0, stockAnterior);
+        if (diferencia != 0) {
+            terminos.cambiarPeso(Normalizador_texto.normalizar(producto.getNombre()), diferencia);
+            terminos.cambiarPeso(Normalizador_texto.normalizar(producto.getCategoria()), diferencia);
+        }
+    }
+
+    @Override
+    public void nombreCambiado(Producto producto, String nombreAnterior) {
+        long stock = peso(producto);
+        terminos.quitar(Normalizador_texto.normalizar(nombreAnterior), stock);
+        terminos.agregar(Normalizador_texto.normalizar(producto.getNombre()), stock);
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        long stock = peso(producto);
+        terminos.quitar(Normalizador_texto.normalizar(Diccionario_categorias.nombre(codigoAnterior)), stock);
+        terminos.agregar(Normalizador_texto.normalizar(producto.getCategoria()), stock);
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Sugerencias para lo que el usuario lleva escrito
+     * @param prefijo Texto escrito (sin importar tildes ni mayúsculas)
+     * @param cantidad Cantidad máxima de sugerencias
+     * @return Nombres y categorías de mayor a menor stock
+     */
+    public List<String> sugerir(String prefijo, int cantidad) {
+        return terminos.completar(Normalizador_texto.normalizar(prefijo), cantidad);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static long peso(Producto producto) {
+        return Math.max(0, producto.getStock());
+    }
+}
@@ -0,0 +1,254 @@
+package catalogo;
+
+import estructuras.Cache_tinylfu;
+import estructuras.Mapa_int_int;
+import inventario.Oyente_inventario;
+import producto.Producto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de consultas del catálogo
+ * Cada resultado se guarda con la versión del inventario con que se calculó: una
+ * versión global que sube con cualquier cambio y una versión por categoría que sube
+ * solo con cambios de productos de esa categoría. Un resultado vale mientras su
+ * versión no cambie, así que nunca se sirve un resultado viejo y un cambio en "Dama"
+ * no invalida las consultas de "Caballero"
+ * Los resultados son IDs de productos que el catálogo lee en la última instantánea
+ * publicada, así que muestran siempre su stock actual: un cambio de stock solo invalida
+ * si cambia qué productos aparecen, es decir, si el producto pasa a tener o a no tener
+ * stock, cambia su disponibilidad o las tallas y colores que se pueden comprar. Así las
+ * reservas de los carritos no vacían el caché
+ * Las consultas llegan desde varios hilos y los avisos desde el hilo que cambia el
+ * inventario; el estado se protege con el candado del caché, pero el cálculo de un
+ * resultado se hace fuera de él, con el candado de la gestión de inventario. El aviso que
+ * sube una versión tiene ese candado tomado hasta dejar los índices al día, así que un
+ * resultado guardado con una versión siempre se calculó con índices de esa versión o posteriores
+ */
+public class Cache_consultas implements Oyente_inventario {
+    /**
+     * Ámbito de las consultas que dependen de todo el inventario
+     */
+    public static final int GLOBAL = -1;
+
+    private static final int SIN_FIRMA = -1;    // Demasiadas variantes para resumirlas en un int
+
+    private Cache_tinylfu<String, Resultado> resultados;
+    private Mapa_int_int firmas;          // Clave: id_producto, Valor: firma de lo que lo hace visible
+    private long versionGlobal;
+    private long[] versionesCategoria;    // Posición: código de categoría
+    private long aciertos;
+    private long fallos;
+    private long invalidaciones;
+
+    /**
+     * Constructor de un caché vacío
+     * @param capacidad Cantidad máxima de consultas guardadas
+     */
+    public Cache_consultas(int capacidad) {
+        this.resultados = new Cache_tinylfu<>(capacidad);
+        this.firmas = new Mapa_int_int();
+        this.versionGlobal = 0;
+        this.versionesCategoria = new long[8];
+        this.aciertos = 0;
+        this.fallos = 0;
+        this.invalidaciones = 0;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Devuelve el resultado guardado de una consulta si sigue vigente; si no, lo calcula y lo guarda
+     * @param clave Clave que identifica la consulta y sus parámetros
+     * @param codigoCategoria Categoría de la que depende el resultado, o GLOBAL
+     * @param consulta Cálculo del resultado
+     * @param <T> Tipo del resultado
+     * @return Resultado de la consulta
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T consultar(String clave, int codigoCategoria, Supplier<T> consulta) {
+        long version;
+        synchronized (this) {
+            version = version(codigoCategoria);
+            Resultado guardado = resultados.obtener(clave);
+
+            if (guardado != null && guardado.version == version) {
+                aciertos++;
+                return (T) guardado.valor;
+            }
+
+            fallos++;
+            if (guardado != null) {
+                invalidaciones++;
+            }
+        }
+
+        // Se guarda con la versión leída antes de calcular: si hubo un cambio mientras
+        // tanto, la versión ya subió y el resultado no se va a servir
+        T valor = consulta.get();
+        synchronized (this) {
+            resultados.guardar(clave, new Resultado(valor, version));
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta todos los resultados guardados
+     */
+    public synchronized void invalidarTodo() {
+        versionGlobal++;
+        Arrays.fill(versionesCategoria, versionGlobal);
+        resultados.limpiar();
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    @Override
+    public synchronized void productoAgregado(Producto producto) {
+        firmas.poner(producto.getIdProducto(), firma(producto));
+        cambio(producto.getCodigoCategoria());
+    }
+
+    @Override
+    public synchronized void productoEliminado(Producto producto) {
+        firmas.eliminar(producto.getIdProducto());
+        cambio(producto.getCodigoCategoria());
+    }
+
+    @Override
+    public synchronized void stockCambiado(Producto producto, int stockAnterior) {
+        int id = producto.getIdProducto();
+        int firma = firma(producto);
+        if (firma == SIN_FIRMA || !firmas.contiene(id) || firmas.obtener(id, SIN_FIRMA) != firma) {
+            firmas.poner(id, firma);
+            cambio(producto.getCodigoCategoria());
+        }
+    }
+
+    @Override
+    public synchronized void precioCambiado(Producto producto, double precioAnterior) {
+        cambio(producto.getCodigoCategoria());
+    }
+
+    @Override
+    public synchronized void nombreCambiado(Producto producto, String nombreAnterior) {
+        cambio(producto.getCodigoCategoria());
+    }
+
+    @Override
+    public synchronized void categoriaCambiada(Producto producto, int codigoAnterior) {
+        cambio(codigoAnterior);
+        cambio(producto.getCodigoCategoria());
+    }
+
+    @Override
+    public synchronized void resenaAgregada(Producto producto, int calificacion) {
+        cambio(producto.getCodigoCategoria());
+    }
+
+    // ==================== MÉTRICAS ====================
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Consultas que hubo que calcular (no estaban o estaban vencidas)
+     * @return Cantidad de fallos
+     */
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Fallos por resultados vencidos tras un cambio del inventario
+     * @return Cantidad de invalidaciones
+     */
+    public synchronized long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    /**
+     * Resultados descartados por falta de espacio
+     * @return Cantidad de expulsiones
+     */
+    public synchronized long getExpulsiones() {
+        return resultados.getExpulsiones();
+    }
+
+    /**
+     * Porcentaje de consultas servidas desde el caché
+     * @return Tasa de aciertos entre 0 y 100
+     */
+    public synchronized double calcularTasaAciertos() {
+        long total = aciertos + fallos;
+        return (total == 0) ? 0 : aciertos * 100.0 / total;
+    }
+
+    public synchronized int getTamano() {
+        return resultados.tamano();
+    }
+
+    public int getCapacidad() {
+        return resultados.getCapacidad();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Resume en un int lo que decide si el producto aparece en las consultas: si tiene stock,
+     * si está disponible y, con stock por variante, qué tallas y colores se pueden comprar
+     */
+    private static int firma(Producto producto) {
+        List<String> tallas = producto.getTallas();
+        List<String> colores = producto.getColores();
+        if (tallas.size() + colores.size() > 29) {
+            return SIN_FIRMA;
+        }
+
+        int firma = (producto.getStock() > 0) ? 1 : 0;
+        if (producto.isDisponible()) {
+            firma |= 2;
+        }
+        if (producto.tieneVariantes()) {
+            for (String talla : producto.getTallasDisponibles()) {
+                firma |= 4 << tallas.indexOf(talla);
+            }
+            for (String color : producto.getColoresDisponibles()) {
+                firma |= 4 << (tallas.size() + colores.indexOf(color));
+            }
+        }
+        return firma;
+    }
+
+    private long version(int codigoCategoria) {
+        if (codigoCategoria == GLOBAL) {
+            return versionGlobal;
+        }
+        return (codigoCategoria < versionesCategoria.length) ? versionesCategoria[codigoCategoria] : 0;
+    }
+
+    private void cambio(int codigoCategoria) {
+        versionGlobal++;
+        if (codigoCategoria >= versionesCategoria.length) {
+            versionesCategoria = Arrays.copyOf(versionesCategoria,
+                    Math.max(codigoCategoria + 1, versionesCategoria.length * 2));
+        }
+        versionesCategoria[codigoCategoria]++;
+    }
+
+    /**
+     * Resultado guardado junto con la versión con que se calculó
+     */
+    private static final class Resultado {
+        private final Object valor;
+        private final long version;
+
+        Resultado(Object valor, long version) {
+            this.valor = valor;
+            this.version = version;
+        }
+    }
+}
@@ -1,93 +1,80 @@
 package catalogo;
 
+import estructuras.Indice_ordenado;
+import estructuras.Normalizador_texto;
+import inventario.Gestion_inventario;
+import inventario.Oyente_inventario;
+import producto.Diccionario_categorias;
 import producto.Producto;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Clase que representa el catálogo de productos
- * Muestra productos disponibles y permite búsquedas y filtros
+ * Permite búsquedas, filtros y paginación sin escribir en consola
+ * (la presentación de los resultados está en Vista_catalogo)
+ * Los resultados son copias de la última instantánea publicada (Producto_publicado).
+ * Navegar (páginas, streams, fichas) lee solo la instantánea, sin bloqueos; las
+ * búsquedas consultan los índices con el candado de la gestión de inventario, porque
+ * los índices cambian con cada aviso, y leen los productos en la instantánea
  */
 public class Catalogo {
-    private Map<Integer, Producto> productos;
+    static final String[] CLAVES_PRENDAS_PRINCIPALES = {"jean", "pantalon", "jogger", "bermuda"};
+    private static final int CAPACIDAD_CACHE = 512;
+    private static final int VENTANAS_POPULARIDAD = 6;
+    private static final long DURACION_VENTANA_POPULARIDAD = 10 * 60 * 1000;    // 10 minutos
+    private static final int CAPACIDAD_TENDENCIAS = 50;
+
+    private Indice_trigramas indiceNombres;
+    private Indice_facetas indiceFacetas;
+    private Indice_precios indicePrecios;
+    private Ranking_calificaciones rankingCalificaciones;
+    private Planificador_consultas planificador;
+    private Autocompletado autocompletado;
+    private Conteo_categorias conteoCategorias;
+    private Contador_facetas contadorFacetas;
+    private Popularidad_productos popularidad;
+    private volatile Publicador_catalogo publicador;
+    private Cache_consultas cache;    // Solo con el catálogo suscrito a la gestión de inventario
+    private Gestion_inventario gestionInventario;    // null si los índices no se mantienen al día
 
     /**
      * Constructor que recibe el inventario de productos
+     * Los índices se construyen una sola vez y no se enteran de cambios posteriores
      * @param inventario Mapa de productos del inventario
      */
     public Catalogo(Map<Integer, Producto> inventario) {
-        this.productos = inventario;
-    }
-
-    // ==================== MOSTRAR CATÁLOGO ====================
-
-    /**
-     * Muestra todos los productos disponibles con stock
-     */
-    public void mostrarCatalogo() {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("           CATÁLOGO DE PRODUCTOS");
-        System.out.println("=".repeat(60));
-
-        boolean hayProductos = false;
-
-        for (Map.Entry<Integer, Producto> entry : productos.entrySet()) {
-            Producto producto = entry.getValue();
-
-            if (producto.isDisponible() && producto.getStock() > 0) {
-                hayProductos = true;
-                System.out.println("ID: " + entry.getKey());
-                System.out.println("Nombre: " + producto.getNombre());
-                System.out.printf("Precio: $%.2f%n", producto.getPrecio());
-                System.out.println("Stock: " + producto.getStock());
-                System.out.println("Categoría: " + producto.getCategoria());
-                System.out.println("Tallas disponibles: " + producto.getTallas());
-                System.out.println("Colores disponibles: " + producto.getColores());
-                System.out.println("-".repeat(60));
-            }
-        }
-
-        if (!hayProductos) {
-            System.out.println("No hay productos disponibles en el catálogo.");
-        }
-
-        System.out.println("=".repeat(60) + "\n");
+        construirIndices(inventario);
+        this.popularidad = new Popularidad_productos(VENTANAS_POPULARIDAD, DURACION_VENTANA_POPULARIDAD,
+                CAPACIDAD_TENDENCIAS);
     }
 
     /**
-     * Muestra el catálogo de forma resumida (tabla)
+     * Constructor que se suscribe a la gestión de inventario
+     * Los índices se mantienen al día cuando se agregan o eliminan productos, y los
+     * resultados de las consultas frecuentes se guardan en caché hasta el siguiente cambio
+     * @param gestionInventario Gestión del inventario
      */
-    public void mostrarCatalogoResumido() {
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("                    CATÁLOGO DE PRODUCTOS");
-        System.out.println("=".repeat(80));
-        System.out.printf("%-5s %-30s %-12s %-10s %-15s%n",
-                "ID", "NOMBRE", "PRECIO", "STOCK", "CATEGORÍA");
-        System.out.println("-".repeat(80));
-
-        boolean hayProductos = false;
-
-        for (Map.Entry<Integer, Producto> entry : productos.entrySet()) {
-            Producto producto = entry.getValue();
-
-            if (producto.isDisponible() && producto.getStock() > 0) {
-                hayProductos = true;
-                System.out.printf("%-5d %-30s $%-11.2f %-10d %-15s%n",
-                        entry.getKey(),
-                        producto.getNombre(),
-                        producto.getPrecio(),
-                        producto.getStock(),
-                        producto.getCategoria());
-            }
+    public Catalogo(Gestion_inventario gestionInventario) {
+        this.popularidad = new Popularidad_productos(VENTANAS_POPULARIDAD, DURACION_VENTANA_POPULARIDAD,
+                CAPACIDAD_TENDENCIAS);
+        this.gestionInventario = gestionInventario;
+        this.cache = new Cache_consultas(CAPACIDAD_CACHE);
+
+        // Con el candado, para que ningún cambio quede entre la construcción y la suscripción
+        synchronized (gestionInventario) {
+            construirIndices(gestionInventario.getInventario());
+            suscribir();
         }
-
-        if (!hayProductos) {
-            System.out.println("No hay productos disponibles en el catálogo.");
-        }
-
-        System.out.println("=".repeat(80) + "\n");
     }
 
     // ==================== BUSCAR PRODUCTOS ====================
@@ -97,43 +84,37 @@ public class Catalogo {
      * @param nombre Nombre o parte del nombre a buscar
      * @return Lista de productos encontrados
      */
-    public List<Producto> buscarPorNombre(String nombre) {
-        List<Producto> resultados = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            if (producto.getNombre().toLowerCase().contains(nombre.toLowerCase())) {
-                resultados.add(producto);
-            }
-        }
-
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron productos con ese nombre.");
-            return resultados;
-        }
-
-        System.out.println("\nResultados de búsqueda:");
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
+    public List<Producto_publicado> buscarPorNombre(String nombre) {
+        List<Producto_publicado> resultados = enCache("nombre:" + nombre, Cache_consultas.GLOBAL,
+                instantanea -> indiceNombres.buscar(nombre));
+        for (Producto_publicado producto : resultados) {
+            popularidad.registrarVista(producto.getIdProducto());
         }
-
         return resultados;
     }
 
     /**
-     * Obtiene un producto específico por su ID
+     * Sugiere nombres de productos y categorías que empiezan por lo escrito
+     * @param prefijo Texto escrito hasta el momento
+     * @param cantidad Cantidad máxima de sugerencias
+     * @return Sugerencias de mayor a menor stock
+     */
+    public List<String> autocompletar(String prefijo, int cantidad) {
+        return leer(instantanea -> autocompletado.sugerir(prefijo, cantidad));
+    }
+
+    /**
+     * Obtiene un producto específico por su ID (cuenta como una vista del producto)
+     * Para agregarlo al carrito se usa getProducto() del resultado
      * @param idProducto ID del producto
      * @return Producto encontrado o null
      */
-    public Producto obtenerProducto(int idProducto) {
-        if (productos.containsKey(idProducto)) {
-            return productos.get(idProducto);
-        } else {
-            System.out.println("El producto no existe en el catálogo.");
-            return null;
+    public Producto_publicado obtenerProducto(int idProducto) {
+        Producto_publicado producto = publicador.getInstantanea().obtenerProducto(idProducto);
+        if (producto != null) {
+            popularidad.registrarVista(idProducto);
         }
+        return producto;
     }
 
     /**
@@ -141,30 +122,11 @@ public class Catalogo {
      * @param categoria Categoría a buscar
      * @return Lista de productos de esa categoría
      */
-    public List<Producto> buscarPorCategoria(String categoria) {
-        List<Producto> resultados = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            if (producto.getCategoria().equalsIgnoreCase(categoria) &&
-                    producto.getStock() > 0) {
-                resultados.add(producto);
-            }
-        }
-
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron productos en esa categoría.");
-            return resultados;
-        }
-
-        System.out.println("\nProductos en categoría: " + categoria);
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
-
-        return resultados;
+    public List<Producto_publicado> buscarPorCategoria(String categoria) {
+        int codigo = Diccionario_categorias.buscarCodigo(categoria);
+        return enCache("categoria:" + Normalizador_texto.normalizar(categoria),
+                (codigo >= 0) ? codigo : Cache_consultas.GLOBAL,
+                instantanea -> indiceFacetas.porCategoria(categoria).and(indiceFacetas.getEnStock()).aArreglo());
     }
 
     // ==================== FILTRAR PRODUCTOS ====================
@@ -175,66 +137,28 @@ public class Catalogo {
      * @param maximo Precio máximo
      * @return Lista de productos en ese rango
      */
-    public List<Producto> filtrarPorPrecio(double minimo, double maximo) {
-        List<Producto> resultados = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            if (producto.getPrecio() >= minimo &&
-                    producto.getPrecio() <= maximo &&
-                    producto.getStock() > 0) {
-                resultados.add(producto);
-            }
-        }
-
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron productos en ese rango de precio.");
-            return resultados;
-        }
-
-        System.out.printf("\nProductos entre $%.2f y $%.2f:%n", minimo, maximo);
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
+    public List<Producto_publicado> filtrarPorPrecio(double minimo, double maximo) {
+        return enCache("precio:" + minimo + ":" + maximo, Cache_consultas.GLOBAL,
+                instantanea -> indicePrecios.rango(minimo, maximo));
+    }
 
-        return resultados;
+    /**
+     * Lista los productos con stock ordenados por precio, por páginas
+     * @param pagina Número de página (empieza en 0)
+     * @param tamanoPagina Productos por página
+     * @param ascendente true del más barato al más caro
+     * @return Productos de la página
+     */
+    public List<Producto_publicado> listarPorPrecio(int pagina, int tamanoPagina, boolean ascendente) {
+        return aProductos(instantanea -> indicePrecios.pagina(pagina, tamanoPagina, ascendente));
     }
 
     /**
      * Filtra prendas principales (jeans, pantalones, joggers, bermudas)
      * @return Lista de prendas principales disponibles
      */
-    public List<Producto> filtrarPrendasPrincipales() {
-        String[] claves = {"jean", "pantalon", "jogger", "bermuda"};
-        List<Producto> resultados = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            String nombreLower = producto.getNombre().toLowerCase();
-
-            for (String clave : claves) {
-                if (nombreLower.contains(clave) && producto.getStock() > 0) {
-                    resultados.add(producto);
-                    break; // Evitar duplicados
-                }
-            }
-        }
-
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron prendas principales disponibles.");
-            return resultados;
-        }
-
-        System.out.println("\nPrendas principales disponibles:");
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
-
-        return resultados;
+    public List<Producto_publicado> filtrarPrendasPrincipales() {
+        return enCache("prendas_principales", Cache_consultas.GLOBAL, this::calcularPrendasPrincipales);
     }
 
     /**
@@ -242,30 +166,9 @@ public class Catalogo {
      * @param talla Talla a buscar
      * @return Lista de productos con esa talla
      */
-    public List<Producto> filtrarPorTalla(String talla) {
-        List<Producto> resultados = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            if (producto.getTallas().contains(talla) &&
-                    producto.getStock() > 0) {
-                resultados.add(producto);
-            }
-        }
-
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron productos con talla: " + talla);
-            return resultados;
-        }
-
-        System.out.println("\nProductos con talla " + talla + ":");
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
-
-        return resultados;
+    public List<Producto_publicado> filtrarPorTalla(String talla) {
+        return enCache("talla:" + Normalizador_texto.normalizar(talla), Cache_consultas.GLOBAL,
+                instantanea -> indiceFacetas.porTalla(talla).and(indiceFacetas.getEnStock()).aArreglo());
     }
 
     /**
@@ -273,30 +176,64 @@ public class Catalogo {
      * @param color Color a buscar
      * @return Lista de productos con ese color
      */
-    public List<Producto> filtrarPorColor(String color) {
-        List<Producto> resultados = new ArrayList<>();
+    public List<Producto_publicado> filtrarPorColor(String color) {
+        return enCache("color:" + Normalizador_texto.normalizar(color), Cache_consultas.GLOBAL,
+                instantanea -> indiceFacetas.porColor(color).and(indiceFacetas.getEnStock()).aArreglo());
+    }
 
-        for (Producto producto : productos.values()) {
-            if (producto.getColores().contains(color) &&
-                    producto.getStock() > 0) {
-                resultados.add(producto);
-            }
-        }
+    /**
+     * Filtra combinando facetas: OR dentro de cada faceta y AND entre facetas
+     * Ejemplo: filtrarPorFacetas(List.of("Dama"), List.of("32"), List.of("negro"), true)
+     * @param categorias Categorías aceptadas (null o vacío para no filtrar)
+     * @param tallas Tallas aceptadas (null o vacío para no filtrar)
+     * @param colores Colores aceptados (null o vacío para no filtrar)
+     * @param soloEnStock true para mostrar solo productos con stock
+     * @return Lista de productos que cumplen todas las facetas
+     */
+    public List<Producto_publicado> filtrarPorFacetas(Collection<String> categorias, Collection<String> tallas,
+                                                      Collection<String> colores, boolean soloEnStock) {
+        return aProductos(instantanea -> indiceFacetas.consultar(categorias, tallas, colores, soloEnStock).aArreglo());
+    }
 
-        if (resultados.isEmpty()) {
-            System.out.println("No se encontraron productos con color: " + color);
-            return resultados;
-        }
+    /**
+     * Filtro de una sola talla y un solo color con stock (atajo de filtrarPorFacetas)
+     * @param categoria Categoría (null para no filtrar)
+     * @param talla Talla (null para no filtrar)
+     * @param color Color (null para no filtrar)
+     * @return Lista de productos que cumplen los filtros
+     */
+    public List<Producto_publicado> filtrarPorFacetas(String categoria, String talla, String color) {
+        return filtrarPorFacetas(unico(categoria), unico(talla), unico(color), true);
+    }
 
-        System.out.println("\nProductos en color " + color + ":");
-        for (Producto prod : resultados) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
+    /**
+     * Busca combinando cualquier cantidad de criterios (nombre, categoría, precio, talla,
+     * color, prendas principales, disponibilidad y calificación)
+     * El planificador empieza por el criterio más selectivo que tenga índice
+     * @param consulta Criterios de búsqueda
+     * @return Productos que cumplen todos los criterios, en orden de ID
+     */
+    public List<Producto_publicado> buscar(Consulta_productos consulta) {
+        return aProductos(instantanea -> planificador.ejecutar(consulta, instantanea));
+    }
 
-        return resultados;
+    /**
+     * Cuenta los productos con stock por talla, color, categoría y rango de precio
+     * @return Conteos de todo el catálogo
+     */
+    public Conteos_facetas contarFacetas() {
+        return leer(instantanea -> contadorFacetas.contar());
+    }
+
+    /**
+     * Cuenta los productos con stock por faceta según los filtros elegidos
+     * Cada faceta se cuenta sin su propio filtro, para mostrar cuántos productos
+     * quedarían al cambiar de talla, color, categoría o rango de precio
+     * @param seleccion Filtros elegidos (categoría, talla, color y rango de precio)
+     * @return Conteos por faceta
+     */
+    public Conteos_facetas contarFacetas(Consulta_productos seleccion) {
+        return leer(instantanea -> contadorFacetas.contar(seleccion));
     }
 
     // ==================== PRODUCTOS DESTACADOS ====================
@@ -306,29 +243,26 @@ public class Catalogo {
      * @param cantidad Cantidad de productos a mostrar
      * @return Lista de productos más baratos
      */
-    public List<Producto> obtenerMasBaratos(int cantidad) {
-        List<Producto> disponibles = new ArrayList<>();
-
-        for (Producto producto : productos.values()) {
-            if (producto.isDisponible() && producto.getStock() > 0) {
-                disponibles.add(producto);
-            }
-        }
-
-        disponibles.sort((p1, p2) -> Double.compare(p1.getPrecio(), p2.getPrecio()));
-
-        int limite = Math.min(cantidad, disponibles.size());
-        List<Producto> resultado = disponibles.subList(0, limite);
+    public List<Producto_publicado> obtenerMasBaratos(int cantidad) {
+        return enCache("mas_baratos:" + cantidad, Cache_consultas.GLOBAL,
+                instantanea -> calcularMasBaratos(instantanea, cantidad));
+    }
 
-        System.out.println("\nProductos más económicos:");
-        for (Producto prod : resultado) {
-            System.out.printf("- %s ($%.2f) - ID %d%n",
-                    prod.getNombre(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
+    /**
+     * Productos más vistos en los últimos minutos (fichas, reseñas y resultados de búsqueda)
+     * @param cantidad Cantidad máxima de productos
+     * @return Productos de más a menos visto
+     */
+    public List<Producto_publicado> obtenerTendencias(int cantidad) {
+        return publicador.getInstantanea().obtenerProductos(popularidad.tendencias(cantidad));
+    }
 
-        return resultado;
+    /**
+     * Registra que un cliente vio un producto (para las tendencias)
+     * @param idProducto ID del producto visto
+     */
+    public void registrarVista(int idProducto) {
+        popularidad.registrarVista(idProducto);
     }
 
     /**
@@ -336,76 +270,334 @@ public class Catalogo {
      * @param cantidad Cantidad de productos a mostrar
      * @return Lista de productos mejor calificados
      */
-    public List<Producto> obtenerMejorCalificados(int cantidad) {
-        List<Producto> disponibles = new ArrayList<>();
+    public List<Producto_publicado> obtenerMejorCalificados(int cantidad) {
+        return enCache("mejor_calificados:" + cantidad, Cache_consultas.GLOBAL,
+                instantanea -> rankingCalificaciones.mejorCalificados(cantidad));
+    }
+
+    /**
+     * Obtiene los productos disponibles con más reseñas
+     * @param cantidad Cantidad de productos
+     * @return Lista de productos de mayor a menor cantidad de reseñas
+     */
+    public List<Producto_publicado> obtenerMasResenados(int cantidad) {
+        return enCache("mas_resenados:" + cantidad, Cache_consultas.GLOBAL,
+                instantanea -> rankingCalificaciones.masResenados(cantidad));
+    }
+
+    /**
+     * Obtiene los productos disponibles con promedio mayor o igual al mínimo
+     * @param minimo Promedio mínimo (por ejemplo 4.0 para "4 estrellas o más")
+     * @return Lista de productos de mayor a menor promedio
+     */
+    public List<Producto_publicado> filtrarPorCalificacion(double minimo) {
+        return aProductos(instantanea -> rankingCalificaciones.conPromedioMinimo(minimo));
+    }
+
+    // ==================== PAGINACIÓN Y STREAMING ====================
 
-        for (Producto producto : productos.values()) {
-            if (producto.isDisponible() &&
-                    producto.getStock() > 0 &&
-                    !producto.getResenas().isEmpty()) {
-                disponibles.add(producto);
+    /**
+     * Página de productos (en orden de ID) que cumplen un filtro
+     * El cursor guarda el último ID entregado, así que agregar o eliminar productos
+     * entre una página y otra no repite ni salta productos que sigan existiendo
+     * Se recorre la última instantánea publicada, sin bloqueos
+     * @param filtro Condición que deben cumplir los productos (null para no filtrar)
+     * @param tamanoPagina Productos por página
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @return Página de resultados
+     */
+    public Pagina paginar(Predicate<Producto_publicado> filtro, int tamanoPagina, String cursor) {
+        int desde = (cursor == null) ? 0 : leerCursorId(cursor) + 1;
+        List<Producto_publicado> resultado = new ArrayList<>(tamanoPagina);
+        int[] ultimo = {-1};
+        boolean[] hayMas = {false};
+
+        publicador.getInstantanea().recorrerDesde(desde, producto -> {
+            if (filtro != null && !filtro.test(producto)) {
+                return true;
             }
+            if (resultado.size() == tamanoPagina) {
+                hayMas[0] = true;
+                return false;
+            }
+            resultado.add(producto);
+            ultimo[0] = producto.getIdProducto();
+            return true;
+        });
+
+        return new Pagina(resultado, hayMas[0] ? "id:" + ultimo[0] : null);
+    }
+
+    /**
+     * Página de productos con stock dentro de un rango de precio, del más barato al más caro
+     * El cursor guarda el último (precio, ID) entregado
+     * @param minimo Precio mínimo
+     * @param maximo Precio máximo
+     * @param tamanoPagina Productos por página
+     * @param cursor Cursor devuelto por la página anterior (null para la primera)
+     * @return Página de resultados
+     */
+    public Pagina paginarPorPrecio(double minimo, double maximo, int tamanoPagina, String cursor) {
+        double ultimoPrecio;
+        int ultimoId;
+        if (cursor != null) {
+            String[] partes = partesCursor(cursor, "precio", 3);
+            ultimoPrecio = Double.longBitsToDouble(Long.parseLong(partes[1], 16));
+            ultimoId = Integer.parseInt(partes[2]);
+        } else {
+            ultimoPrecio = 0;
+            ultimoId = 0;
         }
 
-        disponibles.sort((p1, p2) ->
-                Double.compare(p2.obtenerPromedioCalificacion(),
-                        p1.obtenerPromedioCalificacion()));
+        return leer(instantanea -> {
+            Indice_ordenado porPrecio = indicePrecios.getPorPrecio();
+            int inicio = porPrecio.desde(minimo);
+            if (cursor != null) {
+                inicio = Math.max(inicio, porPrecio.despuesDe(ultimoPrecio, ultimoId));
+            }
 
-        int limite = Math.min(cantidad, disponibles.size());
-        List<Producto> resultado = disponibles.subList(0, limite);
+            int fin = porPrecio.hasta(maximo);
+            int limite = Math.min(fin, inicio + tamanoPagina);
+            int[] ids = new int[Math.max(0, limite - inicio)];
 
-        System.out.println("\nProductos mejor calificados:");
-        for (Producto prod : resultado) {
-            System.out.printf("- %s (★%.1f) - $%.2f - ID %d%n",
-                    prod.getNombre(),
-                    prod.obtenerPromedioCalificacion(),
-                    prod.getPrecio(),
-                    prod.getIdProducto());
-        }
+            for (int i = inicio; i < limite; i++) {
+                ids[i - inicio] = porPrecio.idEn(i);
+            }
 
-        return resultado;
+            String siguiente = null;
+            if (limite < fin) {
+                siguiente = "precio:" + Long.toHexString(Double.doubleToLongBits(porPrecio.claveEn(limite - 1))) +
+                        ":" + porPrecio.idEn(limite - 1);
+            }
+            return new Pagina(instantanea.obtenerProductos(ids), siguiente);
+        });
+    }
+
+    /**
+     * Stream perezoso de productos disponibles: se piden páginas a medida que se consume
+     * @return Stream de productos disponibles con stock, en orden de ID
+     */
+    public Stream<Producto_publicado> streamDisponibles() {
+        return stream(Producto_publicado::estaALaVenta, 64);
+    }
+
+    /**
+     * Stream perezoso de productos que cumplen un filtro
+     * @param filtro Condición (null para no filtrar)
+     * @param tamanoPagina Productos que se leen del índice por cada página interna
+     * @return Stream de productos en orden de ID
+     */
+    public Stream<Producto_publicado> stream(Predicate<Producto_publicado> filtro, int tamanoPagina) {
+        return Stream.iterate(paginar(filtro, tamanoPagina, null),
+                        pagina -> pagina != null,
+                        pagina -> pagina.hayMas() ? paginar(filtro, tamanoPagina, pagina.getCursorSiguiente()) : null)
+                .flatMap(pagina -> pagina.getProductos().stream());
     }
 
     // ==================== MÉTODOS AUXILIARES ====================
 
     /**
-     * Cuenta cuántos productos disponibles hay
+     * Cuenta cuántos productos disponibles hay (la instantánea lleva la cuenta)
      * @return Número de productos con stock
      */
     public int contarProductosDisponibles() {
-        int contador = 0;
-        for (Producto producto : productos.values()) {
-            if (producto.isDisponible() && producto.getStock() > 0) {
-                contador++;
-            }
-        }
-        return contador;
+        return publicador.getInstantanea().contarProductosDisponibles();
     }
 
     /**
-     * Obtiene todas las categorías disponibles
+     * Obtiene las categorías que tienen al menos un producto
      * @return Lista de categorías únicas
      */
     public List<String> obtenerCategorias() {
-        List<String> categorias = new ArrayList<>();
+        return leer(instantanea -> conteoCategorias.obtenerCategorias());
+    }
 
-        for (Producto producto : productos.values()) {
-            String categoria = producto.getCategoria();
-            if (!categorias.contains(categoria)) {
-                categorias.add(categoria);
+    /**
+     * Cuenta los productos de una categoría
+     * @param categoria Categoría a contar
+     * @return Cantidad de productos (con o sin stock)
+     */
+    public int contarProductosPorCategoria(String categoria) {
+        return leer(instantanea -> conteoCategorias.contarProductos(categoria));
+    }
+
+    /**
+     * Cuenta las unidades en stock de una categoría
+     * @param categoria Categoría a contar
+     * @return Suma del stock de sus productos
+     */
+    public long contarUnidadesPorCategoria(String categoria) {
+        return leer(instantanea -> conteoCategorias.contarUnidades(categoria));
+    }
+
+    /**
+     * Ejecuta una lectura de los índices con la instantánea que les corresponde
+     * Suscrito a la gestión de inventario, se hace con su candado y fuera de cualquier lote
+     */
+    private <T> T leer(Function<Instantanea_catalogo, T> lectura) {
+        if (gestionInventario == null) {
+            return lectura.apply(publicador.getInstantanea());
+        }
+        return gestionInventario.leer(() -> lectura.apply(publicador.getInstantanea()));
+    }
+
+    /**
+     * Resuelve los IDs de una consulta de los índices y los lee en la misma instantánea
+     */
+    private List<Producto_publicado> aProductos(Function<Instantanea_catalogo, int[]> consulta) {
+        return leer(instantanea -> instantanea.obtenerProductos(consulta.apply(instantanea)));
+    }
+
+    /**
+     * Resuelve los IDs de una consulta desde el caché (si el catálogo está suscrito a la
+     * gestión de inventario) y los lee en la última instantánea publicada, que nunca es
+     * anterior a los IDs; se saltan los productos eliminados desde que se calcularon
+     */
+    private List<Producto_publicado> enCache(String clave, int codigoCategoria,
+                                             Function<Instantanea_catalogo, int[]> consulta) {
+        if (cache == null) {
+            return aProductos(consulta);
+        }
+        int[] ids = cache.consultar(clave, codigoCategoria, () -> leer(consulta));
+        return publicador.getInstantanea().obtenerProductos(ids);
+    }
+
+    private int[] calcularPrendasPrincipales(Instantanea_catalogo instantanea) {
+        Consulta_productos consulta = new Consulta_productos();
+        consulta.setSoloDisponibles(false);
+        consulta.setSoloPrendasPrincipales(true);
+
+        int[] ids = planificador.ejecutar(consulta, instantanea);
+        int total = 0;
+        for (int id : ids) {
+            if (instantanea.obtenerProducto(id).getStock() > 0) {
+                ids[total++] = id;
             }
         }
+        return Arrays.copyOf(ids, total);
+    }
+
+    private int[] calcularMasBaratos(Instantanea_catalogo instantanea, int cantidad) {
+        Indice_ordenado porPrecio = indicePrecios.getPorPrecio();
+        int[] ids = new int[Math.max(0, Math.min(cantidad, porPrecio.tamano()))];
+        int total = 0;
 
-        return categorias;
+        // El índice ya está ordenado: basta leer las primeras posiciones disponibles
+        for (int i = 0; i < porPrecio.tamano() && total < ids.length; i++) {
+            int id = porPrecio.idEn(i);
+            if (instantanea.obtenerProducto(id).isDisponible()) {
+                ids[total++] = id;
+            }
+        }
+
+        return Arrays.copyOf(ids, total);
+    }
+
+    private static int leerCursorId(String cursor) {
+        return Integer.parseInt(partesCursor(cursor, "id", 2)[1]);
+    }
+
+    private static String[] partesCursor(String cursor, String tipo, int cantidad) {
+        String[] partes = cursor.split(":");
+        if (partes.length != cantidad || !partes[0].equals(tipo)) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return partes;
+    }
+
+    private static List<String> unico(String valor) {
+        return (valor != null) ? Collections.singletonList(valor) : null;
     }
 
     // ==================== GETTERS ====================
 
+    /**
+     * Caché de consultas con sus métricas de aciertos y fallos
+     * @return Caché, o null si el catálogo no está suscrito a la gestión de inventario
+     */
+    public Cache_consultas getCache() {
+        return cache;
+    }
+
+    /**
+     * Última instantánea publicada del catálogo
+     * Es inmutable: los hilos de lectura (navegación, búsquedas) pueden usarla sin
+     * bloqueos mientras el inventario sigue cambiando. Con el catálogo suscrito a la
+     * gestión de inventario se publica una nueva al terminar cada lote de cambios
+     * @return Instantanea del catálogo
+     */
+    public Instantanea_catalogo getInstantanea() {
+        return publicador.getInstantanea();
+    }
+
+    /**
+     * Productos del inventario que están en la última instantánea publicada
+     * @return Mapa de productos, en orden de ID
+     */
     public Map<Integer, Producto> getProductos() {
+        Map<Integer, Producto> productos = new LinkedHashMap<>();
+        publicador.getInstantanea().recorrerDesde(0, producto -> {
+            productos.put(producto.getIdProducto(), producto.getProducto());
+            return true;
+        });
         return productos;
     }
 
+    /**
+     * Cambia los productos del catálogo y reconstruye los índices
+     * Si el catálogo está suscrito a la gestión de inventario, los índices anteriores dejan
+     * de recibir avisos y los nuevos se suscriben en su lugar. Se hace con el candado de la
+     * gestión para que ningún cambio quede entre la construcción y la suscripción
+     * @param productos Mapa de productos
+     */
     public void setProductos(Map<Integer, Producto> productos) {
-        this.productos = productos;
+        if (gestionInventario == null) {
+            construirIndices(productos);
+            return;
+        }
+
+        synchronized (gestionInventario) {
+            desuscribir();
+            construirIndices(productos);
+            suscribir();
+            cache.invalidarTodo();
+        }
+    }
+
+    // ==================== ÍNDICES ====================
+
+    private void construirIndices(Map<Integer, Producto> productos) {
+        this.indiceNombres = new Indice_trigramas(productos);
+        this.indiceFacetas = new Indice_facetas(productos);
+        this.indicePrecios = new Indice_precios(productos);
+        this.rankingCalificaciones = new Ranking_calificaciones(productos);
+        this.planificador = new Planificador_consultas(indiceNombres, indiceFacetas, indicePrecios,
+                rankingCalificaciones);
+        this.autocompletado = new Autocompletado(productos);
+        this.conteoCategorias = new Conteo_categorias(productos);
+        this.contadorFacetas = new Contador_facetas(productos, indiceFacetas, indicePrecios);
+        this.publicador = new Publicador_catalogo(productos,
+                (publicador != null) ? publicador.getInstantanea().getVersion() + 1 : 1);
+    }
+
+    /**
+     * Suscribe los índices, el caché y el publicador, siempre en ese orden: cada aviso
+     * llega al caché con los índices ya al día, y la instantánea se publica al final
+     */
+    private void suscribir() {
+        for (Oyente_inventario oyente : oyentes()) {
+            gestionInventario.agregarOyente(oyente);
+        }
+    }
+
+    private void desuscribir() {
+        for (Oyente_inventario oyente : oyentes()) {
+            gestionInventario.quitarOyente(oyente);
+        }
+    }
+
+    private List<Oyente_inventario> oyentes() {
+        return List.of(indiceNombres, indiceFacetas, indicePrecios, rankingCalificaciones, autocompletado,
+                conteoCategorias, contadorFacetas, cache, publicador);
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package catalogo;
+
+/**
+ * Consulta combinada sobre el catálogo
+ * Cada criterio que se deja sin asignar (null, 0 o false) no filtra
+ * Ejemplo: jeans de Dama, talla 32, negros, entre $50.000 y $90.000 con 4 estrellas o más
+ */
+public class Consulta_productos {
+    private String nombre;
+    private String categoria;
+    private String talla;
+    private String color;
+    private double precioMinimo;
+    private double precioMaximo;
+    private double calificacionMinima;
+    private boolean soloPrendasPrincipales;
+    private boolean soloDisponibles;
+
+    /**
+     * Constructor de una consulta sin filtros (solo productos disponibles)
+     */
+    public Consulta_productos() {
+        this.precioMinimo = 0;
+        this.precioMaximo = Double.POSITIVE_INFINITY;
+        this.calificacionMinima = 0;
+        this.soloPrendasPrincipales = false;
+        this.soloDisponibles = true;
+    }
+
+    /**
+     * Verifica si la consulta filtra por precio
+     * @return true si se asignó un mínimo o un máximo
+     */
+    public boolean filtraPorPrecio() {
+        return precioMinimo > 0 || precioMaximo != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Verifica si la consulta filtra por calificación
+     * @return true si se asignó una calificación mínima
+     */
+    public boolean filtraPorCalificacion() {
+        return calificacionMinima > 0;
+    }
+
+    // ==================== GETTERS Y SETTERS ====================
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public String getTalla() {
+        return talla;
+    }
+
+    public void setTalla(String talla) {
+        this.talla = talla;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public double getPrecioMinimo() {
+        return precioMinimo;
+    }
+
+    public void setPrecioMinimo(double precioMinimo) {
+        this.precioMinimo = precioMinimo;
+    }
+
+    public double getPrecioMaximo() {
+        return precioMaximo;
+    }
+
+    public void setPrecioMaximo(double precioMaximo) {
+        this.precioMaximo = precioMaximo;
+    }
+
+    /**
+     * Asigna el rango de precio
+     * @param minimo Precio mínimo
+     * @param maximo Precio máximo
+     */
+    public void setRangoPrecio(double minimo, double maximo) {
+        this.precioMinimo = minimo;
+        this.precioMaximo = maximo;
+    }
+
+    public double getCalificacionMinima() {
+        return calificacionMinima;
+    }
+
+    public void setCalificacionMinima(double calificacionMinima) {
+        this.calificacionMinima = calificacionMinima;
+    }
+
+    public boolean isSoloPrendasPrincipales() {
+        return soloPrendasPrincipales;
+    }
+
+    public void setSoloPrendasPrincipales(boolean soloPrendasPrincipales) {
+        this.soloPrendasPrincipales = soloPrendasPrincipales;
+    }
+
+    public boolean isSoloDisponibles() {
+        return soloDisponibles;
+    }
+
+    public void setSoloDisponibles(boolean soloDisponibles) {
+        this.soloDisponibles = soloDisponibles;
+    }
+}
@@ -0,0 +1,308 @@
+package catalogo;
+
+import estructuras.Mapa_bits;
+import estructuras.Normalizador_texto;
+import inventario.Oyente_inventario;
+import producto.Diccionario_categorias;
+import producto.Producto;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Conteos de productos con stock por talla, color, categoría y rango de precio
+ * (en los productos con stock por variante, solo las tallas y colores con unidades)
+ * Sin filtros, los conteos se leen de contadores que se actualizan con cada cambio
+ * de stock, precio o categoría. Con filtros, cada faceta se cuenta sobre la selección
+ * sin su propio filtro (así se ve cuántos productos habría al cambiar de talla, por ejemplo)
+ * usando intersecciones de los mapas de bits de Indice_facetas
+ */
+public final class Contador_facetas implements Oyente_inventario {
+    private static final double ANCHO_RANGO_PRECIO = 20000;
+
+    private static final int FILTRO_CATEGORIA = 0;
+    private static final int FILTRO_TALLA = 1;
+    private static final int FILTRO_COLOR = 2;
+    private static final int FILTRO_PRECIO = 3;
+    private static final int SIN_EXCLUIR = -1;
+
+    private Indice_facetas indiceFacetas;
+    private Indice_precios indicePrecios;
+
+    // Productos con stock por valor de faceta
+    private Map<String, Integer> tallasEnStock;            // Clave: talla normalizada
+    private Map<String, Integer> coloresEnStock;           // Clave: color normalizado
+    private Map<Integer, Integer> categoriasEnStock;       // Clave: código de categoría
+    private Map<Integer, Integer> rangosEnStock;           // Clave: número de rango de precio
+    private TreeMap<Integer, Mapa_bits> productosPorRango; // Todos los productos, por rango de precio
+    private Map<Integer, Facetas_contadas> contadasConVariantes;    // Clave: id_producto con stock por variante
+
+    /**
+     * Constructor que cuenta el inventario
+     * @param productos Mapa de productos del inventario
+     * @param indiceFacetas Índice de facetas del catálogo
+     * @param indicePrecios Índice de precios del catálogo
+     */
+    public Contador_facetas(Map<Integer, Producto> productos, Indice_facetas indiceFacetas,
+                            Indice_precios indicePrecios) {
+        this.indiceFacetas = indiceFacetas;
+        this.indicePrecios = indicePrecios;
+        this.tallasEnStock = new TreeMap<>();
+        this.coloresEnStock = new TreeMap<>();
+        this.categoriasEnStock = new TreeMap<>();
+        this.rangosEnStock = new TreeMap<>();
+        this.productosPorRango = new TreeMap<>();
+        this.contadasConVariantes = new HashMap<>();
+
+        for (Producto producto : productos.values()) {
+            productoAgregado(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        productosPorRango.computeIfAbsent(rango(producto.getPrecio()), r -> new Mapa_bits())
+                .agregar(producto.getIdProducto());
+        if (producto.getStock() > 0) {
+            sumarProducto(producto, 1);
+        }
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        quitarDeRango(rango(producto.getPrecio()), producto.getIdProducto());
+        if (producto.getStock() > 0) {
+            sumarProducto(producto, -1);
+        }
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        boolean teniaStock = stockAnterior > 0;
+        boolean tieneStock = producto.getStock() > 0;
+        if (producto.tieneVariantes()) {
+            // Sus tallas y colores disponibles pueden cambiar aunque siga teniendo stock
+            if (teniaStock) {
+                sumarProducto(producto, -1);
+            }
+            if (tieneStock) {
+                sumarProducto(producto, 1);
+            }
+        } else if (teniaStock != tieneStock) {
+            sumarProducto(producto, tieneStock ? 1 : -1);
+        }
+    }
+
+    @Override
+    public void precioCambiado(Producto producto, double precioAnterior) {
+        int anterior = rango(precioAnterior);
+        int actual = rango(producto.getPrecio());
+        if (anterior == actual) {
+            return;
+        }
+
+        quitarDeRango(anterior, producto.getIdProducto());
+        productosPorRango.computeIfAbsent(actual, r -> new Mapa_bits()).agregar(producto.getIdProducto());
+        if (producto.getStock() > 0) {
+            sumar(rangosEnStock, anterior, -1);
+            sumar(rangosEnStock, actual, 1);
+        }
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        if (producto.getStock() > 0) {
+            sumar(categoriasEnStock, codigoAnterior, -1);
+            sumar(categoriasEnStock, producto.getCodigoCategoria(), 1);
+        }
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Conteos de todo el catálogo (sin filtros), leídos de los contadores
+     * @return Conteos por faceta
+     */
+    public Conteos_facetas contar() {
+        Map<String, Integer> categorias = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entrada : categoriasEnStock.entrySet()) {
+            categorias.put(Diccionario_categorias.nombre(entrada.getKey()), entrada.getValue());
+        }
+
+        Map<String, Integer> rangos = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> entrada : rangosEnStock.entrySet()) {
+            rangos.put(etiquetaRango(entrada.getKey()), entrada.getValue());
+        }
+
+        return new Conteos_facetas(new TreeMap<>(tallasEnStock), new TreeMap<>(coloresEnStock),
+                categorias, rangos, indiceFacetas.getEnStock().cardinalidad());
+    }
+
+    /**
+     * Conteos condicionados a una selección de filtros
+     * Se usan la categoría, la talla, el color y el rango de precio de la consulta
+     * @param seleccion Filtros elegidos por el cliente
+     * @return Conteos por faceta
+     */
+    public Conteos_facetas contar(Consulta_productos seleccion) {
+        Mapa_bits[] filtros = new Mapa_bits[4];
+        if (tieneValor(seleccion.getCategoria())) {
+            filtros[FILTRO_CATEGORIA] = indiceFacetas.porCategoria(seleccion.getCategoria());
+        }
+        if (tieneValor(seleccion.getTalla())) {
+            filtros[FILTRO_TALLA] = indiceFacetas.porTalla(seleccion.getTalla());
+        }
+        if (tieneValor(seleccion.getColor())) {
+            filtros[FILTRO_COLOR] = indiceFacetas.porColor(seleccion.getColor());
+        }
+        if (seleccion.filtraPorPrecio()) {
+            filtros[FILTRO_PRECIO] = aMapa(indicePrecios.rango(seleccion.getPrecioMinimo(),
+                    seleccion.getPrecioMaximo()));
+        }
+
+        if (filtros[0] == null && filtros[1] == null && filtros[2] == null && filtros[3] == null) {
+            return contar();
+        }
+
+        Map<String, Integer> tallas = contarValores(indiceFacetas.mapasPorTalla(),
+                base(filtros, FILTRO_TALLA));
+        Map<String, Integer> colores = contarValores(indiceFacetas.mapasPorColor(),
+                base(filtros, FILTRO_COLOR));
+
+        Map<String, Integer> categorias = new LinkedHashMap<>();
+        Mapa_bits sinCategoria = base(filtros, FILTRO_CATEGORIA);
+        List<Mapa_bits> porCategoria = indiceFacetas.mapasPorCategoria();
+        for (int codigo = 0; codigo < porCategoria.size(); codigo++) {
+            int cantidad = sinCategoria.cardinalidadAnd(porCategoria.get(codigo));
+            if (cantidad > 0) {
+                categorias.put(Diccionario_categorias.nombre(codigo), cantidad);
+            }
+        }
+
+        Map<String, Integer> rangos = new LinkedHashMap<>();
+        Mapa_bits sinPrecio = base(filtros, FILTRO_PRECIO);
+        for (Map.Entry<Integer, Mapa_bits> entrada : productosPorRango.entrySet()) {
+            int cantidad = sinPrecio.cardinalidadAnd(entrada.getValue());
+            if (cantidad > 0) {
+                rangos.put(etiquetaRango(entrada.getKey()), cantidad);
+            }
+        }
+
+        return new Conteos_facetas(tallas, colores, categorias, rangos,
+                base(filtros, SIN_EXCLUIR).cardinalidad());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Productos con stock que cumplen todos los filtros menos el excluido
+     * (sin copiar si no hay filtros; no debe modificarse)
+     */
+    private Mapa_bits base(Mapa_bits[] filtros, int excluido) {
+        Mapa_bits resultado = indiceFacetas.getEnStock();
+        for (int i = 0; i < filtros.length; i++) {
+            if (i != excluido && filtros[i] != null) {
+                resultado = resultado.and(filtros[i]);
+            }
+        }
+        return resultado;
+    }
+
+    private static Map<String, Integer> contarValores(Map<String, Mapa_bits> faceta, Mapa_bits base) {
+        Map<String, Integer> conteos = new TreeMap<>();
+        for (Map.Entry<String, Mapa_bits> entrada : faceta.entrySet()) {
+            int cantidad = base.cardinalidadAnd(entrada.getValue());
+            if (cantidad > 0) {
+                conteos.put(entrada.getKey(), cantidad);
+            }
+        }
+        return conteos;
+    }
+
+    private void sumarProducto(Producto producto, int diferencia) {
+        // Al restar se usan las tallas y colores con que se contó el producto
+        Facetas_contadas facetas = (diferencia < 0) ? contadasConVariantes.remove(producto.getIdProducto()) : null;
+        if (facetas == null) {
+            facetas = (diferencia < 0)
+                    ? new Facetas_contadas(normalizados(producto.getTallas()), normalizados(producto.getColores()))
+                    : new Facetas_contadas(normalizados(producto.getTallasDisponibles()),
+                            normalizados(producto.getColoresDisponibles()));
+            if (diferencia > 0 && producto.tieneVariantes()) {
+                contadasConVariantes.put(producto.getIdProducto(), facetas);
+            }
+        }
+
+        for (String talla : facetas.tallas) {
+            sumar(tallasEnStock, talla, diferencia);
+        }
+        for (String color : facetas.colores) {
+            sumar(coloresEnStock, color, diferencia);
+        }
+        sumar(categoriasEnStock, producto.getCodigoCategoria(), diferencia);
+        sumar(rangosEnStock, rango(producto.getPrecio()), diferencia);
+    }
+
+    private void quitarDeRango(int rango, int idProducto) {
+        Mapa_bits ids = productosPorRango.get(rango);
+        if (ids != null && ids.eliminar(idProducto) && ids.estaVacio()) {
+            productosPorRango.remove(rango);
+        }
+    }
+
+    private static <K> void sumar(Map<K, Integer> conteos, K clave, int diferencia) {
+        int nuevo = conteos.getOrDefault(clave, 0) + diferencia;
+        if (nuevo > 0) {
+            conteos.put(clave, nuevo);
+        } else {
+            conteos.remove(clave);
+        }
+    }
+
+    private static Set<String> normalizados(List<String> valores) {
+        Set<String> resultado = new HashSet<>();
+        for (String valor : valores) {
+            resultado.add(Normalizador_texto.normalizar(valor));
+        }
+        return resultado;
+    }
+
+    private static Mapa_bits aMapa(int[] ids) {
+        Mapa_bits resultado = new Mapa_bits();
+        for (int id : ids) {
+            resultado.agregar(id);
+        }
+        return resultado;
+    }
+
+    private static boolean tieneValor(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    private static int rango(double precio) {
+        return (int) Math.floor(precio / ANCHO_RANGO_PRECIO);
+    }
+
+    private static String etiquetaRango(int rango) {
+        return String.format("$%.0f - $%.0f", rango * ANCHO_RANGO_PRECIO, (rango + 1) * ANCHO_RANGO_PRECIO);
+    }
+
+    /**
+     * Tallas y colores (normalizados) con que se contó un producto con stock por variante
+     */
+    private static final class Facetas_contadas {
+        private final Set<String> tallas;
+        private final Set<String> colores;
+
+        Facetas_contadas(Set<String> tallas, Set<String> colores) {
+            this.tallas = tallas;
+            this.colores = colores;
+        }
+    }
+}
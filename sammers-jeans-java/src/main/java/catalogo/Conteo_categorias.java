@@ -0,0 +1,108 @@
+package catalogo;
+
+import inventario.Oyente_inventario;
+import producto.Diccionario_categorias;
+import producto.Producto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cantidad de productos y de unidades en stock por categoría
+ * Los contadores están indexados por el código de Diccionario_categorias y se
+ * actualizan con cada cambio del inventario, así que consultarlos es O(1)
+ */
+public class Conteo_categorias implements Oyente_inventario {
+    private int[] productosPorCategoria;    // Posición: código de categoría
+    private long[] unidadesPorCategoria;    // Posición: código de categoría
+
+    /**
+     * Constructor que cuenta los productos del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Conteo_categorias(Map<Integer, Producto> productos) {
+        this.productosPorCategoria = new int[Math.max(4, Diccionario_categorias.cantidad())];
+        this.unidadesPorCategoria = new long[productosPorCategoria.length];
+
+        for (Producto producto : productos.values()) {
+            sumar(producto.getCodigoCategoria(), 1, unidades(producto));
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        sumar(producto.getCodigoCategoria(), 1, unidades(producto));
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        sumar(producto.getCodigoCategoria(), -1, -unidades(producto));
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        sumar(producto.getCodigoCategoria(), 0, unidades(producto) - Math.max(0, stockAnterior));
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        sumar(codigoAnterior, -1, -unidades(producto));
+        sumar(producto.getCodigoCategoria(), 1, unidades(producto));
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Categorías que tienen al menos un producto, en el orden en que se registraron
+     * @return Nombres de las categorías
+     */
+    public List<String> obtenerCategorias() {
+        List<String> categorias = new ArrayList<>();
+        for (int codigo = 0; codigo < productosPorCategoria.length; codigo++) {
+            if (productosPorCategoria[codigo] > 0) {
+                categorias.add(Diccionario_categorias.nombre(codigo));
+            }
+        }
+        return categorias;
+    }
+
+    /**
+     * Cantidad de productos de una categoría
+     * @param categoria Nombre de la categoría (sin importar tildes ni mayúsculas)
+     * @return Cantidad de productos
+     */
+    public int contarProductos(String categoria) {
+        int codigo = Diccionario_categorias.buscarCodigo(categoria);
+        return (codigo >= 0 && codigo < productosPorCategoria.length) ? productosPorCategoria[codigo] : 0;
+    }
+
+    /**
+     * Unidades en stock de una categoría
+     * @param categoria Nombre de la categoría (sin importar tildes ni mayúsculas)
+     * @return Suma del stock de sus productos
+     */
+    public long contarUnidades(String categoria) {
+        int codigo = Diccionario_categorias.buscarCodigo(categoria);
+        return (codigo >= 0 && codigo < unidadesPorCategoria.length) ? unidadesPorCategoria[codigo] : 0;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void sumar(int codigo, int productos, long unidades) {
+        if (codigo >= productosPorCategoria.length) {
+            int capacidad = Math.max(codigo + 1, productosPorCategoria.length * 2);
+            productosPorCategoria = Arrays.copyOf(productosPorCategoria, capacidad);
+            unidadesPorCategoria = Arrays.copyOf(unidadesPorCategoria, capacidad);
+        }
+        productosPorCategoria[codigo] += productos;
+        unidadesPorCategoria[codigo] += unidades;
+    }
+
+    private static long unidades(Producto producto) {
+        return Math.max(0, producto.getStock());
+    }
+}
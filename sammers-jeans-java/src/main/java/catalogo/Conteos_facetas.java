@@ -0,0 +1,53 @@
+package catalogo;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Conteos de productos con stock por cada valor de faceta, para mostrar junto a
+ * cada filtro de la tienda ("Talla 32 (143)", "negro (88)", "$40000 - $60000 (12)")
+ */
+public class Conteos_facetas {
+    private Map<String, Integer> tallas;
+    private Map<String, Integer> colores;
+    private Map<String, Integer> categorias;
+    private Map<String, Integer> rangosPrecio;
+    private int total;
+
+    /**
+     * Constructor de los conteos
+     * @param tallas Conteo por talla
+     * @param colores Conteo por color
+     * @param categorias Conteo por categoría
+     * @param rangosPrecio Conteo por rango de precio, del más barato al más caro
+     * @param total Productos con stock que cumplen toda la selección
+     */
+    public Conteos_facetas(Map<String, Integer> tallas, Map<String, Integer> colores,
+                           Map<String, Integer> categorias, Map<String, Integer> rangosPrecio, int total) {
+        this.tallas = Collections.unmodifiableMap(tallas);
+        this.colores = Collections.unmodifiableMap(colores);
+        this.categorias = Collections.unmodifiableMap(categorias);
+        this.rangosPrecio = Collections.unmodifiableMap(rangosPrecio);
+        this.total = total;
+    }
+
+    public Map<String, Integer> getTallas() {
+        return tallas;
+    }
+
+    public Map<String, Integer> getColores() {
+        return colores;
+    }
+
+    public Map<String, Integer> getCategorias() {
+        return categorias;
+    }
+
+    public Map<String, Integer> getRangosPrecio() {
+        return rangosPrecio;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
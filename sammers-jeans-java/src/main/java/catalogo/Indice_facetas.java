@@ -0,0 +1,286 @@
+package catalogo;
+
+import estructuras.Mapa_bits;
+import estructuras.Normalizador_texto;
+import inventario.Oyente_inventario;
+import producto.Diccionario_categorias;
+import producto.Producto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de facetas (talla, color, categoría y stock) con mapas de bits comprimidos
+ * Cada valor de faceta guarda el conjunto de IDs que lo tienen, así que combinar
+ * filtros se reduce a unas pocas intersecciones y uniones de mapas de bits
+ * En los productos con stock por variante solo cuentan las tallas y colores con unidades
+ */
+public final class Indice_facetas implements Oyente_inventario {
+    private Map<String, Mapa_bits> tallas;        // Clave: talla normalizada
+    private Map<String, Mapa_bits> colores;       // Clave: color normalizado
+    private List<Mapa_bits> categorias;           // Posición: código de categoría
+    private Mapa_bits enStock;                    // Productos con stock > 0
+    private Mapa_bits todos;                      // Todos los productos indexados
+
+    /**
+     * Constructor que construye el índice a partir del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Indice_facetas(Map<Integer, Producto> productos) {
+        this.tallas = new HashMap<>();
+        this.colores = new HashMap<>();
+        this.categorias = new ArrayList<>();
+        this.enStock = new Mapa_bits();
+        this.todos = new Mapa_bits();
+
+        for (Producto producto : productos.values()) {
+            agregar(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Indexa las facetas de un producto
+     * @param producto Producto a indexar
+     */
+    public void agregar(Producto producto) {
+        int id = producto.getIdProducto();
+
+        for (String talla : producto.getTallasDisponibles()) {
+            bitsDe(tallas, talla).agregar(id);
+        }
+        for (String color : producto.getColoresDisponibles()) {
+            bitsDe(colores, color).agregar(id);
+        }
+        bitsDeCategoria(producto.getCodigoCategoria()).agregar(id);
+
+        todos.agregar(id);
+        actualizarStock(producto);
+    }
+
+    /**
+     * Quita un producto de todas las facetas
+     * @param producto Producto a quitar
+     */
+    public void eliminar(Producto producto) {
+        int id = producto.getIdProducto();
+
+        for (String talla : producto.getTallas()) {
+            quitarDe(tallas, talla, id);
+        }
+        for (String color : producto.getColores()) {
+            quitarDe(colores, color, id);
+        }
+        bitsDeCategoria(producto.getCodigoCategoria()).eliminar(id);
+
+        enStock.eliminar(id);
+        todos.eliminar(id);
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        agregar(producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        eliminar(producto);
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        if (producto.tieneVariantes()) {
+            actualizarVariantes(producto);
+        }
+        actualizarStock(producto);
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        bitsDeCategoria(codigoAnterior).eliminar(producto.getIdProducto());
+        bitsDeCategoria(producto.getCodigoCategoria()).agregar(producto.getIdProducto());
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Consulta combinada: dentro de cada faceta se hace OR de los valores pedidos
+     * y entre facetas se hace AND. Una faceta null o vacía no filtra.
+     * Ejemplo: categorías [Dama], tallas [32], colores [negro], soloEnStock true
+     * @param categoriasPedidas Categorías aceptadas
+     * @param tallasPedidas Tallas aceptadas
+     * @param coloresPedidos Colores aceptados
+     * @param soloEnStock true para quedarse solo con productos con stock
+     * @return Mapa de bits con los IDs que cumplen la consulta
+     */
+    public Mapa_bits consultar(Collection<String> categoriasPedidas, Collection<String> tallasPedidas,
+                               Collection<String> coloresPedidos, boolean soloEnStock) {
+        Mapa_bits resultado = soloEnStock ? enStock : null;
+
+        resultado = intersectar(resultado, unionCategorias(categoriasPedidas));
+        resultado = intersectar(resultado, union(tallas, tallasPedidas));
+        resultado = intersectar(resultado, union(colores, coloresPedidos));
+
+        if (resultado == null) {
+            // Sin ningún filtro: todos los productos indexados
+            resultado = todos;
+        }
+
+        return (resultado == enStock || resultado == todos) ? resultado.copia() : resultado;
+    }
+
+    /**
+     * Productos con una talla (sin copiar; no debe modificarse)
+     * @param talla Talla a buscar
+     * @return Mapa de bits de la talla (vacío si no existe)
+     */
+    public Mapa_bits porTalla(String talla) {
+        return tallas.getOrDefault(Normalizador_texto.normalizar(talla), new Mapa_bits());
+    }
+
+    /**
+     * Productos con un color (sin copiar; no debe modificarse)
+     * @param color Color a buscar
+     * @return Mapa de bits del color (vacío si no existe)
+     */
+    public Mapa_bits porColor(String color) {
+        return colores.getOrDefault(Normalizador_texto.normalizar(color), new Mapa_bits());
+    }
+
+    /**
+     * Productos de una categoría (sin copiar; no debe modificarse)
+     * @param categoria Categoría a buscar
+     * @return Mapa de bits de la categoría (vacío si no existe)
+     */
+    public Mapa_bits porCategoria(String categoria) {
+        int codigo = Diccionario_categorias.buscarCodigo(categoria);
+        return (codigo >= 0 && codigo < categorias.size()) ? categorias.get(codigo) : new Mapa_bits();
+    }
+
+    /**
+     * Productos con stock (sin copiar; no debe modificarse)
+     * @return Mapa de bits de productos con stock
+     */
+    public Mapa_bits getEnStock() {
+        return enStock;
+    }
+
+    /**
+     * Todos los productos indexados (sin copiar; no debe modificarse)
+     * @return Mapa de bits con todos los IDs
+     */
+    public Mapa_bits getTodos() {
+        return todos;
+    }
+
+    /**
+     * Mapas de bits de cada talla (vista de solo lectura; no deben modificarse)
+     * @return Clave: talla normalizada, Valor: productos con esa talla
+     */
+    Map<String, Mapa_bits> mapasPorTalla() {
+        return Collections.unmodifiableMap(tallas);
+    }
+
+    /**
+     * Mapas de bits de cada color (vista de solo lectura; no deben modificarse)
+     * @return Clave: color normalizado, Valor: productos con ese color
+     */
+    Map<String, Mapa_bits> mapasPorColor() {
+        return Collections.unmodifiableMap(colores);
+    }
+
+    /**
+     * Mapas de bits de cada categoría (vista de solo lectura; no deben modificarse)
+     * @return Posición: código de categoría, Valor: productos de esa categoría
+     */
+    List<Mapa_bits> mapasPorCategoria() {
+        return Collections.unmodifiableList(categorias);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Una variante que se agota (o vuelve) puede sacar (o devolver) su talla o su color
+     */
+    private void actualizarVariantes(Producto producto) {
+        int id = producto.getIdProducto();
+        for (String talla : producto.getTallas()) {
+            quitarDe(tallas, talla, id);
+        }
+        for (String color : producto.getColores()) {
+            quitarDe(colores, color, id);
+        }
+        for (String talla : producto.getTallasDisponibles()) {
+            bitsDe(tallas, talla).agregar(id);
+        }
+        for (String color : producto.getColoresDisponibles()) {
+            bitsDe(colores, color).agregar(id);
+        }
+    }
+
+    private void actualizarStock(Producto producto) {
+        if (producto.getStock() > 0) {
+            enStock.agregar(producto.getIdProducto());
+        } else {
+            enStock.eliminar(producto.getIdProducto());
+        }
+    }
+
+    private Mapa_bits bitsDeCategoria(int codigo) {
+        while (categorias.size() <= codigo) {
+            categorias.add(new Mapa_bits());
+        }
+        return categorias.get(codigo);
+    }
+
+    private static Mapa_bits bitsDe(Map<String, Mapa_bits> faceta, String valor) {
+        return faceta.computeIfAbsent(Normalizador_texto.normalizar(valor), v -> new Mapa_bits());
+    }
+
+    private static void quitarDe(Map<String, Mapa_bits> faceta, String valor, int id) {
+        String clave = Normalizador_texto.normalizar(valor);
+        Mapa_bits ids = faceta.get(clave);
+        if (ids != null && ids.eliminar(id) && ids.estaVacio()) {
+            faceta.remove(clave);
+        }
+    }
+
+    private static Mapa_bits union(Map<String, Mapa_bits> faceta, Collection<String> valores) {
+        if (valores == null || valores.isEmpty()) {
+            return null;
+        }
+
+        Mapa_bits resultado = new Mapa_bits();
+        for (String valor : valores) {
+            Mapa_bits ids = faceta.get(Normalizador_texto.normalizar(valor));
+            if (ids != null) {
+                resultado = resultado.or(ids);
+            }
+        }
+        return resultado;
+    }
+
+    private Mapa_bits unionCategorias(Collection<String> valores) {
+        if (valores == null || valores.isEmpty()) {
+            return null;
+        }
+
+        Mapa_bits resultado = new Mapa_bits();
+        for (String valor : valores) {
+            resultado = resultado.or(porCategoria(valor));
+        }
+        return resultado;
+    }
+
+    private static Mapa_bits intersectar(Mapa_bits actual, Mapa_bits otro) {
+        if (otro == null) {
+            return actual;
+        }
+        return (actual == null) ? otro : actual.and(otro);
+    }
+}
@@ -0,0 +1,106 @@
+package catalogo;
+
+import estructuras.Indice_ordenado;
+import inventario.Oyente_inventario;
+import producto.Producto;
+
+import java.util.Map;
+
+/**
+ * Índice de productos con stock ordenados por precio
+ * Responde rangos de precio en O(log n + k) y listados paginados por precio
+ */
+public final class Indice_precios implements Oyente_inventario {
+    private Indice_ordenado porPrecio;
+
+    /**
+     * Constructor que construye el índice a partir del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Indice_precios(Map<Integer, Producto> productos) {
+        this.porPrecio = new Indice_ordenado();
+
+        for (Producto producto : productos.values()) {
+            actualizar(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Agrega, reubica o quita el producto según su precio y stock actuales
+     * @param producto Producto a actualizar
+     */
+    public void actualizar(Producto producto) {
+        if (producto.getStock() > 0) {
+            porPrecio.insertar(producto.getIdProducto(), producto.getPrecio());
+        } else {
+            porPrecio.eliminar(producto.getIdProducto());
+        }
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        actualizar(producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        porPrecio.eliminar(producto.getIdProducto());
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        actualizar(producto);
+    }
+
+    @Override
+    public void precioCambiado(Producto producto, double precioAnterior) {
+        actualizar(producto);
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * IDs con precio entre mínimo y máximo (inclusive), del más barato al más caro
+     * @param minimo Precio mínimo
+     * @param maximo Precio máximo
+     * @return IDs encontrados
+     */
+    public int[] rango(double minimo, double maximo) {
+        return porPrecio.rango(minimo, maximo);
+    }
+
+    /**
+     * Cantidad de productos con stock en un rango de precio, en O(log n)
+     * @param minimo Precio mínimo
+     * @param maximo Precio máximo
+     * @return Cantidad de productos
+     */
+    public int contarRango(double minimo, double maximo) {
+        return porPrecio.contarRango(minimo, maximo);
+    }
+
+    /**
+     * Página del listado ordenado por precio
+     * @param pagina Número de página (empieza en 0)
+     * @param tamanoPagina Productos por página
+     * @param ascendente true del más barato al más caro
+     * @return IDs de la página
+     */
+    public int[] pagina(int pagina, int tamanoPagina, boolean ascendente) {
+        return porPrecio.pagina(pagina * tamanoPagina, tamanoPagina, ascendente);
+    }
+
+    /**
+     * Cantidad de productos con stock indexados
+     * @return Tamaño del índice
+     */
+    public int tamano() {
+        return porPrecio.tamano();
+    }
+
+    public Indice_ordenado getPorPrecio() {
+        return porPrecio;
+    }
+}
@@ -0,0 +1,200 @@
+package catalogo;
+
+import estructuras.Conjunto_ids;
+import estructuras.Normalizador_texto;
+import inventario.Oyente_inventario;
+import producto.Producto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice invertido de n-gramas (1 a 3 caracteres) sobre los nombres normalizados
+ * Permite búsquedas por coincidencia parcial sin recorrer todo el inventario
+ */
+public final class Indice_trigramas implements Oyente_inventario {
+    private static final int N = 3;
+
+    private Map<String, Conjunto_ids> gramas;   // Clave: n-grama, Valor: IDs que lo contienen
+    private Map<Integer, String> nombres;       // Clave: id_producto, Valor: nombre normalizado
+
+    /**
+     * Constructor que construye el índice a partir del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Indice_trigramas(Map<Integer, Producto> productos) {
+        this.gramas = new HashMap<>();
+        this.nombres = new HashMap<>();
+
+        for (Producto producto : productos.values()) {
+            agregar(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Indexa el nombre de un producto
+     * @param producto Producto a indexar
+     */
+    public void agregar(Producto producto) {
+        int id = producto.getIdProducto();
+        eliminar(id);
+
+        String nombre = Normalizador_texto.normalizar(producto.getNombre());
+        nombres.put(id, nombre);
+
+        for (String grama : extraerGramas(nombre)) {
+            gramas.computeIfAbsent(grama, g -> new Conjunto_ids()).agregar(id);
+        }
+    }
+
+    /**
+     * Quita un producto del índice
+     * @param idProducto ID del producto
+     */
+    public void eliminar(int idProducto) {
+        String nombre = nombres.remove(idProducto);
+        if (nombre == null) {
+            return;
+        }
+
+        for (String grama : extraerGramas(nombre)) {
+            Conjunto_ids ids = gramas.get(grama);
+            if (ids != null && ids.eliminar(idProducto) && ids.estaVacio()) {
+                gramas.remove(grama);
+            }
+        }
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        agregar(producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        eliminar(producto.getIdProducto());
+    }
+
+    @Override
+    public void nombreCambiado(Producto producto, String nombreAnterior) {
+        agregar(producto);
+    }
+
+    // ==================== BUSCAR ====================
+
+    /**
+     * Busca los productos cuyo nombre contiene el texto (sin importar tildes ni mayúsculas)
+     * @param texto Texto a buscar
+     * @return IDs de los productos encontrados en orden ascendente
+     */
+    public int[] buscar(String texto) {
+        String consulta = Normalizador_texto.normalizar(texto);
+
+        if (consulta.isEmpty()) {
+            int[] todos = new int[nombres.size()];
+            int i = 0;
+            for (int id : nombres.keySet()) {
+                todos[i++] = id;
+            }
+            Arrays.sort(todos);
+            return todos;
+        }
+
+        // Consultas cortas: la lista del n-grama ya es la respuesta exacta
+        if (consulta.length() <= N) {
+            Conjunto_ids ids = gramas.get(consulta);
+            return (ids != null) ? ids.aArreglo() : new int[0];
+        }
+
+        // Consultas largas: intersectar las listas de sus trigramas, empezando por la más corta
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + N <= consulta.length(); i++) {
+            trigramas.add(consulta.substring(i, i + N));
+        }
+
+        Conjunto_ids[] listas = new Conjunto_ids[trigramas.size()];
+        int k = 0;
+        for (String trigrama : trigramas) {
+            Conjunto_ids ids = gramas.get(trigrama);
+            if (ids == null) {
+                return new int[0];
+            }
+            listas[k++] = ids;
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.tamano(), b.tamano()));
+
+        Conjunto_ids menor = listas[0];
+        int[] resultados = new int[menor.tamano()];
+        int encontrados = 0;
+
+        for (int i = 0; i < menor.tamano(); i++) {
+            int id = menor.obtener(i);
+            if (estaEnTodas(listas, id) && nombres.get(id).contains(consulta)) {
+                resultados[encontrados++] = id;
+            }
+        }
+
+        return Arrays.copyOf(resultados, encontrados);
+    }
+
+    /**
+     * Estima cuántos productos pueden contener el texto sin hacer la búsqueda:
+     * es el tamaño de la lista más corta entre sus n-gramas
+     * @param texto Texto a buscar
+     * @return Cota superior de la cantidad de resultados
+     */
+    public int estimarResultados(String texto) {
+        String consulta = Normalizador_texto.normalizar(texto);
+        if (consulta.isEmpty()) {
+            return nombres.size();
+        }
+
+        int minimo = Integer.MAX_VALUE;
+        int largo = Math.min(N, consulta.length());
+        for (int i = 0; i + largo <= consulta.length(); i++) {
+            Conjunto_ids ids = gramas.get(consulta.substring(i, i + largo));
+            if (ids == null) {
+                return 0;
+            }
+            minimo = Math.min(minimo, ids.tamano());
+        }
+        return minimo;
+    }
+
+    /**
+     * Verifica si el nombre indexado de un producto contiene un texto ya normalizado
+     * @param idProducto ID del producto
+     * @param consultaNormalizada Texto normalizado con Normalizador_texto
+     * @return true si lo contiene
+     */
+    public boolean nombreContiene(int idProducto, String consultaNormalizada) {
+        String nombre = nombres.get(idProducto);
+        return nombre != null && nombre.contains(consultaNormalizada);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static boolean estaEnTodas(Conjunto_ids[] listas, int id) {
+        for (int i = 1; i < listas.length; i++) {
+            if (!listas[i].contiene(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> extraerGramas(String nombre) {
+        Set<String> resultado = new HashSet<>();
+        for (int largo = 1; largo <= N; largo++) {
+            for (int i = 0; i + largo <= nombre.length(); i++) {
+                resultado.add(nombre.substring(i, i + largo));
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,92 @@
+package catalogo;
+
+import estructuras.Mapa_persistente;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Instantánea inmutable y versionada del catálogo
+ * Guarda copias de los productos en un mapa persistente por ID que nunca se modifica
+ * después de publicarse, así que varios hilos pueden leerla a la vez sin bloqueos
+ * mientras el inventario sigue cambiando
+ */
+public final class Instantanea_catalogo {
+    private final long version;
+    private final Mapa_persistente<Producto_publicado> productos;
+    private final int disponibles;    // Productos disponibles con stock
+
+    Instantanea_catalogo(long version, Mapa_persistente<Producto_publicado> productos, int disponibles) {
+        this.version = version;
+        this.productos = productos;
+        this.disponibles = disponibles;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Obtiene un producto por su ID
+     * @param idProducto ID del producto
+     * @return Producto o null si no estaba en el catálogo al publicarse la instantánea
+     */
+    public Producto_publicado obtenerProducto(int idProducto) {
+        return productos.obtener(idProducto);
+    }
+
+    /**
+     * Productos de una lista de IDs, en el mismo orden; se saltan los que no estaban
+     * en el catálogo al publicarse la instantánea
+     * @param ids IDs de los productos
+     * @return Lista de productos
+     */
+    public List<Producto_publicado> obtenerProductos(int[] ids) {
+        List<Producto_publicado> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Producto_publicado producto = productos.obtener(id);
+            if (producto != null) {
+                resultado.add(producto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre en orden de ID los productos desde un ID, hasta que la acción devuelva false
+     * @param idMinimo Primer ID a considerar
+     * @param accion Acción a ejecutar; si devuelve false se detiene el recorrido
+     */
+    public void recorrerDesde(int idMinimo, Predicate<Producto_publicado> accion) {
+        productos.recorrerDesde(idMinimo, accion);
+    }
+
+    /**
+     * Cuenta los productos disponibles con stock
+     * @return Cantidad de productos
+     */
+    public int contarProductosDisponibles() {
+        return disponibles;
+    }
+
+    /**
+     * Versión de la instantánea; crece en uno con cada publicación
+     * @return Número de versión
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Cantidad de productos en la instantánea
+     * @return Cantidad de productos
+     */
+    public int tamano() {
+        return productos.tamano();
+    }
+
+    // ==================== PAQUETE ====================
+
+    Mapa_persistente<Producto_publicado> getProductos() {
+        return productos;
+    }
+}
@@ -0,0 +1,44 @@
+package catalogo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta del catálogo
+ * El cursor siguiente apunta al último elemento entregado (no a una posición),
+ * así que la página siguiente sigue siendo correcta aunque el inventario cambie entre llamadas
+ */
+public class Pagina {
+    private List<Producto_publicado> productos;
+    private String cursorSiguiente;
+
+    /**
+     * Constructor de una página
+     * @param productos Productos de la página
+     * @param cursorSiguiente Cursor para pedir la página siguiente (null si es la última)
+     */
+    public Pagina(List<Producto_publicado> productos, String cursorSiguiente) {
+        this.productos = Collections.unmodifiableList(productos);
+        this.cursorSiguiente = cursorSiguiente;
+    }
+
+    public List<Producto_publicado> getProductos() {
+        return productos;
+    }
+
+    public String getCursorSiguiente() {
+        return cursorSiguiente;
+    }
+
+    /**
+     * Verifica si hay más resultados después de esta página
+     * @return true si existe una página siguiente
+     */
+    public boolean hayMas() {
+        return cursorSiguiente != null;
+    }
+
+    public boolean estaVacia() {
+        return productos.isEmpty();
+    }
+}
@@ -0,0 +1,199 @@
+package catalogo;
+
+import estructuras.Mapa_bits;
+import estructuras.Normalizador_texto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Planificador de consultas combinadas del catálogo
+ * Estima cuántos productos deja pasar cada criterio usando los índices, genera los
+ * candidatos con el criterio más selectivo que tenga índice y verifica el resto
+ * producto por producto, de lo más barato a lo más caro, cortando en el primer fallo
+ * Se ejecuta con el candado de la gestión de inventario (los índices cambian con cada
+ * aviso) y verifica los datos de cada producto en la instantánea publicada, que con el
+ * candado tomado y sin lotes abiertos coincide con los índices
+ */
+class Planificador_consultas {
+    private Indice_trigramas indiceNombres;
+    private Indice_facetas indiceFacetas;
+    private Indice_precios indicePrecios;
+    private Ranking_calificaciones rankingCalificaciones;
+
+    Planificador_consultas(Indice_trigramas indiceNombres, Indice_facetas indiceFacetas,
+                           Indice_precios indicePrecios, Ranking_calificaciones rankingCalificaciones) {
+        this.indiceNombres = indiceNombres;
+        this.indiceFacetas = indiceFacetas;
+        this.indicePrecios = indicePrecios;
+        this.rankingCalificaciones = rankingCalificaciones;
+    }
+
+    /**
+     * Ejecuta una consulta combinada
+     * @param consulta Criterios de la consulta
+     * @param instantanea Instantánea del catálogo al día con los índices
+     * @return IDs de los productos que cumplen todos los criterios, en orden
+     */
+    int[] ejecutar(Consulta_productos consulta, Instantanea_catalogo instantanea) {
+        List<Criterio> criterios = armarCriterios(consulta, instantanea);
+
+        for (Criterio criterio : criterios) {
+            if (criterio.estimacion == 0) {
+                return new int[0];
+            }
+        }
+
+        // El conductor es el criterio indexado más selectivo; sin ninguno se recorre todo
+        Criterio conductor = null;
+        for (Criterio criterio : criterios) {
+            if (criterio.generar != null && (conductor == null || criterio.estimacion < conductor.estimacion)) {
+                conductor = criterio;
+            }
+        }
+        int[] candidatos = (conductor != null) ? conductor.generar.get() : indiceFacetas.getTodos().aArreglo();
+
+        List<Criterio> verificaciones = new ArrayList<>(criterios);
+        verificaciones.remove(conductor);
+        verificaciones.sort(Comparator.comparingInt(criterio -> criterio.costo));
+
+        int[] aceptados = new int[candidatos.length];
+        int total = 0;
+        for (int id : candidatos) {
+            if (cumpleTodos(verificaciones, id)) {
+                aceptados[total++] = id;
+            }
+        }
+
+        aceptados = Arrays.copyOf(aceptados, total);
+        Arrays.sort(aceptados);
+        return aceptados;
+    }
+
+    // ==================== CRITERIOS ====================
+
+    private List<Criterio> armarCriterios(Consulta_productos consulta, Instantanea_catalogo instantanea) {
+        List<Criterio> criterios = new ArrayList<>();
+        boolean soloDisponibles = consulta.isSoloDisponibles();
+
+        if (soloDisponibles) {
+            Mapa_bits enStock = indiceFacetas.getEnStock();
+            criterios.add(new Criterio(enStock.cardinalidad(), 0,
+                    id -> instantanea.obtenerProducto(id).isDisponible() && enStock.contiene(id),
+                    enStock::aArreglo));
+        }
+
+        agregarFaceta(criterios, consulta.getCategoria(), indiceFacetas::porCategoria);
+        agregarFaceta(criterios, consulta.getTalla(), indiceFacetas::porTalla);
+        agregarFaceta(criterios, consulta.getColor(), indiceFacetas::porColor);
+
+        if (consulta.filtraPorPrecio()) {
+            double minimo = consulta.getPrecioMinimo();
+            double maximo = consulta.getPrecioMaximo();
+            IntPredicate enRango = id -> {
+                double precio = instantanea.obtenerProducto(id).getPrecio();
+                return precio >= minimo && precio <= maximo;
+            };
+
+            // El índice de precios solo guarda productos con stock
+            if (soloDisponibles) {
+                criterios.add(new Criterio(indicePrecios.contarRango(minimo, maximo), 2, enRango,
+                        () -> indicePrecios.rango(minimo, maximo)));
+            } else {
+                criterios.add(new Criterio(Integer.MAX_VALUE, 2, enRango, null));
+            }
+        }
+
+        if (consulta.filtraPorCalificacion()) {
+            double minima = consulta.getCalificacionMinima();
+            IntPredicate calificado = id -> instantanea.obtenerProducto(id).tieneCalificacionMinima(minima);
+
+            // El ranking solo guarda productos disponibles con reseñas
+            if (soloDisponibles) {
+                criterios.add(new Criterio(rankingCalificaciones.contarConPromedioMinimo(minima), 2, calificado,
+                        () -> rankingCalificaciones.conPromedioMinimo(minima)));
+            } else {
+                criterios.add(new Criterio(Integer.MAX_VALUE, 2, calificado, null));
+            }
+        }
+
+        if (consulta.isSoloPrendasPrincipales()) {
+            int estimacion = 0;
+            for (String clave : Catalogo.CLAVES_PRENDAS_PRINCIPALES) {
+                estimacion += indiceNombres.estimarResultados(clave);
+            }
+            criterios.add(new Criterio(estimacion, 3, this::esPrendaPrincipal, this::prendasPrincipales));
+        }
+
+        String nombre = consulta.getNombre();
+        if (nombre != null && !nombre.isBlank()) {
+            String normalizado = Normalizador_texto.normalizar(nombre);
+            criterios.add(new Criterio(indiceNombres.estimarResultados(nombre), 4,
+                    id -> indiceNombres.nombreContiene(id, normalizado),
+                    () -> indiceNombres.buscar(nombre)));
+        }
+
+        return criterios;
+    }
+
+    private void agregarFaceta(List<Criterio> criterios, String valor,
+                               Function<String, Mapa_bits> faceta) {
+        if (valor == null || valor.isBlank()) {
+            return;
+        }
+
+        Mapa_bits ids = faceta.apply(valor);
+        criterios.add(new Criterio(ids.cardinalidad(), 1, ids::contiene, ids::aArreglo));
+    }
+
+    private boolean esPrendaPrincipal(int id) {
+        for (String clave : Catalogo.CLAVES_PRENDAS_PRINCIPALES) {
+            if (indiceNombres.nombreContiene(id, clave)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] prendasPrincipales() {
+        Mapa_bits union = new Mapa_bits();
+        for (String clave : Catalogo.CLAVES_PRENDAS_PRINCIPALES) {
+            for (int id : indiceNombres.buscar(clave)) {
+                union.agregar(id);
+            }
+        }
+        return union.aArreglo();
+    }
+
+    private static boolean cumpleTodos(List<Criterio> verificaciones, int id) {
+        for (Criterio criterio : verificaciones) {
+            if (!criterio.verificar.test(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Un criterio de la consulta: su selectividad estimada, su costo de verificación
+     * por producto y, si tiene índice, cómo generar sus candidatos directamente
+     */
+    private static final class Criterio {
+        private final int estimacion;
+        private final int costo;
+        private final IntPredicate verificar;
+        private final Supplier<int[]> generar;
+
+        Criterio(int estimacion, int costo, IntPredicate verificar, Supplier<int[]> generar) {
+            this.estimacion = estimacion;
+            this.costo = costo;
+            this.verificar = verificar;
+            this.generar = generar;
+        }
+    }
+}
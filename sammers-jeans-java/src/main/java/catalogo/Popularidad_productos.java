@@ -0,0 +1,210 @@
+package catalogo;
+
+import estructuras.Bosquejo_count_min;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Popularidad de productos según cuántas veces se ven (fichas, reseñas, resultados de búsqueda)
+ * Las vistas se cuentan en bosquejos count-min, uno por ventana de tiempo: la ventana
+ * actual recibe las vistas y al rotar se recicla la más vieja. El puntaje de un producto
+ * suma sus vistas de cada ventana con menos peso cuanto más vieja es
+ * Aparte se siguen unos pocos candidatos, los productos de mayor puntaje: una vista de
+ * un candidato solo actualiza su puntaje, sin candados, y la lista ordenada se rearma
+ * (sobre los candidatos, no sobre el catálogo) la próxima vez que se lee, así que leer
+ * las tendencias cuesta O(k) más, a lo sumo, ordenar los candidatos
+ * Es seguro registrar vistas y leer tendencias desde varios hilos
+ */
+public class Popularidad_productos {
+    private static final int ANCHO_BOSQUEJO = 4096;
+    private static final double FACTOR_DECAIMIENTO = 0.5;    // Peso de cada ventana respecto de la siguiente
+
+    private final Bosquejo_count_min[] ventanas;
+    private final long duracionVentana;
+    private final int capacidadTendencias;
+    private volatile int ventanaActual;
+    private volatile long finVentana;
+
+    // Candidatos a tendencia; se agregan y quitan bajo el candado de esta instancia
+    private final Map<Integer, Double> candidatos;    // Clave: id_producto, Valor: puntaje
+    private volatile double puntajeMinimo;            // Puntaje para entrar cuando los candidatos están llenos
+    private volatile boolean desordenadas;            // Cambió algún puntaje desde que se armó la lista
+    private volatile int[] tendencias;                // IDs de mayor a menor puntaje
+
+    /**
+     * Constructor sin vistas registradas
+     * @param cantidadVentanas Cantidad de ventanas de tiempo que se recuerdan
+     * @param duracionVentanaMillis Duración de cada ventana en milisegundos
+     * @param capacidadTendencias Cantidad máxima de productos en tendencia
+     */
+    public Popularidad_productos(int cantidadVentanas, long duracionVentanaMillis, int capacidadTendencias) {
+        this.ventanas = new Bosquejo_count_min[Math.max(1, cantidadVentanas)];
+        for (int i = 0; i < ventanas.length; i++) {
+            ventanas[i] = new Bosquejo_count_min(ANCHO_BOSQUEJO);
+        }
+        this.duracionVentana = duracionVentanaMillis;
+        this.capacidadTendencias = capacidadTendencias;
+        this.ventanaActual = 0;
+        this.finVentana = Long.MIN_VALUE;
+        this.candidatos = new ConcurrentHashMap<>();
+        this.puntajeMinimo = 0;
+        this.desordenadas = false;
+        this.tendencias = new int[0];
+    }
+
+    // ==================== REGISTRAR ====================
+
+    /**
+     * Registra una vista de un producto en este momento
+     * @param idProducto ID del producto visto
+     */
+    public void registrarVista(int idProducto) {
+        registrarVista(idProducto, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra una vista de un producto en un instante dado
+     * @param idProducto ID del producto visto
+     * @param instanteMillis Instante de la vista en milisegundos
+     */
+    public void registrarVista(int idProducto, long instanteMillis) {
+        avanzarHasta(instanteMillis);
+        ventanas[ventanaActual].incrementar(idProducto);
+
+        // Un candidato solo sube su puntaje; el candado se toma si un producto nuevo puede entrar
+        double puntaje = estimar(idProducto);
+        if (candidatos.replace(idProducto, puntaje) != null) {
+            desordenadas = true;
+        } else if (puntaje > puntajeMinimo) {
+            agregarCandidato(idProducto, puntaje);
+        }
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Puntaje de popularidad de un producto: vistas de cada ventana, con la
+     * actual completa y cada ventana anterior con la mitad de peso que la siguiente
+     * @param idProducto ID del producto
+     * @return Puntaje estimado (nunca menor que el real)
+     */
+    public double estimar(int idProducto) {
+        int actual = ventanaActual;
+        double puntaje = 0;
+        double peso = 1;
+        for (int edad = 0; edad < ventanas.length; edad++) {
+            puntaje += peso * ventanas[(actual - edad + ventanas.length) % ventanas.length].estimar(idProducto);
+            peso *= FACTOR_DECAIMIENTO;
+        }
+        return puntaje;
+    }
+
+    /**
+     * Productos más vistos últimamente
+     * @param cantidad Cantidad máxima de productos
+     * @return IDs de mayor a menor popularidad
+     */
+    public int[] tendencias(int cantidad) {
+        if (desordenadas) {
+            synchronized (this) {
+                if (desordenadas) {
+                    ordenarTendencias();
+                }
+            }
+        }
+
+        int[] actuales = tendencias;
+        return Arrays.copyOf(actuales, Math.max(0, Math.min(cantidad, actuales.length)));
+    }
+
+    /**
+     * Pasa a la ventana que corresponde a un instante, reciclando las ventanas vencidas
+     * (también se llama al registrar una vista)
+     * @param instanteMillis Instante actual en milisegundos
+     */
+    public void avanzarHasta(long instanteMillis) {
+        if (instanteMillis < finVentana) {
+            return;
+        }
+
+        synchronized (this) {
+            if (finVentana == Long.MIN_VALUE) {
+                finVentana = instanteMillis + duracionVentana;
+                return;
+            }
+
+            int rotaciones = 0;
+            while (instanteMillis >= finVentana && rotaciones < ventanas.length) {
+                int siguiente = (ventanaActual + 1) % ventanas.length;
+                ventanas[siguiente].limpiar();
+                ventanaActual = siguiente;
+                finVentana += duracionVentana;
+                rotaciones++;
+            }
+            if (instanteMillis >= finVentana) {
+                // Pasaron más ventanas de las que se recuerdan: todas quedaron vacías
+                finVentana = instanteMillis + duracionVentana;
+                candidatos.clear();
+            }
+
+            // Todos los puntajes envejecen igual, así que el orden no cambia
+            double factor = Math.pow(FACTOR_DECAIMIENTO, rotaciones);
+            candidatos.replaceAll((id, puntaje) -> puntaje * factor);
+            candidatos.values().removeIf(puntaje -> puntaje < 1e-9);
+            ordenarTendencias();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private synchronized void agregarCandidato(int idProducto, double puntaje) {
+        if (candidatos.containsKey(idProducto)) {
+            candidatos.put(idProducto, puntaje);
+            desordenadas = true;
+            return;
+        }
+
+        if (candidatos.size() >= capacidadTendencias) {
+            // Con los candidatos llenos, el nuevo reemplaza al de menor puntaje si lo supera
+            Map.Entry<Integer, Double> menor = null;
+            for (Map.Entry<Integer, Double> entrada : candidatos.entrySet()) {
+                if (menor == null || entrada.getValue() < menor.getValue()) {
+                    menor = entrada;
+                }
+            }
+            if (menor == null || menor.getValue() >= puntaje) {
+                return;
+            }
+            candidatos.remove(menor.getKey());
+        }
+
+        candidatos.put(idProducto, puntaje);
+        ordenarTendencias();
+    }
+
+    /**
+     * Arma la lista ordenada de tendencias y el puntaje mínimo para entrar en ella
+     * (se llama con el candado tomado)
+     */
+    private void ordenarTendencias() {
+        desordenadas = false;
+        List<Map.Entry<Integer, Double>> ordenados = new ArrayList<>(candidatos.entrySet());
+        ordenados.sort((a, b) -> {
+            int porPuntaje = Double.compare(b.getValue(), a.getValue());
+            return (porPuntaje != 0) ? porPuntaje : Integer.compare(a.getKey(), b.getKey());
+        });
+
+        int[] ids = new int[ordenados.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ordenados.get(i).getKey();
+        }
+
+        puntajeMinimo = (ordenados.size() < capacidadTendencias) ? 0
+                : ordenados.get(ordenados.size() - 1).getValue();
+        tendencias = ids;
+    }
+}
@@ -0,0 +1,115 @@
+package catalogo;
+
+import producto.Producto;
+
+import java.util.List;
+
+/**
+ * Copia inmutable de un producto tal como estaba al publicarse una instantánea
+ * del catálogo; se puede leer desde cualquier hilo sin sincronizar
+ * Para comprar (carrito, pedidos) se usa el producto del inventario, con getProducto()
+ */
+public final class Producto_publicado {
+    private final Producto producto;    // Producto del inventario
+    private final int idProducto;
+    private final String nombre;
+    private final double precio;
+    private final int stock;
+    private final String categoria;
+    private final List<String> tallasDisponibles;
+    private final List<String> coloresDisponibles;
+    private final boolean disponible;
+    private final int cantidadResenas;
+    private final int sumaCalificaciones;
+
+    /**
+     * Constructor que copia el estado actual de un producto
+     * @param producto Producto a copiar
+     */
+    public Producto_publicado(Producto producto) {
+        this.producto = producto;
+        this.idProducto = producto.getIdProducto();
+        this.nombre = producto.getNombre();
+        this.precio = producto.getPrecio();
+        this.stock = producto.getStock();
+        this.categoria = producto.getCategoria();
+        this.tallasDisponibles = List.copyOf(producto.getTallasDisponibles());
+        this.coloresDisponibles = List.copyOf(producto.getColoresDisponibles());
+        this.disponible = producto.isDisponible();
+        this.cantidadResenas = producto.getCantidadResenas();
+        this.sumaCalificaciones = producto.getSumaCalificaciones();
+    }
+
+    /**
+     * Verifica si el producto se puede comprar (disponible y con stock)
+     * @return true si está disponible y tiene stock
+     */
+    public boolean estaALaVenta() {
+        return disponible && stock > 0;
+    }
+
+    /**
+     * Verifica si el promedio de calificaciones es mayor o igual al mínimo, sin dividir
+     * @param minimo Promedio mínimo
+     * @return true si tiene reseñas y su promedio alcanza el mínimo
+     */
+    public boolean tieneCalificacionMinima(double minimo) {
+        return cantidadResenas > 0 && sumaCalificaciones >= minimo * cantidadResenas;
+    }
+
+    public double obtenerPromedioCalificacion() {
+        return (cantidadResenas == 0) ? 0.0 : (double) sumaCalificaciones / cantidadResenas;
+    }
+
+    // ==================== GETTERS ====================
+
+    /**
+     * Producto del inventario (con el estado actual, no el de la instantánea)
+     * @return Producto para agregar al carrito
+     */
+    public Producto getProducto() {
+        return producto;
+    }
+
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public double getPrecio() {
+        return precio;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public List<String> getTallasDisponibles() {
+        return tallasDisponibles;
+    }
+
+    public List<String> getColoresDisponibles() {
+        return coloresDisponibles;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public int getCantidadResenas() {
+        return cantidadResenas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Producto(%d, %s, $%.2f, stock=%d, Categoria=%s)",
+                idProducto, nombre, precio, stock, categoria);
+    }
+}
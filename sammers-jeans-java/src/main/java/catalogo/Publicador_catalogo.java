@@ -0,0 +1,129 @@
+package catalogo;
+
+import estructuras.Mapa_persistente;
+import inventario.Oyente_inventario;
+import producto.Producto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publica instantáneas inmutables del catálogo (copia al escribir)
+ * Anota los productos que cambian y, al terminar cada lote de cambios del inventario,
+ * copia solo esos productos y los caminos que llevan a ellos en el mapa persistente:
+ * publicar cuesta O(cambiados · log n), así que la reserva de un carrito no copia
+ * el catálogo entero. Los lectores toman la última publicada sin bloqueos; los avisos
+ * llegan con el candado de la gestión de inventario, de a uno
+ */
+public final class Publicador_catalogo implements Oyente_inventario {
+    private Map<Integer, Producto> pendientes;    // Productos cambiados desde la última publicación (null: eliminado)
+    private volatile Instantanea_catalogo actual;
+
+    /**
+     * Constructor que publica la primera instantánea de los productos
+     * @param productos Mapa de productos del inventario
+     * @param version Versión de la primera instantánea
+     */
+    public Publicador_catalogo(Map<Integer, Producto> productos, long version) {
+        this.pendientes = new HashMap<>();
+
+        Mapa_persistente.Edicion<Producto_publicado> edicion = Mapa_persistente.<Producto_publicado>vacio().editar();
+        int disponibles = 0;
+        for (Producto producto : productos.values()) {
+            Producto_publicado copia = new Producto_publicado(producto);
+            edicion.poner(producto.getIdProducto(), copia);
+            if (copia.estaALaVenta()) {
+                disponibles++;
+            }
+        }
+        this.actual = new Instantanea_catalogo(version, edicion.terminar(), disponibles);
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        pendientes.put(producto.getIdProducto(), null);
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void precioCambiado(Producto producto, double precioAnterior) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void nombreCambiado(Producto producto, String nombreAnterior) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void resenaAgregada(Producto producto, int calificacion) {
+        pendientes.put(producto.getIdProducto(), producto);
+    }
+
+    @Override
+    public void loteTerminado() {
+        publicar();
+    }
+
+    // ==================== PUBLICAR ====================
+
+    /**
+     * Publica una instantánea nueva con los cambios pendientes (si hay alguno)
+     * Solo se copian de nuevo los productos que cambiaron; el resto se comparte
+     * con la instantánea anterior
+     */
+    private void publicar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        Instantanea_catalogo anterior = actual;
+        Mapa_persistente.Edicion<Producto_publicado> edicion = anterior.getProductos().editar();
+        int disponibles = anterior.contarProductosDisponibles();
+
+        for (Map.Entry<Integer, Producto> cambio : pendientes.entrySet()) {
+            int id = cambio.getKey();
+            Producto_publicado viejo = anterior.obtenerProducto(id);
+            if (viejo != null && viejo.estaALaVenta()) {
+                disponibles--;
+            }
+
+            if (cambio.getValue() == null) {
+                edicion.quitar(id);
+                continue;
+            }
+            Producto_publicado copia = new Producto_publicado(cambio.getValue());
+            edicion.poner(id, copia);
+            if (copia.estaALaVenta()) {
+                disponibles++;
+            }
+        }
+
+        pendientes = new HashMap<>();
+        actual = new Instantanea_catalogo(anterior.getVersion() + 1, edicion.terminar(), disponibles);
+    }
+
+    /**
+     * Última instantánea publicada; se puede llamar desde cualquier hilo
+     * @return Instantanea del catálogo
+     */
+    public Instantanea_catalogo getInstantanea() {
+        return actual;
+    }
+}
@@ -0,0 +1,117 @@
+package catalogo;
+
+import estructuras.Indice_ordenado;
+import inventario.Oyente_inventario;
+import producto.Producto;
+
+import java.util.Map;
+
+/**
+ * Rankings materializados de productos disponibles con reseñas:
+ * por calificación promedio y por cantidad de reseñas
+ * Se actualizan con cada reseña, cambio de stock o de inventario, así que
+ * pedir los N primeros es leer N posiciones sin ordenar nada
+ */
+public final class Ranking_calificaciones implements Oyente_inventario {
+    // Se guarda la clave negada para que el orden ascendente del índice sea de mayor a menor
+    // y los empates queden por ID ascendente
+    private Indice_ordenado porPromedio;
+    private Indice_ordenado porCantidad;
+
+    /**
+     * Constructor que construye los rankings a partir del inventario
+     * @param productos Mapa de productos del inventario
+     */
+    public Ranking_calificaciones(Map<Integer, Producto> productos) {
+        this.porPromedio = new Indice_ordenado();
+        this.porCantidad = new Indice_ordenado();
+
+        for (Producto producto : productos.values()) {
+            actualizar(producto);
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Reubica el producto en los rankings según su estado actual
+     * @param producto Producto a actualizar
+     */
+    public void actualizar(Producto producto) {
+        int id = producto.getIdProducto();
+
+        if (producto.isDisponible() && producto.getStock() > 0 && producto.getCantidadResenas() > 0) {
+            porPromedio.insertar(id, -producto.obtenerPromedioCalificacion());
+            porCantidad.insertar(id, -producto.getCantidadResenas());
+        } else {
+            eliminar(id);
+        }
+    }
+
+    /**
+     * Quita un producto de los rankings
+     * @param idProducto ID del producto
+     */
+    public void eliminar(int idProducto) {
+        porPromedio.eliminar(idProducto);
+        porCantidad.eliminar(idProducto);
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        actualizar(producto);
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        eliminar(producto.getIdProducto());
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        actualizar(producto);
+    }
+
+    @Override
+    public void resenaAgregada(Producto producto, int calificacion) {
+        actualizar(producto);
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * IDs de los productos mejor calificados
+     * @param cantidad Cantidad máxima de productos
+     * @return IDs de mayor a menor promedio
+     */
+    public int[] mejorCalificados(int cantidad) {
+        return porPromedio.pagina(0, cantidad, true);
+    }
+
+    /**
+     * IDs de los productos con más reseñas
+     * @param cantidad Cantidad máxima de productos
+     * @return IDs de mayor a menor cantidad de reseñas
+     */
+    public int[] masResenados(int cantidad) {
+        return porCantidad.pagina(0, cantidad, true);
+    }
+
+    /**
+     * IDs de los productos cuyo promedio es mayor o igual al mínimo (por ejemplo 4 estrellas o más)
+     * @param minimo Promedio mínimo
+     * @return IDs de mayor a menor promedio
+     */
+    public int[] conPromedioMinimo(double minimo) {
+        return porPromedio.rango(Double.NEGATIVE_INFINITY, -minimo);
+    }
+
+    /**
+     * Cantidad de productos con promedio mayor o igual al mínimo, en O(log n)
+     * @param minimo Promedio mínimo
+     * @return Cantidad de productos
+     */
+    public int contarConPromedioMinimo(double minimo) {
+        return porPromedio.contarRango(Double.NEGATIVE_INFINITY, -minimo);
+    }
+}
@@ -0,0 +1,177 @@
+package catalogo;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capa de presentación del catálogo: todo lo que se imprime en consola
+ * El catálogo solo consulta; esta clase recibe los resultados y los muestra
+ */
+public class Vista_catalogo {
+
+    // ==================== MOSTRAR CATÁLOGO ====================
+
+    /**
+     * Muestra todos los productos disponibles con stock
+     * @param catalogo Catálogo a mostrar
+     */
+    public void mostrarCatalogo(Catalogo catalogo) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("           CATÁLOGO DE PRODUCTOS");
+        System.out.println("=".repeat(60));
+
+        Iterator<Producto_publicado> disponibles = catalogo.streamDisponibles().iterator();
+
+        if (!disponibles.hasNext()) {
+            System.out.println("No hay productos disponibles en el catálogo.");
+        }
+
+        while (disponibles.hasNext()) {
+            Producto_publicado producto = disponibles.next();
+            System.out.println("ID: " + producto.getIdProducto());
+            System.out.println("Nombre: " + producto.getNombre());
+            System.out.printf("Precio: $%.2f%n", producto.getPrecio());
+            System.out.println("Stock: " + producto.getStock());
+            System.out.println("Categoría: " + producto.getCategoria());
+            System.out.println("Tallas disponibles: " + producto.getTallasDisponibles());
+            System.out.println("Colores disponibles: " + producto.getColoresDisponibles());
+            System.out.println("-".repeat(60));
+        }
+
+        System.out.println("=".repeat(60) + "\n");
+    }
+
+    /**
+     * Muestra el catálogo de forma resumida (tabla)
+     * @param catalogo Catálogo a mostrar
+     */
+    public void mostrarCatalogoResumido(Catalogo catalogo) {
+        encabezadoTabla();
+
+        Iterator<Producto_publicado> disponibles = catalogo.streamDisponibles().iterator();
+
+        if (!disponibles.hasNext()) {
+            System.out.println("No hay productos disponibles en el catálogo.");
+        }
+
+        while (disponibles.hasNext()) {
+            filaTabla(disponibles.next());
+        }
+
+        System.out.println("=".repeat(80) + "\n");
+    }
+
+    /**
+     * Muestra una página del catálogo en forma de tabla
+     * @param pagina Página a mostrar
+     */
+    public void mostrarPagina(Pagina pagina) {
+        encabezadoTabla();
+
+        if (pagina.estaVacia()) {
+            System.out.println("No hay productos disponibles en el catálogo.");
+        }
+
+        for (Producto_publicado producto : pagina.getProductos()) {
+            filaTabla(producto);
+        }
+
+        System.out.println("=".repeat(80));
+    }
+
+    // ==================== MOSTRAR RESULTADOS ====================
+
+    /**
+     * Muestra una lista de resultados de búsqueda o filtro
+     * @param titulo Título a mostrar si hay resultados
+     * @param resultados Productos encontrados
+     * @param mensajeVacio Mensaje a mostrar si no hay resultados
+     */
+    public void mostrarResultados(String titulo, List<Producto_publicado> resultados, String mensajeVacio) {
+        if (resultados.isEmpty()) {
+            System.out.println(mensajeVacio);
+            return;
+        }
+
+        System.out.println("\n" + titulo);
+        for (Producto_publicado prod : resultados) {
+            System.out.printf("- %s ($%.2f) - ID %d%n",
+                    prod.getNombre(),
+                    prod.getPrecio(),
+                    prod.getIdProducto());
+        }
+    }
+
+    /**
+     * Muestra productos junto con su calificación promedio
+     * @param resultados Productos mejor calificados
+     */
+    public void mostrarMejorCalificados(List<Producto_publicado> resultados) {
+        System.out.println("\nProductos mejor calificados:");
+        for (Producto_publicado prod : resultados) {
+            System.out.printf("- %s (★%.1f) - $%.2f - ID %d%n",
+                    prod.getNombre(),
+                    prod.obtenerPromedioCalificacion(),
+                    prod.getPrecio(),
+                    prod.getIdProducto());
+        }
+    }
+
+    /**
+     * Muestra cuántos productos con stock hay por cada valor de faceta
+     * @param conteos Conteos a mostrar
+     */
+    public void mostrarConteosFacetas(Conteos_facetas conteos) {
+        System.out.println("\nProductos disponibles: " + conteos.getTotal());
+        mostrarFaceta("Categoría", conteos.getCategorias());
+        mostrarFaceta("Talla", conteos.getTallas());
+        mostrarFaceta("Color", conteos.getColores());
+        mostrarFaceta("Precio", conteos.getRangosPrecio());
+    }
+
+    /**
+     * Muestra las métricas del caché de consultas del catálogo
+     * @param cache Caché a mostrar (null si no está activo)
+     */
+    public void mostrarEstadisticasCache(Cache_consultas cache) {
+        if (cache == null) {
+            System.out.println("El caché de consultas no está activo.");
+            return;
+        }
+
+        System.out.println("\n===== CACHÉ DE CONSULTAS =====");
+        System.out.println("Consultas guardadas: " + cache.getTamano() + " de " + cache.getCapacidad());
+        System.out.println("Aciertos: " + cache.getAciertos());
+        System.out.println("Fallos: " + cache.getFallos()
+                + " (" + cache.getInvalidaciones() + " por cambios del inventario)");
+        System.out.println("Expulsiones: " + cache.getExpulsiones());
+        System.out.printf("Tasa de aciertos: %.1f%%%n", cache.calcularTasaAciertos());
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void mostrarFaceta(String faceta, Map<String, Integer> conteos) {
+        for (Map.Entry<String, Integer> entrada : conteos.entrySet()) {
+            System.out.printf("- %s %s (%d)%n", faceta, entrada.getKey(), entrada.getValue());
+        }
+    }
+
+    private void encabezadoTabla() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                    CATÁLOGO DE PRODUCTOS");
+        System.out.println("=".repeat(80));
+        System.out.printf("%-5s %-30s %-12s %-10s %-15s%n",
+                "ID", "NOMBRE", "PRECIO", "STOCK", "CATEGORÍA");
+        System.out.println("-".repeat(80));
+    }
+
+    private void filaTabla(Producto_publicado producto) {
+        System.out.printf("%-5d %-30s $%-11.2f %-10d %-15s%n",
+                producto.getIdProducto(),
+                producto.getNombre(),
+                producto.getPrecio(),
+                producto.getStock(),
+                producto.getCategoria());
+    }
+}
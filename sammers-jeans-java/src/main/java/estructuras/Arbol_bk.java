@@ -0,0 +1,236 @@
+package estructuras;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Árbol BK (Burkhard-Keller) de palabras con distancia de edición (Levenshtein)
+ * Los hijos de cada nodo cuelgan según su distancia al nodo, así que la desigualdad
+ * triangular permite descartar ramas enteras al buscar palabras parecidas sin
+ * comparar contra todo el vocabulario
+ */
+public class Arbol_bk {
+    private Nodo raiz;
+    private int tamano;    // Palabras activas
+
+    /**
+     * Constructor de un árbol vacío
+     */
+    public Arbol_bk() {
+        this.raiz = null;
+        this.tamano = 0;
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Agrega una palabra al árbol
+     * @param palabra Palabra (ya normalizada)
+     * @return true si no estaba en el árbol
+     */
+    public boolean agregar(String palabra) {
+        if (raiz == null) {
+            raiz = new Nodo(palabra);
+            tamano++;
+            return true;
+        }
+
+        Nodo actual = raiz;
+        while (true) {
+            int distancia = distancia(palabra, actual.palabra);
+            if (distancia == 0) {
+                if (actual.activo) {
+                    return false;
+                }
+                actual.activo = true;
+                tamano++;
+                return true;
+            }
+
+            Nodo hijo = actual.hijo(distancia);
+            if (hijo == null) {
+                actual.agregarHijo(distancia, new Nodo(palabra));
+                tamano++;
+                return true;
+            }
+            actual = hijo;
+        }
+    }
+
+    /**
+     * Quita una palabra del árbol
+     * El nodo se marca como inactivo y se queda, porque sostiene a sus hijos
+     * @param palabra Palabra (ya normalizada)
+     * @return true si estaba en el árbol
+     */
+    public boolean eliminar(String palabra) {
+        Nodo actual = raiz;
+        while (actual != null) {
+            int distancia = distancia(palabra, actual.palabra);
+            if (distancia == 0) {
+                if (!actual.activo) {
+                    return false;
+                }
+                actual.activo = false;
+                tamano--;
+                return true;
+            }
+            actual = actual.hijo(distancia);
+        }
+        return false;
+    }
+
+    // ==================== BUSCAR ====================
+
+    /**
+     * Busca las palabras a distancia máxima de la consulta
+     * @param consulta Palabra a buscar (ya normalizada)
+     * @param distanciaMaxima Distancia de edición máxima aceptada
+     * @return Palabras encontradas (sin orden particular)
+     */
+    public List<String> buscar(String consulta, int distanciaMaxima) {
+        List<String> resultado = new ArrayList<>();
+        if (raiz == null) {
+            return resultado;
+        }
+
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.push(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.pop();
+
+            // Más allá de max + (mayor distancia de un hijo) no se acepta el nodo ni se baja
+            // a ningún hijo, así que no hace falta la distancia exacta
+            int distancia = distanciaAcotada(consulta, nodo.palabra, distanciaMaxima + nodo.mayorDistanciaHijo);
+
+            if (distancia <= distanciaMaxima && nodo.activo) {
+                resultado.add(nodo.palabra);
+            }
+
+            // Solo pueden tener coincidencias los hijos a distancia [d - max, d + max]
+            for (int i = 0; i < nodo.cantidadHijos; i++) {
+                int distanciaHijo = nodo.distanciasHijos[i];
+                if (distanciaHijo >= distancia - distanciaMaxima && distanciaHijo <= distancia + distanciaMaxima) {
+                    pendientes.push(nodo.hijos[i]);
+                }
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Cantidad de palabras en el árbol
+     * @return Cantidad de palabras activas
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    // ==================== DISTANCIA ====================
+
+    /**
+     * Distancia de edición (Levenshtein) entre dos textos: inserciones,
+     * borrados y reemplazos de un carácter necesarios para pasar de uno al otro
+     * @param a Primer texto
+     * @param b Segundo texto
+     * @return Distancia de edición
+     */
+    public static int distancia(String a, String b) {
+        // La distancia nunca supera el largo del texto más largo
+        return distanciaAcotada(a, b, Math.max(a.length(), b.length()));
+    }
+
+    /**
+     * Distancia de edición que deja de calcular en cuanto supera una cota
+     * Sirve para descartar rápido los textos que ya no pueden entrar en un resultado
+     * @param a Primer texto
+     * @param b Segundo texto
+     * @param cota Distancia máxima que interesa
+     * @return Distancia de edición, o cota + 1 si la supera
+     */
+    public static int distanciaAcotada(String a, String b, int cota) {
+        if (a.length() < b.length()) {
+            String temporal = a;
+            a = b;
+            b = temporal;
+        }
+        if (a.length() - b.length() > cota) {
+            return cota + 1;
+        }
+
+        // Solo se guardan dos filas de la matriz, del largo del texto más corto
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            char caracter = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int reemplazo = anterior[j - 1] + (caracter == b.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(reemplazo, Math.min(anterior[j], actual[j - 1]) + 1);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+
+            // Ninguna celda de las filas siguientes puede bajar del mínimo de esta fila
+            if (minimoFila > cota) {
+                return cota + 1;
+            }
+
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+
+        return Math.min(anterior[b.length()], cota + 1);
+    }
+
+    /**
+     * Nodo del árbol: una palabra y sus hijos indexados por distancia
+     */
+    private static final class Nodo {
+        private final String palabra;
+        private boolean activo;
+        private int[] distanciasHijos;
+        private Nodo[] hijos;
+        private int cantidadHijos;
+        private int mayorDistanciaHijo;
+
+        Nodo(String palabra) {
+            this.palabra = palabra;
+            this.activo = true;
+            this.distanciasHijos = new int[0];
+            this.hijos = new Nodo[0];
+            this.cantidadHijos = 0;
+            this.mayorDistanciaHijo = 0;
+        }
+
+        Nodo hijo(int distancia) {
+            for (int i = 0; i < cantidadHijos; i++) {
+                if (distanciasHijos[i] == distancia) {
+                    return hijos[i];
+                }
+            }
+            return null;
+        }
+
+        void agregarHijo(int distancia, Nodo hijo) {
+            if (cantidadHijos == hijos.length) {
+                int capacidad = Math.max(2, cantidadHijos * 2);
+                distanciasHijos = Arrays.copyOf(distanciasHijos, capacidad);
+                hijos = Arrays.copyOf(hijos, capacidad);
+            }
+            distanciasHijos[cantidadHijos] = distancia;
+            hijos[cantidadHijos] = hijo;
+            cantidadHijos++;
+            mayorDistanciaHijo = Math.max(mayorDistanciaHijo, distancia);
+        }
+    }
+}
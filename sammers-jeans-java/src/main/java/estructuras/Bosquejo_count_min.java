@@ -0,0 +1,79 @@
+package estructuras;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Bosquejo count-min concurrente para contar eventos por clave entera
+ * Cada clave suma en un contador de cada fila; la estimación es el menor de ellos,
+ * así que nunca cuenta de menos y cuenta de más como mucho una fracción pequeña del
+ * total de eventos (alrededor de e / ancho). Ocupa memoria fija sin importar cuántas
+ * claves distintas haya, y varios hilos pueden sumar a la vez sin bloqueos
+ */
+public class Bosquejo_count_min {
+    private static final int[] SEMILLAS = {0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f};
+
+    private final AtomicIntegerArray contadores;    // Fila f, columna c: posición f * ancho + c
+    private final int ancho;
+    private final int mascara;
+
+    /**
+     * Constructor de un bosquejo vacío
+     * @param ancho Contadores por fila (se redondea a potencia de 2)
+     */
+    public Bosquejo_count_min(int ancho) {
+        this.ancho = Integer.highestOneBit(Math.max(16, ancho - 1) * 2);
+        this.mascara = this.ancho - 1;
+        this.contadores = new AtomicIntegerArray(this.ancho * SEMILLAS.length);
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Suma un evento a una clave
+     * @param clave Clave (por ejemplo un ID de producto)
+     */
+    public void incrementar(int clave) {
+        for (int fila = 0; fila < SEMILLAS.length; fila++) {
+            contadores.incrementAndGet(posicion(clave, fila));
+        }
+    }
+
+    /**
+     * Pone todos los contadores en cero
+     * Los eventos que se sumen mientras tanto desde otros hilos pueden perderse o conservarse
+     */
+    public void limpiar() {
+        for (int i = 0; i < contadores.length(); i++) {
+            contadores.set(i, 0);
+        }
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Cantidad estimada de eventos de una clave (nunca menor que la real)
+     * @param clave Clave a consultar
+     * @return Estimación
+     */
+    public int estimar(int clave) {
+        int minimo = Integer.MAX_VALUE;
+        for (int fila = 0; fila < SEMILLAS.length; fila++) {
+            minimo = Math.min(minimo, contadores.get(posicion(clave, fila)));
+        }
+        return minimo;
+    }
+
+    public int getAncho() {
+        return ancho;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int posicion(int clave, int fila) {
+        int hash = (clave ^ SEMILLAS[fila]) * SEMILLAS[fila];
+        hash ^= hash >>> 16;
+        hash *= 0x7feb352d;
+        hash ^= hash >>> 15;
+        return fila * ancho + (hash & mascara);
+    }
+}
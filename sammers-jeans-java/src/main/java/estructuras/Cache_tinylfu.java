@@ -0,0 +1,259 @@
+package estructuras;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché acotado con expulsión W-TinyLFU
+ * Las entradas nuevas entran a una ventana LRU pequeña; al salir de ella compiten
+ * con la víctima de la zona principal (LRU segmentado: prueba y protegida) y se
+ * queda la de mayor frecuencia estimada. Las frecuencias se cuentan en un bosquejo
+ * count-min de contadores de 4 bits que se reduce a la mitad periódicamente, así
+ * que las consultas repetidas no las desplaza una ráfaga de consultas de una sola vez
+ * Hasta una consulta cambia el orden de acceso, así que todos los métodos toman el candado
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del valor
+ */
+public class Cache_tinylfu<K, V> {
+    private final int capacidad;
+    private final int capacidadVentana;
+    private final int capacidadProtegida;
+
+    // Mapas en orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<K, V> ventana;
+    private final LinkedHashMap<K, V> prueba;
+    private final LinkedHashMap<K, V> protegida;
+    private final Bosquejo_frecuencias frecuencias;
+    private long expulsiones;
+
+    /**
+     * Constructor de un caché vacío
+     * @param capacidad Cantidad máxima de entradas
+     */
+    public Cache_tinylfu(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser al menos 1");
+        }
+
+        this.capacidad = capacidad;
+        this.capacidadVentana = Math.max(1, capacidad / 100);
+        int capacidadPrincipal = capacidad - capacidadVentana;
+        this.capacidadProtegida = (int) (capacidadPrincipal * 0.8);
+        this.ventana = new LinkedHashMap<>(16, 0.75f, true);
+        this.prueba = new LinkedHashMap<>(16, 0.75f, true);
+        this.protegida = new LinkedHashMap<>(16, 0.75f, true);
+        this.frecuencias = new Bosquejo_frecuencias(capacidad);
+        this.expulsiones = 0;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Obtiene el valor de una clave y registra el acceso
+     * @param clave Clave a buscar
+     * @return Valor guardado, o null si no está
+     */
+    public synchronized V obtener(K clave) {
+        frecuencias.incrementar(clave);
+
+        V valor = ventana.get(clave);
+        if (valor != null) {
+            return valor;
+        }
+
+        valor = protegida.get(clave);
+        if (valor != null) {
+            return valor;
+        }
+
+        // Un segundo acceso en la zona de prueba la asciende a la protegida
+        valor = prueba.remove(clave);
+        if (valor != null) {
+            protegida.put(clave, valor);
+            if (protegida.size() > capacidadProtegida) {
+                Map.Entry<K, V> degradada = primera(protegida);
+                protegida.remove(degradada.getKey());
+                prueba.put(degradada.getKey(), degradada.getValue());
+            }
+        }
+        return valor;
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Guarda un valor; si la clave ya estaba, reemplaza su valor sin moverla de zona
+     * @param clave Clave
+     * @param valor Valor (no nulo)
+     */
+    public synchronized void guardar(K clave, V valor) {
+        if (ventana.containsKey(clave)) {
+            ventana.put(clave, valor);
+            return;
+        }
+        if (prueba.containsKey(clave)) {
+            prueba.put(clave, valor);
+            return;
+        }
+        if (protegida.containsKey(clave)) {
+            protegida.put(clave, valor);
+            return;
+        }
+
+        ventana.put(clave, valor);
+        if (ventana.size() > capacidadVentana) {
+            Map.Entry<K, V> candidata = primera(ventana);
+            ventana.remove(candidata.getKey());
+            admitir(candidata.getKey(), candidata.getValue());
+        }
+    }
+
+    /**
+     * Quita una clave del caché
+     * @param clave Clave a quitar
+     */
+    public synchronized void quitar(K clave) {
+        if (ventana.remove(clave) == null && prueba.remove(clave) == null) {
+            protegida.remove(clave);
+        }
+    }
+
+    /**
+     * Vacía el caché (las frecuencias se conservan)
+     */
+    public synchronized void limpiar() {
+        ventana.clear();
+        prueba.clear();
+        protegida.clear();
+    }
+
+    // ==================== ESTADO ====================
+
+    /**
+     * Cantidad de entradas guardadas
+     * @return Cantidad de entradas
+     */
+    public synchronized int tamano() {
+        return ventana.size() + prueba.size() + protegida.size();
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Entradas descartadas por falta de espacio (víctimas o candidatas rechazadas)
+     * @return Cantidad de expulsiones
+     */
+    public synchronized long getExpulsiones() {
+        return expulsiones;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * La candidata que sale de la ventana entra a la zona principal si hay espacio;
+     * si no, se queda la que tenga mayor frecuencia entre ella y la víctima
+     */
+    private void admitir(K clave, V valor) {
+        if (prueba.size() + protegida.size() < capacidad - capacidadVentana) {
+            prueba.put(clave, valor);
+            return;
+        }
+
+        LinkedHashMap<K, V> zonaVictima = prueba.isEmpty() ? protegida : prueba;
+        if (zonaVictima.isEmpty()) {
+            expulsiones++;    // Sin zona principal (capacidad 1): solo cabe la ventana
+            return;
+        }
+        K victima = primera(zonaVictima).getKey();
+        expulsiones++;
+
+        if (frecuencias.estimar(clave) > frecuencias.estimar(victima)) {
+            zonaVictima.remove(victima);
+            prueba.put(clave, valor);
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> primera(LinkedHashMap<K, V> mapa) {
+        Iterator<Map.Entry<K, V>> iterador = mapa.entrySet().iterator();
+        return iterador.next();
+    }
+
+    /**
+     * Bosquejo count-min: 4 contadores de 4 bits por clave (16 contadores por long)
+     * La frecuencia estimada es el menor de los 4; al llegar a 10 accesos por entrada
+     * de capacidad todos los contadores se dividen a la mitad para olvidar lo viejo
+     */
+    private static final class Bosquejo_frecuencias {
+        private static final long[] SEMILLAS = {
+                0x97cb3127L, 0xab7ef5e5L, 0x2f5e4b7bL, 0xd7c7a2b1L};
+        private static final long MASCARA_MITAD = 0x7777777777777777L;
+
+        private final long[] tabla;
+        private final int mascaraContadores;
+        private final int tamanoMuestra;
+        private int accesos;
+
+        Bosquejo_frecuencias(int capacidad) {
+            // Al menos un contador por entrada de capacidad, en potencia de 2
+            int contadores = Integer.highestOneBit(Math.max(16, capacidad - 1) * 2);
+            this.tabla = new long[contadores / 16];
+            this.mascaraContadores = contadores - 1;
+            this.tamanoMuestra = 10 * capacidad;
+            this.accesos = 0;
+        }
+
+        void incrementar(Object clave) {
+            int hash = dispersar(clave.hashCode());
+            boolean incrementado = false;
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                int indice = indice(hash, i);
+                int desplazamiento = (indice & 15) << 2;
+                long contador = (tabla[indice >>> 4] >>> desplazamiento) & 0xFL;
+                if (contador < 15) {
+                    tabla[indice >>> 4] += 1L << desplazamiento;
+                    incrementado = true;
+                }
+            }
+
+            if (incrementado && ++accesos >= tamanoMuestra) {
+                reducirAMitad();
+            }
+        }
+
+        int estimar(Object clave) {
+            int hash = dispersar(clave.hashCode());
+            int minimo = 15;
+            for (int i = 0; i < SEMILLAS.length; i++) {
+                int indice = indice(hash, i);
+                int contador = (int) ((tabla[indice >>> 4] >>> ((indice & 15) << 2)) & 0xFL);
+                minimo = Math.min(minimo, contador);
+            }
+            return minimo;
+        }
+
+        private int indice(int hash, int fila) {
+            long mezcla = (hash + SEMILLAS[fila]) * SEMILLAS[fila];
+            mezcla += mezcla >>> 32;
+            return (int) mezcla & mascaraContadores;
+        }
+
+        private void reducirAMitad() {
+            for (int i = 0; i < tabla.length; i++) {
+                tabla[i] = (tabla[i] >>> 1) & MASCARA_MITAD;
+            }
+            accesos /= 2;
+        }
+
+        private static int dispersar(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xed5ad4bb;
+            hash ^= hash >>> 11;
+            hash *= 0xac4c1b51;
+            hash ^= hash >>> 15;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package estructuras;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto ordenado de IDs enteros guardado en un arreglo primitivo
+ * Se usa como lista de apariciones (posting list) en los índices del catálogo
+ */
+public class Conjunto_ids {
+    private int[] ids;
+    private int tamano;
+
+    /**
+     * Constructor de un conjunto vacío
+     */
+    public Conjunto_ids() {
+        this.ids = new int[4];
+        this.tamano = 0;
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Agrega un ID manteniendo el orden
+     * @param id ID a agregar
+     * @return true si no estaba en el conjunto
+     */
+    public boolean agregar(int id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion >= 0) {
+            return false;
+        }
+
+        posicion = -posicion - 1;
+        if (tamano == ids.length) {
+            ids = Arrays.copyOf(ids, tamano * 2);
+        }
+
+        System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+        ids[posicion] = id;
+        tamano++;
+        return true;
+    }
+
+    /**
+     * Elimina un ID del conjunto
+     * @param id ID a eliminar
+     * @return true si estaba en el conjunto
+     */
+    public boolean eliminar(int id) {
+        int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+        if (posicion < 0) {
+            return false;
+        }
+
+        System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+        tamano--;
+        return true;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Verifica si un ID pertenece al conjunto (búsqueda binaria)
+     * @param id ID a buscar
+     * @return true si está en el conjunto
+     */
+    public boolean contiene(int id) {
+        return Arrays.binarySearch(ids, 0, tamano, id) >= 0;
+    }
+
+    /**
+     * Obtiene el ID en una posición del orden ascendente
+     * @param posicion Posición (0 a tamano - 1)
+     * @return ID en esa posición
+     */
+    public int obtener(int posicion) {
+        return ids[posicion];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    /**
+     * Copia los IDs a un arreglo nuevo
+     * @return Arreglo ordenado con los IDs
+     */
+    public int[] aArreglo() {
+        return Arrays.copyOf(ids, tamano);
+    }
+}
@@ -0,0 +1,205 @@
+package estructuras;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de textos para búsquedas tolerantes a errores de escritura
+ * Cada palabra de la consulta se busca con un árbol BK sobre el vocabulario y los
+ * candidatos son los IDs que tienen una palabra parecida a cada una de ellas; solo
+ * a esos pocos candidatos se les calcula la distancia de edición del texto completo
+ */
+public class Indice_aproximado {
+    private Map<Integer, String> textos;              // Clave: ID, Valor: texto normalizado
+    private Map<String, Conjunto_ids> porTexto;        // Clave: texto normalizado exacto
+    private Map<String, Mapa_bits> porPalabra;         // Clave: palabra, Valor: IDs que la usan
+    private Arbol_bk vocabulario;
+
+    /**
+     * Constructor de un índice vacío
+     */
+    public Indice_aproximado() {
+        this.textos = new HashMap<>();
+        this.porTexto = new HashMap<>();
+        this.porPalabra = new HashMap<>();
+        this.vocabulario = new Arbol_bk();
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Indexa (o reindexa) el texto de un ID
+     * @param id ID dueño del texto
+     * @param texto Texto a indexar
+     */
+    public void agregar(int id, String texto) {
+        eliminar(id);
+
+        String normalizado = Normalizador_texto.normalizar(texto);
+        textos.put(id, normalizado);
+        porTexto.computeIfAbsent(normalizado, t -> new Conjunto_ids()).agregar(id);
+
+        for (String palabra : palabras(normalizado)) {
+            Mapa_bits ids = porPalabra.get(palabra);
+            if (ids == null) {
+                ids = new Mapa_bits();
+                porPalabra.put(palabra, ids);
+                vocabulario.agregar(palabra);
+            }
+            ids.agregar(id);
+        }
+    }
+
+    /**
+     * Quita el texto de un ID
+     * @param id ID a quitar
+     */
+    public void eliminar(int id) {
+        String normalizado = textos.remove(id);
+        if (normalizado == null) {
+            return;
+        }
+
+        Conjunto_ids iguales = porTexto.get(normalizado);
+        if (iguales.eliminar(id) && iguales.estaVacio()) {
+            porTexto.remove(normalizado);
+        }
+
+        for (String palabra : palabras(normalizado)) {
+            Mapa_bits ids = porPalabra.get(palabra);
+            if (ids.eliminar(id) && ids.estaVacio()) {
+                porPalabra.remove(palabra);
+                vocabulario.eliminar(palabra);
+            }
+        }
+    }
+
+    // ==================== BUSCAR ====================
+
+    /**
+     * IDs cuyo texto es igual al buscado (sin importar tildes, mayúsculas ni espacios extra)
+     * @param texto Texto a buscar
+     * @return IDs en orden ascendente
+     */
+    public int[] buscarExactos(String texto) {
+        Conjunto_ids ids = porTexto.get(Normalizador_texto.normalizar(texto));
+        return (ids != null) ? ids.aArreglo() : new int[0];
+    }
+
+    /**
+     * Busca los IDs con texto parecido a la consulta
+     * Cada palabra tolera 1 error si tiene de 4 a 7 letras y 2 si es más larga;
+     * las palabras que no se parecen a nada del vocabulario se ignoran
+     * @param consulta Texto escrito por el usuario
+     * @param limite Cantidad máxima de IDs
+     * @return IDs de menor a mayor distancia de edición con el texto completo y, en empate, por ID
+     */
+    public int[] buscar(String consulta, int limite) {
+        String normalizada = Normalizador_texto.normalizar(consulta);
+        if (normalizada.isEmpty() || limite <= 0) {
+            return new int[0];
+        }
+
+        // Candidatos por palabra, intersectados de la lista más corta a la más larga
+        List<Mapa_bits> porConsulta = new ArrayList<>();
+        for (String palabra : palabras(normalizada)) {
+            Mapa_bits parecidos = idsParecidos(palabra);
+            if (!parecidos.estaVacio()) {
+                porConsulta.add(parecidos);
+            }
+        }
+        if (porConsulta.isEmpty()) {
+            return new int[0];
+        }
+
+        porConsulta.sort((a, b) -> Integer.compare(a.cardinalidad(), b.cardinalidad()));
+        Mapa_bits candidatos = porConsulta.get(0);
+        for (int i = 1; i < porConsulta.size() && !candidatos.estaVacio(); i++) {
+            candidatos = candidatos.and(porConsulta.get(i));
+        }
+
+        return mejores(normalizada, candidatos.aArreglo(), limite);
+    }
+
+    /**
+     * Cantidad de IDs indexados
+     * @return Cantidad de IDs
+     */
+    public int tamano() {
+        return textos.size();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Mapa_bits idsParecidos(String palabra) {
+        Mapa_bits resultado = new Mapa_bits();
+        for (String parecida : vocabulario.buscar(palabra, tolerancia(palabra))) {
+            resultado = resultado.or(porPalabra.get(parecida));
+        }
+        return resultado;
+    }
+
+    /**
+     * Se queda con los IDs más cercanos; cada candidato se compara con la cota del
+     * peor de los mejores encontrados hasta ahora, así la mayoría se descarta rápido
+     */
+    private int[] mejores(String consulta, int[] candidatos, int limite) {
+        // Cada entrada guarda distancia en los 32 bits altos e ID en los bajos, ordenadas ascendentemente
+        long[] mejores = new long[Math.min(limite, candidatos.length)];
+        int total = 0;
+
+        for (int id : candidatos) {
+            String texto = textos.get(id);
+            int cota = (total < mejores.length)
+                    ? Math.max(consulta.length(), texto.length())
+                    : (int) (mejores[total - 1] >>> 32);
+            int distancia = Arbol_bk.distanciaAcotada(consulta, texto, cota);
+            if (distancia > cota) {
+                continue;
+            }
+
+            long clave = ((long) distancia << 32) | id;
+            if (total == mejores.length) {
+                if (clave >= mejores[total - 1]) {
+                    continue;
+                }
+                total--;
+            }
+
+            int posicion = total;
+            while (posicion > 0 && mejores[posicion - 1] > clave) {
+                mejores[posicion] = mejores[posicion - 1];
+                posicion--;
+            }
+            mejores[posicion] = clave;
+            total++;
+        }
+
+        int[] resultado = new int[total];
+        for (int i = 0; i < total; i++) {
+            resultado[i] = (int) mejores[i];
+        }
+        return resultado;
+    }
+
+    private static int tolerancia(String palabra) {
+        if (palabra.length() <= 3) {
+            return 0;
+        }
+        return (palabra.length() <= 7) ? 1 : 2;
+    }
+
+    private static Set<String> palabras(String normalizado) {
+        Set<String> resultado = new LinkedHashSet<>();
+        for (String palabra : normalizado.split(" ")) {
+            if (!palabra.isEmpty()) {
+                resultado.add(palabra);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,390 @@
+package estructuras;
+
+import java.util.Arrays;
+
+/**
+ * Índice ordenado por una clave double (precio, calificación...) con arreglos primitivos
+ * Los pares (clave, id) se guardan ordenados por clave y luego por id, así que
+ * una consulta por rango cuesta O(log n + k) y se puede paginar por posición.
+ * El orden se reparte en bloques de a lo sumo TAMANO_BLOQUE pares: insertar o eliminar
+ * mueve los pares de un solo bloque y corrige la posición inicial de los bloques
+ * siguientes, O(TAMANO_BLOQUE + n / TAMANO_BLOQUE) en vez de correr todo el arreglo
+ * (con 500.000 productos, unas 1.500 posiciones en vez de hasta 500.000). A cambio,
+ * leer una posición suelta cuesta una búsqueda binaria entre los bloques
+ */
+public class Indice_ordenado {
+    private static final int TAMANO_BLOQUE = 512;
+
+    private double[][] claves;    // Claves de cada bloque
+    private int[][] ids;          // Ids de cada bloque
+    private int[] largos;         // Pares usados en cada bloque
+    private int[] inicios;        // Posición del primer par de cada bloque en el orden total
+    private int bloques;
+    private int tamano;
+    private Mapa_int_double clavePorId;   // Clave actual de cada id, para poder reubicarlo
+
+    /**
+     * Constructor de un índice vacío
+     */
+    public Indice_ordenado() {
+        this.claves = new double[4][];
+        this.ids = new int[4][];
+        this.largos = new int[4];
+        this.inicios = new int[4];
+        this.bloques = 0;
+        this.tamano = 0;
+        this.clavePorId = new Mapa_int_double();
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Inserta un id con su clave; si ya estaba, lo reubica con la clave nueva
+     * @param id ID del producto
+     * @param clave Clave de orden
+     */
+    public void insertar(int id, double clave) {
+        if (clavePorId.contiene(id)) {
+            if (Double.compare(clavePorId.obtener(id, 0), clave) == 0) {
+                return;
+            }
+            eliminar(id);
+        }
+
+        int bloque;
+        if (bloques == 0) {
+            agregarBloque(0);
+            bloque = 0;
+        } else {
+            bloque = Math.min(bloqueDe(clave, id), bloques - 1);
+        }
+        if (largos[bloque] == TAMANO_BLOQUE) {
+            partir(bloque);
+            int ultimo = largos[bloque] - 1;
+            if (comparar(clave, id, claves[bloque][ultimo], ids[bloque][ultimo]) > 0) {
+                bloque++;
+            }
+        }
+
+        int posicion = -buscarEnBloque(bloque, clave, id) - 1;
+        int largo = largos[bloque];
+        System.arraycopy(claves[bloque], posicion, claves[bloque], posicion + 1, largo - posicion);
+        System.arraycopy(ids[bloque], posicion, ids[bloque], posicion + 1, largo - posicion);
+        claves[bloque][posicion] = clave;
+        ids[bloque][posicion] = id;
+        largos[bloque]++;
+        tamano++;
+        recalcularInicios(bloque + 1);
+        clavePorId.poner(id, clave);
+    }
+
+    /**
+     * Elimina un id del índice
+     * @param id ID a eliminar
+     * @return true si estaba
+     */
+    public boolean eliminar(int id) {
+        if (!clavePorId.contiene(id)) {
+            return false;
+        }
+
+        double clave = clavePorId.obtener(id, 0);
+        int bloque = bloqueDe(clave, id);
+        int posicion = buscarEnBloque(bloque, clave, id);
+        int largo = largos[bloque];
+        System.arraycopy(claves[bloque], posicion + 1, claves[bloque], posicion, largo - posicion - 1);
+        System.arraycopy(ids[bloque], posicion + 1, ids[bloque], posicion, largo - posicion - 1);
+        largos[bloque]--;
+        tamano--;
+        clavePorId.eliminar(id);
+
+        // Juntar bloques vecinos que quedaron chicos, para que no se acumulen bloques casi vacíos
+        if (bloque + 1 < bloques && largos[bloque] + largos[bloque + 1] <= TAMANO_BLOQUE / 2) {
+            juntar(bloque);
+        } else if (bloque > 0 && largos[bloque - 1] + largos[bloque] <= TAMANO_BLOQUE / 2) {
+            bloque--;
+            juntar(bloque);
+        } else if (largos[bloque] == 0) {
+            quitarBloque(bloque);
+        }
+        recalcularInicios(bloque);
+        return true;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    public boolean contiene(int id) {
+        return clavePorId.contiene(id);
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public int idEn(int posicion) {
+        int bloque = bloqueEnPosicion(posicion);
+        return ids[bloque][posicion - inicios[bloque]];
+    }
+
+    public double claveEn(int posicion) {
+        int bloque = bloqueEnPosicion(posicion);
+        return claves[bloque][posicion - inicios[bloque]];
+    }
+
+    /**
+     * Primera posición cuya clave es mayor o igual al mínimo
+     * @param minimo Clave mínima
+     * @return Posición (tamano si no hay ninguna)
+     */
+    public int desde(double minimo) {
+        int posicion = buscar(minimo, Integer.MIN_VALUE);
+        return (posicion >= 0) ? posicion : -posicion - 1;
+    }
+
+    /**
+     * Primera posición cuya clave es mayor al máximo
+     * @param maximo Clave máxima
+     * @return Posición (tamano si no hay ninguna)
+     */
+    public int hasta(double maximo) {
+        int posicion = buscar(maximo, Integer.MAX_VALUE);
+        return (posicion >= 0) ? posicion + 1 : -posicion - 1;
+    }
+
+    /**
+     * Primera posición estrictamente posterior al par (clave, id), exista o no en el índice
+     * Sirve para continuar una paginación por cursor aunque el índice haya cambiado
+     * @param clave Clave del último elemento entregado
+     * @param id ID del último elemento entregado
+     * @return Posición siguiente
+     */
+    public int despuesDe(double clave, int id) {
+        int posicion = buscar(clave, id);
+        return (posicion >= 0) ? posicion + 1 : -posicion - 1;
+    }
+
+    /**
+     * Cantidad de ids con clave en [minimo, maximo] en O(log n)
+     * @param minimo Clave mínima
+     * @param maximo Clave máxima
+     * @return Cantidad de ids en el rango
+     */
+    public int contarRango(double minimo, double maximo) {
+        return Math.max(0, hasta(maximo) - desde(minimo));
+    }
+
+    /**
+     * Ids con clave en [minimo, maximo], en orden ascendente de clave
+     * @param minimo Clave mínima
+     * @param maximo Clave máxima
+     * @return Arreglo de ids
+     */
+    public int[] rango(double minimo, double maximo) {
+        return copiarIds(desde(minimo), hasta(maximo));
+    }
+
+    /**
+     * Página de ids en orden de clave
+     * @param desde Posición inicial dentro del orden pedido
+     * @param cantidad Cantidad máxima de ids
+     * @param ascendente true para clave ascendente, false para descendente
+     * @return Arreglo de ids de la página
+     */
+    public int[] pagina(int desde, int cantidad, boolean ascendente) {
+        int inicio = Math.max(0, Math.min(desde, tamano));
+        int largo = Math.max(0, Math.min(cantidad, tamano - inicio));
+        if (ascendente) {
+            return copiarIds(inicio, inicio + largo);
+        }
+
+        int[] resultado = copiarIds(tamano - inicio - largo, tamano - inicio);
+        for (int i = 0, j = largo - 1; i < j; i++, j--) {
+            int id = resultado[i];
+            resultado[i] = resultado[j];
+            resultado[j] = id;
+        }
+        return resultado;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Búsqueda binaria por (clave, id)
+     * @return Posición si existe, o (-(punto de inserción) - 1)
+     */
+    private int buscar(double clave, int id) {
+        int bloque = bloqueDe(clave, id);
+        if (bloque == bloques) {
+            return -(tamano + 1);
+        }
+        int posicion = buscarEnBloque(bloque, clave, id);
+        return (posicion >= 0) ? inicios[bloque] + posicion : posicion - inicios[bloque];
+    }
+
+    /**
+     * Búsqueda binaria por (clave, id) dentro de un bloque
+     * @return Posición en el bloque si existe, o (-(punto de inserción en el bloque) - 1)
+     */
+    private int buscarEnBloque(int bloque, double clave, int id) {
+        double[] clavesBloque = claves[bloque];
+        int[] idsBloque = ids[bloque];
+        int bajo = 0;
+        int alto = largos[bloque] - 1;
+
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = comparar(clavesBloque[medio], idsBloque[medio], clave, id);
+
+            if (comparacion < 0) {
+                bajo = medio + 1;
+            } else if (comparacion > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(bajo + 1);
+    }
+
+    /**
+     * Primer bloque cuyo último par es mayor o igual a (clave, id)
+     * @return Índice del bloque, o bloques si todos son menores
+     */
+    private int bloqueDe(double clave, int id) {
+        int bajo = 0;
+        int alto = bloques - 1;
+
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int ultimo = largos[medio] - 1;
+            if (comparar(claves[medio][ultimo], ids[medio][ultimo], clave, id) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Bloque que contiene una posición del orden total
+     */
+    private int bloqueEnPosicion(int posicion) {
+        if (posicion < 0 || posicion >= tamano) {
+            throw new IndexOutOfBoundsException("Posición " + posicion + " fuera del índice de " + tamano);
+        }
+
+        int bajo = 0;
+        int alto = bloques - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (inicios[medio] <= posicion) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Ids de las posiciones [inicio, fin) del orden total
+     */
+    private int[] copiarIds(int inicio, int fin) {
+        if (fin <= inicio) {
+            return new int[0];
+        }
+
+        int[] resultado = new int[fin - inicio];
+        int bloque = bloqueEnPosicion(inicio);
+        int desdeBloque = inicio - inicios[bloque];
+        int copiados = 0;
+        while (copiados < resultado.length) {
+            int cantidad = Math.min(largos[bloque] - desdeBloque, resultado.length - copiados);
+            System.arraycopy(ids[bloque], desdeBloque, resultado, copiados, cantidad);
+            copiados += cantidad;
+            bloque++;
+            desdeBloque = 0;
+        }
+        return resultado;
+    }
+
+    /**
+     * Compara dos pares por clave y luego por id
+     */
+    private static int comparar(double claveA, int idA, double claveB, int idB) {
+        int comparacion = Double.compare(claveA, claveB);
+        return (comparacion != 0) ? comparacion : Integer.compare(idA, idB);
+    }
+
+    /**
+     * Abre un bloque vacío en la posición indicada
+     */
+    private void agregarBloque(int bloque) {
+        if (bloques == largos.length) {
+            int capacidad = bloques * 2;
+            claves = Arrays.copyOf(claves, capacidad);
+            ids = Arrays.copyOf(ids, capacidad);
+            largos = Arrays.copyOf(largos, capacidad);
+            inicios = Arrays.copyOf(inicios, capacidad);
+        }
+
+        System.arraycopy(claves, bloque, claves, bloque + 1, bloques - bloque);
+        System.arraycopy(ids, bloque, ids, bloque + 1, bloques - bloque);
+        System.arraycopy(largos, bloque, largos, bloque + 1, bloques - bloque);
+        System.arraycopy(inicios, bloque, inicios, bloque + 1, bloques - bloque);
+        claves[bloque] = new double[TAMANO_BLOQUE];
+        ids[bloque] = new int[TAMANO_BLOQUE];
+        largos[bloque] = 0;
+        bloques++;
+    }
+
+    /**
+     * Quita un bloque (ya vacío) del índice
+     */
+    private void quitarBloque(int bloque) {
+        System.arraycopy(claves, bloque + 1, claves, bloque, bloques - bloque - 1);
+        System.arraycopy(ids, bloque + 1, ids, bloque, bloques - bloque - 1);
+        System.arraycopy(largos, bloque + 1, largos, bloque, bloques - bloque - 1);
+        System.arraycopy(inicios, bloque + 1, inicios, bloque, bloques - bloque - 1);
+        bloques--;
+        claves[bloques] = null;
+        ids[bloques] = null;
+    }
+
+    /**
+     * Parte un bloque lleno en dos mitades
+     */
+    private void partir(int bloque) {
+        agregarBloque(bloque + 1);
+        int mitad = largos[bloque] / 2;
+        int resto = largos[bloque] - mitad;
+        System.arraycopy(claves[bloque], mitad, claves[bloque + 1], 0, resto);
+        System.arraycopy(ids[bloque], mitad, ids[bloque + 1], 0, resto);
+        largos[bloque] = mitad;
+        largos[bloque + 1] = resto;
+        inicios[bloque + 1] = inicios[bloque] + mitad;
+    }
+
+    /**
+     * Pasa los pares del bloque siguiente a este y quita el siguiente
+     */
+    private void juntar(int bloque) {
+        int largo = largos[bloque];
+        int siguiente = largos[bloque + 1];
+        System.arraycopy(claves[bloque + 1], 0, claves[bloque], largo, siguiente);
+        System.arraycopy(ids[bloque + 1], 0, ids[bloque], largo, siguiente);
+        largos[bloque] = largo + siguiente;
+        largos[bloque + 1] = 0;
+        quitarBloque(bloque + 1);
+    }
+
+    /**
+     * Vuelve a calcular la posición inicial de los bloques desde uno dado
+     */
+    private void recalcularInicios(int desde) {
+        for (int bloque = Math.max(desde, 0); bloque < bloques; bloque++) {
+            inicios[bloque] = (bloque == 0) ? 0 : inicios[bloque - 1] + largos[bloque - 1];
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package estructuras;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Mapa de bits comprimido para conjuntos de IDs enteros (estilo "roaring")
+ * Los IDs se agrupan por sus 16 bits altos; cada grupo se guarda como arreglo
+ * ordenado si tiene pocos elementos o como mapa de bits de 65536 bits si tiene muchos
+ */
+public class Mapa_bits {
+    private static final int LIMITE_ARREGLO = 4096;
+
+    private char[] claves;                  // 16 bits altos de cada grupo, ordenados
+    private Contenedor[] contenedores;      // Contenedor de cada grupo
+    private int tamano;                     // Cantidad de grupos
+
+    /**
+     * Constructor de un mapa vacío
+     */
+    public Mapa_bits() {
+        this.claves = new char[4];
+        this.contenedores = new Contenedor[4];
+        this.tamano = 0;
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Agrega un ID al mapa
+     * @param id ID a agregar
+     * @return true si no estaba
+     */
+    public boolean agregar(int id) {
+        char alto = (char) (id >>> 16);
+        int posicion = buscarClave(alto);
+
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+            insertarGrupo(posicion, alto, new Contenedor_arreglo());
+        }
+
+        Contenedor contenedor = contenedores[posicion];
+        int antes = contenedor.cardinalidad();
+        contenedores[posicion] = contenedor.agregar((char) id);
+        return contenedores[posicion].cardinalidad() > antes;
+    }
+
+    /**
+     * Elimina un ID del mapa
+     * @param id ID a eliminar
+     * @return true si estaba
+     */
+    public boolean eliminar(int id) {
+        int posicion = buscarClave((char) (id >>> 16));
+        if (posicion < 0) {
+            return false;
+        }
+
+        Contenedor contenedor = contenedores[posicion];
+        int antes = contenedor.cardinalidad();
+        contenedor = contenedor.eliminar((char) id);
+
+        if (contenedor.cardinalidad() == 0) {
+            quitarGrupo(posicion);
+        } else {
+            contenedores[posicion] = contenedor;
+        }
+        return contenedor.cardinalidad() < antes;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Verifica si un ID está en el mapa
+     * @param id ID a buscar
+     * @return true si está
+     */
+    public boolean contiene(int id) {
+        int posicion = buscarClave((char) (id >>> 16));
+        return posicion >= 0 && contenedores[posicion].contiene((char) id);
+    }
+
+    /**
+     * Cantidad de IDs en el mapa
+     * @return Cardinalidad
+     */
+    public int cardinalidad() {
+        int total = 0;
+        for (int i = 0; i < tamano; i++) {
+            total += contenedores[i].cardinalidad();
+        }
+        return total;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    /**
+     * Recorre los IDs en orden ascendente (sin signo)
+     * @param accion Acción a ejecutar con cada ID
+     */
+    public void recorrer(IntConsumer accion) {
+        for (int i = 0; i < tamano; i++) {
+            contenedores[i].recorrer(claves[i] << 16, accion);
+        }
+    }
+
+    /**
+     * Recorre en orden los IDs mayores o iguales a un mínimo, hasta que la acción devuelva false
+     * Sirve para paginar por ID sin materializar todo el mapa
+     * @param minimo Primer ID a considerar
+     * @param accion Acción a ejecutar; si devuelve false se detiene el recorrido
+     */
+    public void recorrerDesde(int minimo, IntPredicate accion) {
+        char altoMinimo = (char) (minimo >>> 16);
+        int posicion = buscarClave(altoMinimo);
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+        }
+
+        for (int i = posicion; i < tamano; i++) {
+            char desde = (claves[i] == altoMinimo) ? (char) minimo : 0;
+            if (!contenedores[i].recorrerDesde(claves[i] << 16, desde, accion)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copia los IDs a un arreglo
+     * @return Arreglo con los IDs en orden ascendente
+     */
+    public int[] aArreglo() {
+        int[] resultado = new int[cardinalidad()];
+        int[] posicion = {0};
+        recorrer(id -> resultado[posicion[0]++] = id);
+        return resultado;
+    }
+
+    // ==================== OPERACIONES DE CONJUNTOS ====================
+
+    /**
+     * Intersección (AND) con otro mapa
+     * @param otro Otro mapa
+     * @return Mapa nuevo con los IDs presentes en ambos
+     */
+    public Mapa_bits and(Mapa_bits otro) {
+        Mapa_bits resultado = new Mapa_bits();
+        int i = 0;
+        int j = 0;
+
+        while (i < tamano && j < otro.tamano) {
+            if (claves[i] < otro.claves[j]) {
+                i++;
+            } else if (claves[i] > otro.claves[j]) {
+                j++;
+            } else {
+                Contenedor interseccion = contenedores[i].and(otro.contenedores[j]);
+                if (interseccion.cardinalidad() > 0) {
+                    resultado.insertarGrupo(resultado.tamano, claves[i], interseccion);
+                }
+                i++;
+                j++;
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Cantidad de IDs presentes en ambos mapas, sin construir la intersección
+     * @param otro Otro mapa
+     * @return Cardinalidad de la intersección
+     */
+    public int cardinalidadAnd(Mapa_bits otro) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < tamano && j < otro.tamano) {
+            if (claves[i] < otro.claves[j]) {
+                i++;
+            } else if (claves[i] > otro.claves[j]) {
+                j++;
+            } else {
+                total += contenedores[i].cardinalidadAnd(otro.contenedores[j]);
+                i++;
+                j++;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Unión (OR) con otro mapa
+     * @param otro Otro mapa
+     * @return Mapa nuevo con los IDs presentes en alguno
+     */
+    public Mapa_bits or(Mapa_bits otro) {
+        Mapa_bits resultado = new Mapa_bits();
+        int i = 0;
+        int j = 0;
+
+        while (i < tamano || j < otro.tamano) {
+            if (j >= otro.tamano || (i < tamano && claves[i] < otro.claves[j])) {
+                resultado.insertarGrupo(resultado.tamano, claves[i], contenedores[i].copia());
+                i++;
+            } else if (i >= tamano || claves[i] > otro.claves[j]) {
+                resultado.insertarGrupo(resultado.tamano, otro.claves[j], otro.contenedores[j].copia());
+                j++;
+            } else {
+                resultado.insertarGrupo(resultado.tamano, claves[i], contenedores[i].or(otro.contenedores[j]));
+                i++;
+                j++;
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Diferencia (AND NOT) con otro mapa
+     * @param otro Mapa cuyos IDs se quitan
+     * @return Mapa nuevo con los IDs de este que no están en el otro
+     */
+    public Mapa_bits andNot(Mapa_bits otro) {
+        Mapa_bits resultado = copia();
+        otro.recorrer(resultado::eliminar);
+        return resultado;
+    }
+
+    /**
+     * Copia independiente del mapa
+     * @return Mapa nuevo con los mismos IDs
+     */
+    public Mapa_bits copia() {
+        Mapa_bits resultado = new Mapa_bits();
+        for (int i = 0; i < tamano; i++) {
+            resultado.insertarGrupo(i, claves[i], contenedores[i].copia());
+        }
+        return resultado;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int buscarClave(char alto) {
+        return Arrays.binarySearch(claves, 0, tamano, alto);
+    }
+
+    private void insertarGrupo(int posicion, char alto, Contenedor contenedor) {
+        if (tamano == claves.length) {
+            claves = Arrays.copyOf(claves, tamano * 2);
+            contenedores = Arrays.copyOf(contenedores, tamano * 2);
+        }
+        System.arraycopy(claves, posicion, claves, posicion + 1, tamano - posicion);
+        System.arraycopy(contenedores, posicion, contenedores, posicion + 1, tamano - posicion);
+        claves[posicion] = alto;
+        contenedores[posicion] = contenedor;
+        tamano++;
+    }
+
+    private void quitarGrupo(int posicion) {
+        System.arraycopy(claves, posicion + 1, claves, posicion, tamano - posicion - 1);
+        System.arraycopy(contenedores, posicion + 1, contenedores, posicion, tamano - posicion - 1);
+        tamano--;
+        contenedores[tamano] = null;
+    }
+
+    // ==================== CONTENEDORES ====================
+
+    /**
+     * Conjunto de los 16 bits bajos de los IDs de un grupo
+     * Las operaciones devuelven el contenedor resultante, que puede cambiar de tipo
+     */
+    private abstract static class Contenedor {
+        abstract Contenedor agregar(char valor);
+
+        abstract Contenedor eliminar(char valor);
+
+        abstract boolean contiene(char valor);
+
+        abstract int cardinalidad();
+
+        abstract void recorrer(int base, IntConsumer accion);
+
+        abstract boolean recorrerDesde(int base, char desde, IntPredicate accion);
+
+        abstract Contenedor and(Contenedor otro);
+
+        abstract int cardinalidadAnd(Contenedor otro);
+
+        abstract Contenedor or(Contenedor otro);
+
+        abstract Contenedor copia();
+    }
+
+    /**
+     * Contenedor para grupos con pocos elementos: arreglo ordenado
+     */
+    private static final class Contenedor_arreglo extends Contenedor {
+        private char[] valores;
+        private int cardinalidad;
+
+        Contenedor_arreglo() {
+            this(new char[4], 0);
+        }
+
+        Contenedor_arreglo(char[] valores, int cardinalidad) {
+            this.valores = valores;
+            this.cardinalidad = cardinalidad;
+        }
+
+        @Override
+        Contenedor agregar(char valor) {
+            int posicion = Arrays.binarySearch(valores, 0, cardinalidad, valor);
+            if (posicion >= 0) {
+                return this;
+            }
+
+            if (cardinalidad >= LIMITE_ARREGLO) {
+                return aBits().agregar(valor);
+            }
+
+            posicion = -posicion - 1;
+            if (cardinalidad == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(cardinalidad * 2, LIMITE_ARREGLO));
+            }
+            System.arraycopy(valores, posicion, valores, posicion + 1, cardinalidad - posicion);
+            valores[posicion] = valor;
+            cardinalidad++;
+            return this;
+        }
+
+        @Override
+        Contenedor eliminar(char valor) {
+            int posicion = Arrays.binarySearch(valores, 0, cardinalidad, valor);
+            if (posicion >= 0) {
+                System.arraycopy(valores, posicion + 1, valores, posicion, cardinalidad - posicion - 1);
+                cardinalidad--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return Arrays.binarySearch(valores, 0, cardinalidad, valor) >= 0;
+        }
+
+        @Override
+        int cardinalidad() {
+            return cardinalidad;
+        }
+
+        @Override
+        void recorrer(int base, IntConsumer accion) {
+            for (int i = 0; i < cardinalidad; i++) {
+                accion.accept(base | valores[i]);
+            }
+        }
+
+        @Override
+        boolean recorrerDesde(int base, char desde, IntPredicate accion) {
+            int inicio = Arrays.binarySearch(valores, 0, cardinalidad, desde);
+            for (int i = (inicio >= 0) ? inicio : -inicio - 1; i < cardinalidad; i++) {
+                if (!accion.test(base | valores[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Contenedor and(Contenedor otro) {
+            char[] resultado = new char[cardinalidad];
+            int k = 0;
+
+            if (otro instanceof Contenedor_arreglo) {
+                Contenedor_arreglo arreglo = (Contenedor_arreglo) otro;
+                int i = 0;
+                int j = 0;
+                while (i < cardinalidad && j < arreglo.cardinalidad) {
+                    if (valores[i] < arreglo.valores[j]) {
+                        i++;
+                    } else if (valores[i] > arreglo.valores[j]) {
+                        j++;
+                    } else {
+                        resultado[k++] = valores[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinalidad; i++) {
+                    if (otro.contiene(valores[i])) {
+                        resultado[k++] = valores[i];
+                    }
+                }
+            }
+
+            return new Contenedor_arreglo(resultado, k);
+        }
+
+        @Override
+        int cardinalidadAnd(Contenedor otro) {
+            int total = 0;
+
+            if (otro instanceof Contenedor_arreglo) {
+                Contenedor_arreglo arreglo = (Contenedor_arreglo) otro;
+                int i = 0;
+                int j = 0;
+                while (i < cardinalidad && j < arreglo.cardinalidad) {
+                    if (valores[i] < arreglo.valores[j]) {
+                        i++;
+                    } else if (valores[i] > arreglo.valores[j]) {
+                        j++;
+                    } else {
+                        total++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinalidad; i++) {
+                    if (otro.contiene(valores[i])) {
+                        total++;
+                    }
+                }
+            }
+
+            return total;
+        }
+
+        @Override
+        Contenedor or(Contenedor otro) {
+            if (otro instanceof Contenedor_bits) {
+                return otro.or(this);
+            }
+
+            Contenedor_arreglo arreglo = (Contenedor_arreglo) otro;
+            char[] resultado = new char[cardinalidad + arreglo.cardinalidad];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+
+            while (i < cardinalidad || j < arreglo.cardinalidad) {
+                if (j >= arreglo.cardinalidad || (i < cardinalidad && valores[i] < arreglo.valores[j])) {
+                    resultado[k++] = valores[i++];
+                } else if (i >= cardinalidad || valores[i] > arreglo.valores[j]) {
+                    resultado[k++] = arreglo.valores[j++];
+                } else {
+                    resultado[k++] = valores[i];
+                    i++;
+                    j++;
+                }
+            }
+
+            Contenedor_arreglo union = new Contenedor_arreglo(resultado, k);
+            return (k > LIMITE_ARREGLO) ? union.aBits() : union;
+        }
+
+        @Override
+        Contenedor copia() {
+            return new Contenedor_arreglo(Arrays.copyOf(valores, Math.max(cardinalidad, 1)), cardinalidad);
+        }
+
+        private Contenedor_bits aBits() {
+            Contenedor_bits bits = new Contenedor_bits();
+            for (int i = 0; i < cardinalidad; i++) {
+                bits.agregar(valores[i]);
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Contenedor para grupos con muchos elementos: 1024 palabras de 64 bits
+     */
+    private static final class Contenedor_bits extends Contenedor {
+        private final long[] palabras;
+        private int cardinalidad;
+
+        Contenedor_bits() {
+            this(new long[1024], 0);
+        }
+
+        Contenedor_bits(long[] palabras, int cardinalidad) {
+            this.palabras = palabras;
+            this.cardinalidad = cardinalidad;
+        }
+
+        @Override
+        Contenedor agregar(char valor) {
+            long antes = palabras[valor >>> 6];
+            palabras[valor >>> 6] = antes | (1L << valor);
+            if (antes != palabras[valor >>> 6]) {
+                cardinalidad++;
+            }
+            return this;
+        }
+
+        @Override
+        Contenedor eliminar(char valor) {
+            long antes = palabras[valor >>> 6];
+            palabras[valor >>> 6] = antes & ~(1L << valor);
+            if (antes != palabras[valor >>> 6]) {
+                cardinalidad--;
+            }
+            return (cardinalidad <= LIMITE_ARREGLO) ? aArreglo() : this;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return (palabras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        int cardinalidad() {
+            return cardinalidad;
+        }
+
+        @Override
+        void recorrer(int base, IntConsumer accion) {
+            for (int i = 0; i < palabras.length; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    accion.accept(base | (i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+        }
+
+        @Override
+        boolean recorrerDesde(int base, char desde, IntPredicate accion) {
+            for (int i = desde >>> 6; i < palabras.length; i++) {
+                long palabra = palabras[i];
+                if (i == desde >>> 6) {
+                    palabra &= -1L << desde;
+                }
+                while (palabra != 0) {
+                    if (!accion.test(base | (i << 6) | Long.numberOfTrailingZeros(palabra))) {
+                        return false;
+                    }
+                    palabra &= palabra - 1;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Contenedor and(Contenedor otro) {
+            if (otro instanceof Contenedor_arreglo) {
+                return otro.and(this);
+            }
+
+            long[] otras = ((Contenedor_bits) otro).palabras;
+            long[] resultado = new long[palabras.length];
+            int total = 0;
+            for (int i = 0; i < palabras.length; i++) {
+                resultado[i] = palabras[i] & otras[i];
+                total += Long.bitCount(resultado[i]);
+            }
+
+            Contenedor_bits interseccion = new Contenedor_bits(resultado, total);
+            return (total <= LIMITE_ARREGLO) ? interseccion.aArreglo() : interseccion;
+        }
+
+        @Override
+        int cardinalidadAnd(Contenedor otro) {
+            if (otro instanceof Contenedor_arreglo) {
+                return otro.cardinalidadAnd(this);
+            }
+
+            long[] otras = ((Contenedor_bits) otro).palabras;
+            int total = 0;
+            for (int i = 0; i < palabras.length; i++) {
+                total += Long.bitCount(palabras[i] & otras[i]);
+            }
+            return total;
+        }
+
+        @Override
+        Contenedor or(Contenedor otro) {
+            Contenedor_bits resultado = (Contenedor_bits) copia();
+
+            if (otro instanceof Contenedor_arreglo) {
+                otro.recorrer(0, valor -> resultado.agregar((char) valor));
+                return resultado;
+            }
+
+            long[] otras = ((Contenedor_bits) otro).palabras;
+            int total = 0;
+            for (int i = 0; i < palabras.length; i++) {
+                resultado.palabras[i] |= otras[i];
+                total += Long.bitCount(resultado.palabras[i]);
+            }
+            resultado.cardinalidad = total;
+            return resultado;
+        }
+
+        @Override
+        Contenedor copia() {
+            return new Contenedor_bits(palabras.clone(), cardinalidad);
+        }
+
+        private Contenedor_arreglo aArreglo() {
+            char[] valores = new char[Math.max(cardinalidad, 1)];
+            int[] k = {0};
+            recorrer(0, valor -> valores[k[0]++] = (char) valor);
+            return new Contenedor_arreglo(valores, cardinalidad);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package estructuras;
+
+/**
+ * Mapa de int a int con direccionamiento abierto (sin objetos Integer)
+ * Pensado para contadores: sumar() crea la clave si hace falta y la quita al llegar a cero
+ */
+public class Mapa_int_int {
+    private static final int VACIO = 0;
+    private static final int OCUPADO = 1;
+    private static final int BORRADO = 2;
+
+    private int[] claves;
+    private int[] valores;
+    private byte[] estados;
+    private int tamano;
+    private int usados;   // Ocupados + borrados, para decidir cuándo rehacer la tabla
+
+    /**
+     * Recibe cada par clave-valor al recorrer el mapa
+     */
+    public interface Visitante {
+        void visitar(int clave, int valor);
+    }
+
+    /**
+     * Constructor de un mapa vacío
+     */
+    public Mapa_int_int() {
+        this(4);
+    }
+
+    /**
+     * Constructor con capacidad inicial
+     * @param capacidad Cantidad de elementos esperada
+     */
+    public Mapa_int_int(int capacidad) {
+        int tamanoTabla = Integer.highestOneBit(Math.max(2, capacidad * 2 - 1)) << 1;
+        this.claves = new int[tamanoTabla];
+        this.valores = new int[tamanoTabla];
+        this.estados = new byte[tamanoTabla];
+    }
+
+    /**
+     * Guarda un valor para la clave
+     * @param clave Clave
+     * @param valor Valor
+     */
+    public void poner(int clave, int valor) {
+        int posicion = buscar(clave);
+        if (posicion >= 0) {
+            valores[posicion] = valor;
+            return;
+        }
+        insertar(clave, valor);
+    }
+
+    /**
+     * Suma una cantidad al valor de una clave (que vale 0 si no existe)
+     * La clave se quita si su valor queda en 0
+     * @param clave Clave
+     * @param diferencia Cantidad a sumar (o restar si es negativa)
+     * @return Nuevo valor
+     */
+    public int sumar(int clave, int diferencia) {
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            if (diferencia != 0) {
+                insertar(clave, diferencia);
+            }
+            return diferencia;
+        }
+
+        valores[posicion] += diferencia;
+        if (valores[posicion] == 0) {
+            estados[posicion] = BORRADO;
+            tamano--;
+            return 0;
+        }
+        return valores[posicion];
+    }
+
+    /**
+     * Obtiene el valor de una clave
+     * @param clave Clave
+     * @param porDefecto Valor a devolver si la clave no existe
+     * @return Valor guardado o porDefecto
+     */
+    public int obtener(int clave, int porDefecto) {
+        int posicion = buscar(clave);
+        return (posicion >= 0) ? valores[posicion] : porDefecto;
+    }
+
+    public boolean contiene(int clave) {
+        return buscar(clave) >= 0;
+    }
+
+    /**
+     * Elimina una clave
+     * @param clave Clave a eliminar
+     * @return true si existía
+     */
+    public boolean eliminar(int clave) {
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            return false;
+        }
+        estados[posicion] = BORRADO;
+        tamano--;
+        return true;
+    }
+
+    /**
+     * Recorre todos los pares del mapa (sin orden particular)
+     * @param visitante Acción para cada par
+     */
+    public void recorrer(Visitante visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (estados[i] == OCUPADO) {
+                visitante.visitar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void insertar(int clave, int valor) {
+        if ((usados + 1) * 4 > claves.length * 3) {
+            rehacer(tamano * 2 > claves.length ? claves.length * 2 : claves.length);
+        }
+
+        int mascara = claves.length - 1;
+        int posicion = Mapa_int_double.mezclar(clave) & mascara;
+        while (estados[posicion] == OCUPADO) {
+            posicion = (posicion + 1) & mascara;
+        }
+
+        if (estados[posicion] == VACIO) {
+            usados++;
+        }
+        claves[posicion] = clave;
+        valores[posicion] = valor;
+        estados[posicion] = OCUPADO;
+        tamano++;
+    }
+
+    private int buscar(int clave) {
+        int mascara = claves.length - 1;
+        int posicion = Mapa_int_double.mezclar(clave) & mascara;
+
+        while (estados[posicion] != VACIO) {
+            if (estados[posicion] == OCUPADO && claves[posicion] == clave) {
+                return posicion;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void rehacer(int nuevoTamano) {
+        int[] clavesViejas = claves;
+        int[] valoresViejos = valores;
+        byte[] estadosViejos = estados;
+
+        claves = new int[nuevoTamano];
+        valores = new int[nuevoTamano];
+        estados = new byte[nuevoTamano];
+        tamano = 0;
+        usados = 0;
+
+        for (int i = 0; i < clavesViejas.length; i++) {
+            if (estadosViejos[i] == OCUPADO) {
+                insertar(clavesViejas[i], valoresViejos[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package estructuras;
+
+/**
+ * Mapa de int a long con direccionamiento abierto (sin objetos Integer ni Long)
+ */
+public class Mapa_int_long {
+    private static final int VACIO = 0;
+    private static final int OCUPADO = 1;
+    private static final int BORRADO = 2;
+
+    private int[] claves;
+    private long[] valores;
+    private byte[] estados;
+    private int tamano;
+    private int usados;   // Ocupados + borrados, para decidir cuándo rehacer la tabla
+
+    /**
+     * Constructor de un mapa vacío
+     */
+    public Mapa_int_long() {
+        this(16);
+    }
+
+    /**
+     * Constructor con capacidad inicial
+     * @param capacidad Cantidad de elementos esperada
+     */
+    public Mapa_int_long(int capacidad) {
+        int tamanoTabla = Integer.highestOneBit(Math.max(4, capacidad * 2 - 1)) << 1;
+        this.claves = new int[tamanoTabla];
+        this.valores = new long[tamanoTabla];
+        this.estados = new byte[tamanoTabla];
+    }
+
+    /**
+     * Guarda un valor para la clave
+     * @param clave Clave
+     * @param valor Valor
+     */
+    public void poner(int clave, long valor) {
+        if ((usados + 1) * 4 > claves.length * 3) {
+            rehacer(tamano * 2 > claves.length ? claves.length * 2 : claves.length);
+        }
+
+        int mascara = claves.length - 1;
+        int posicion = Mapa_int_double.mezclar(clave) & mascara;
+        int borrado = -1;
+
+        while (estados[posicion] != VACIO) {
+            if (estados[posicion] == OCUPADO && claves[posicion] == clave) {
+                valores[posicion] = valor;
+                return;
+            }
+            if (estados[posicion] == BORRADO && borrado < 0) {
+                borrado = posicion;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+
+        if (borrado >= 0) {
+            posicion = borrado;
+        } else {
+            usados++;
+        }
+        claves[posicion] = clave;
+        valores[posicion] = valor;
+        estados[posicion] = OCUPADO;
+        tamano++;
+    }
+
+    /**
+     * Obtiene el valor de una clave
+     * @param clave Clave
+     * @param porDefecto Valor a devolver si la clave no existe
+     * @return Valor guardado o porDefecto
+     */
+    public long obtener(int clave, long porDefecto) {
+        int posicion = buscar(clave);
+        return (posicion >= 0) ? valores[posicion] : porDefecto;
+    }
+
+    public boolean contiene(int clave) {
+        return buscar(clave) >= 0;
+    }
+
+    /**
+     * Elimina una clave
+     * @param clave Clave a eliminar
+     * @return true si existía
+     */
+    public boolean eliminar(int clave) {
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            return false;
+        }
+        estados[posicion] = BORRADO;
+        tamano--;
+        return true;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int buscar(int clave) {
+        int mascara = claves.length - 1;
+        int posicion = Mapa_int_double.mezclar(clave) & mascara;
+
+        while (estados[posicion] != VACIO) {
+            if (estados[posicion] == OCUPADO && claves[posicion] == clave) {
+                return posicion;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void rehacer(int nuevoTamano) {
+        int[] clavesViejas = claves;
+        long[] valoresViejos = valores;
+        byte[] estadosViejos = estados;
+
+        claves = new int[nuevoTamano];
+        valores = new long[nuevoTamano];
+        estados = new byte[nuevoTamano];
+        tamano = 0;
+        usados = 0;
+
+        for (int i = 0; i < clavesViejas.length; i++) {
+            if (estadosViejos[i] == OCUPADO) {
+                poner(clavesViejas[i], valoresViejos[i]);
+            }
+        }
+    }
+}
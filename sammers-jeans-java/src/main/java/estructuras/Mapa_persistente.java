@@ -0,0 +1,260 @@
+package estructuras;
+
+import java.util.function.Predicate;
+
+/**
+ * Mapa inmutable de int a objeto (árbol de prefijos de 32 ramas)
+ * Cambiarlo no modifica el mapa: se arma uno nuevo que copia solo los nodos del camino
+ * de cada clave cambiada y comparte el resto, así que cada versión publicada se puede
+ * leer desde cualquier hilo sin sincronizar. Una Edicion junta varios cambios y copia
+ * cada nodo una sola vez aunque se toque muchas veces
+ * Las claves se ordenan sin signo, igual que en Mapa_bits
+ * @param <V> Tipo de los valores
+ */
+public final class Mapa_persistente<V> {
+    private static final int BITS = 5;
+    private static final int RAMAS = 1 << BITS;
+    private static final int MASCARA = RAMAS - 1;
+
+    private static final Mapa_persistente<Object> VACIO = new Mapa_persistente<>(null, 0, 0);
+
+    private final Nodo raiz;              // null si está vacío
+    private final int desplazamiento;     // Bits que se descartan en el nivel de la raíz
+    private final int tamano;
+
+    private Mapa_persistente(Nodo raiz, int desplazamiento, int tamano) {
+        this.raiz = raiz;
+        this.desplazamiento = desplazamiento;
+        this.tamano = tamano;
+    }
+
+    /**
+     * Mapa vacío
+     * @param <V> Tipo de los valores
+     * @return Mapa sin claves
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> Mapa_persistente<V> vacio() {
+        return (Mapa_persistente<V>) VACIO;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Valor de una clave
+     * @param clave Clave
+     * @return Valor o null si no está
+     */
+    @SuppressWarnings("unchecked")
+    public V obtener(int clave) {
+        if (raiz == null || Integer.toUnsignedLong(clave) >= capacidad(desplazamiento)) {
+            return null;
+        }
+
+        Nodo nodo = raiz;
+        for (int nivel = desplazamiento; nivel > 0; nivel -= BITS) {
+            nodo = (Nodo) nodo.hijos[(clave >>> nivel) & MASCARA];
+            if (nodo == null) {
+                return null;
+            }
+        }
+        return (V) nodo.hijos[clave & MASCARA];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Recorre en orden los valores de las claves mayores o iguales a un mínimo,
+     * hasta que la acción devuelva false
+     * @param minimo Primera clave a considerar
+     * @param accion Acción a ejecutar; si devuelve false se detiene el recorrido
+     */
+    public void recorrerDesde(int minimo, Predicate<? super V> accion) {
+        if (raiz != null) {
+            recorrer(raiz, desplazamiento, 0, Integer.toUnsignedLong(minimo), accion);
+        }
+    }
+
+    /**
+     * Empieza una edición a partir de este mapa (el mapa no cambia)
+     * @return Edición con los mismos pares que este mapa
+     */
+    public Edicion<V> editar() {
+        return new Edicion<>(this);
+    }
+
+    // ==================== EDICIÓN ====================
+
+    /**
+     * Cambios sobre un mapa persistente que se juntan antes de publicar la versión nueva
+     * Los nodos que crea la edición se modifican en su lugar; los del mapa original se
+     * copian la primera vez que se tocan. No es segura para varios hilos
+     * @param <V> Tipo de los valores
+     */
+    public static final class Edicion<V> {
+        private Object dueno;             // Marca los nodos creados por esta edición
+        private Nodo raiz;
+        private int desplazamiento;
+        private int tamano;
+
+        private Edicion(Mapa_persistente<V> origen) {
+            this.dueno = new Object();
+            this.raiz = origen.raiz;
+            this.desplazamiento = origen.desplazamiento;
+            this.tamano = origen.tamano;
+        }
+
+        /**
+         * Guarda un valor para la clave
+         * @param clave Clave
+         * @param valor Valor (no null)
+         */
+        public void poner(int clave, V valor) {
+            if (valor == null) {
+                throw new IllegalArgumentException("El valor no puede ser null.");
+            }
+
+            // Agregar niveles arriba de la raíz hasta que la clave entre
+            while (Integer.toUnsignedLong(clave) >= capacidad(desplazamiento)) {
+                if (raiz != null) {
+                    Nodo nueva = new Nodo(dueno, new Object[RAMAS]);
+                    nueva.hijos[0] = raiz;
+                    raiz = nueva;
+                }
+                desplazamiento += BITS;
+            }
+
+            raiz = editable(raiz);
+            Nodo nodo = raiz;
+            for (int nivel = desplazamiento; nivel > 0; nivel -= BITS) {
+                int rama = (clave >>> nivel) & MASCARA;
+                Nodo hijo = editable((Nodo) nodo.hijos[rama]);
+                nodo.hijos[rama] = hijo;
+                nodo = hijo;
+            }
+
+            int rama = clave & MASCARA;
+            if (nodo.hijos[rama] == null) {
+                tamano++;
+            }
+            nodo.hijos[rama] = valor;
+        }
+
+        /**
+         * Quita una clave
+         * @param clave Clave
+         * @return true si estaba
+         */
+        public boolean quitar(int clave) {
+            if (raiz == null || Integer.toUnsignedLong(clave) >= capacidad(desplazamiento)) {
+                return false;
+            }
+
+            // Camino desde la raíz hasta la hoja, para podar los nodos que queden vacíos
+            int niveles = desplazamiento / BITS + 1;
+            Nodo[] camino = new Nodo[niveles];
+            Nodo nodo = raiz;
+            for (int i = 0; i < niveles - 1; i++) {
+                camino[i] = nodo;
+                nodo = (Nodo) nodo.hijos[(clave >>> (desplazamiento - i * BITS)) & MASCARA];
+                if (nodo == null) {
+                    return false;
+                }
+            }
+            if (nodo.hijos[clave & MASCARA] == null) {
+                return false;
+            }
+            camino[niveles - 1] = nodo;
+
+            // Copiar el camino (si no es de esta edición) de la raíz hacia abajo
+            raiz = editable(raiz);
+            camino[0] = raiz;
+            for (int i = 1; i < niveles; i++) {
+                int rama = (clave >>> (desplazamiento - (i - 1) * BITS)) & MASCARA;
+                camino[i] = editable(camino[i]);
+                camino[i - 1].hijos[rama] = camino[i];
+            }
+
+            camino[niveles - 1].hijos[clave & MASCARA] = null;
+            tamano--;
+            for (int i = niveles - 1; i > 0 && camino[i].estaVacio(); i--) {
+                camino[i - 1].hijos[(clave >>> (desplazamiento - (i - 1) * BITS)) & MASCARA] = null;
+            }
+            if (tamano == 0) {
+                raiz = null;
+                desplazamiento = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Termina la edición y devuelve el mapa nuevo; la edición se puede seguir usando
+         * para otra versión sin afectar a la devuelta
+         * @return Mapa con todos los cambios
+         */
+        public Mapa_persistente<V> terminar() {
+            dueno = new Object();
+            return new Mapa_persistente<>(raiz, desplazamiento, tamano);
+        }
+
+        private Nodo editable(Nodo nodo) {
+            if (nodo == null) {
+                return new Nodo(dueno, new Object[RAMAS]);
+            }
+            return (nodo.dueno == dueno) ? nodo : new Nodo(dueno, nodo.hijos.clone());
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /**
+     * Cantidad de claves que cubre una raíz con ese desplazamiento
+     */
+    private static long capacidad(int desplazamiento) {
+        return 1L << (desplazamiento + BITS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> boolean recorrer(Nodo nodo, int desplazamiento, long base, long minimo,
+                                        Predicate<? super V> accion) {
+        for (int rama = 0; rama < RAMAS; rama++) {
+            Object hijo = nodo.hijos[rama];
+            long inicio = base + ((long) rama << desplazamiento);
+            if (hijo == null || inicio + (1L << desplazamiento) - 1 < minimo) {
+                continue;
+            }
+
+            boolean seguir = (desplazamiento == 0)
+                    ? accion.test((V) hijo)
+                    : recorrer((Nodo) hijo, desplazamiento - BITS, inicio, minimo, accion);
+            if (!seguir) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nodo del árbol: en el último nivel los hijos son los valores
+     */
+    private static final class Nodo {
+        private final Object dueno;
+        private final Object[] hijos;
+
+        Nodo(Object dueno, Object[] hijos) {
+            this.dueno = dueno;
+            this.hijos = hijos;
+        }
+
+        boolean estaVacio() {
+            for (Object hijo : hijos) {
+                if (hijo != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
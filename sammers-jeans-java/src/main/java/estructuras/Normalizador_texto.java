@@ -0,0 +1,31 @@
+package estructuras;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidad para normalizar textos antes de indexarlos o compararlos
+ * Quita tildes, pasa a minúsculas y colapsa los espacios
+ */
+public final class Normalizador_texto {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private Normalizador_texto() {
+    }
+
+    /**
+     * Normaliza un texto: "Pantalón  CARGO" -> "pantalon cargo"
+     * @param texto Texto original (puede ser null)
+     * @return Texto normalizado, nunca null
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
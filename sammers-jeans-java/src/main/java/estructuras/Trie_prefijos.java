@@ -0,0 +1,271 @@
+package estructuras;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Árbol de prefijos (trie) de términos con peso, para autocompletar
+ * Cada nodo guarda el mayor peso de su subárbol, así que las k mejores
+ * terminaciones de un prefijo se sacan con una búsqueda por el mejor primero
+ * sin recorrer todos los términos que empiezan por él
+ */
+public class Trie_prefijos {
+    private Nodo raiz;
+    private int tamano;    // Términos distintos
+
+    /**
+     * Constructor de un trie vacío
+     */
+    public Trie_prefijos() {
+        this.raiz = new Nodo();
+        this.tamano = 0;
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Agrega una aparición de un término y le suma su peso
+     * Un término puede aparecer varias veces (por ejemplo varios productos con el mismo nombre)
+     * @param termino Término (ya normalizado)
+     * @param peso Peso a sumar
+     */
+    public void agregar(String termino, long peso) {
+        ajustar(termino, 1, peso);
+    }
+
+    /**
+     * Quita una aparición de un término y le resta su peso
+     * El término desaparece cuando no le quedan apariciones
+     * @param termino Término (ya normalizado)
+     * @param peso Peso a restar
+     */
+    public void quitar(String termino, long peso) {
+        ajustar(termino, -1, -peso);
+    }
+
+    /**
+     * Cambia el peso de un término existente
+     * @param termino Término (ya normalizado)
+     * @param diferencia Cantidad a sumar (o restar si es negativa)
+     */
+    public void cambiarPeso(String termino, long diferencia) {
+        ajustar(termino, 0, diferencia);
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Terminaciones de mayor peso para un prefijo
+     * @param prefijo Prefijo (ya normalizado)
+     * @param cantidad Cantidad máxima de términos
+     * @return Términos de mayor a menor peso y, en empate, en orden alfabético
+     */
+    public List<String> completar(String prefijo, int cantidad) {
+        List<String> resultado = new ArrayList<>();
+        Nodo inicio = buscarNodo(prefijo);
+        if (inicio == null || cantidad <= 0) {
+            return resultado;
+        }
+
+        PriorityQueue<Entrada> pendientes = new PriorityQueue<>();
+        pendientes.add(new Entrada(inicio, prefijo, inicio.mejorPeso, false));
+
+        while (!pendientes.isEmpty() && resultado.size() < cantidad) {
+            Entrada entrada = pendientes.poll();
+            if (entrada.terminal) {
+                resultado.add(entrada.texto);
+                continue;
+            }
+
+            // Se abre el nodo: su propio término compite con sus hijos por el mejor peso
+            Nodo nodo = entrada.nodo;
+            if (nodo.referencias > 0) {
+                pendientes.add(new Entrada(nodo, entrada.texto, nodo.peso, true));
+            }
+            for (int i = 0; i < nodo.cantidadHijos; i++) {
+                Nodo hijo = nodo.hijos[i];
+                pendientes.add(new Entrada(hijo, entrada.texto + nodo.letras[i], hijo.mejorPeso, false));
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Verifica si un término está en el trie
+     * @param termino Término (ya normalizado)
+     * @return true si tiene al menos una aparición
+     */
+    public boolean contiene(String termino) {
+        Nodo nodo = buscarNodo(termino);
+        return nodo != null && nodo.referencias > 0;
+    }
+
+    /**
+     * Peso acumulado de un término
+     * @param termino Término (ya normalizado)
+     * @return Peso (0 si no existe)
+     */
+    public long peso(String termino) {
+        Nodo nodo = buscarNodo(termino);
+        return (nodo != null && nodo.referencias > 0) ? nodo.peso : 0;
+    }
+
+    /**
+     * Cantidad de términos distintos
+     * @return Cantidad de términos
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void ajustar(String termino, int diferenciaReferencias, long diferenciaPeso) {
+        Nodo[] camino = new Nodo[termino.length() + 1];
+        camino[0] = raiz;
+
+        for (int i = 0; i < termino.length(); i++) {
+            Nodo siguiente = camino[i].hijo(termino.charAt(i));
+            if (siguiente == null) {
+                if (diferenciaReferencias <= 0) {
+                    return;    // El término no existe: no hay nada que quitar ni cambiar
+                }
+                siguiente = camino[i].agregarHijo(termino.charAt(i));
+            }
+            camino[i + 1] = siguiente;
+        }
+
+        Nodo nodo = camino[termino.length()];
+        if (nodo.referencias == 0 && diferenciaReferencias <= 0) {
+            return;
+        }
+
+        boolean existia = nodo.referencias > 0;
+        nodo.referencias += diferenciaReferencias;
+        nodo.peso += diferenciaPeso;
+        if (nodo.referencias == 0) {
+            nodo.peso = 0;
+        }
+        if (!existia && nodo.referencias > 0) {
+            tamano++;
+        } else if (existia && nodo.referencias == 0) {
+            tamano--;
+        }
+
+        // De la hoja a la raíz: podar nodos vacíos y recalcular el mejor peso de cada subárbol
+        for (int i = termino.length(); i >= 0; i--) {
+            Nodo actual = camino[i];
+            if (i > 0 && actual.referencias == 0 && actual.cantidadHijos == 0) {
+                camino[i - 1].quitarHijo(termino.charAt(i - 1));
+                continue;
+            }
+            actual.recalcularMejorPeso();
+        }
+    }
+
+    private Nodo buscarNodo(String prefijo) {
+        Nodo actual = raiz;
+        for (int i = 0; i < prefijo.length() && actual != null; i++) {
+            actual = actual.hijo(prefijo.charAt(i));
+        }
+        return actual;
+    }
+
+    /**
+     * Nodo del trie: hijos ordenados por letra, apariciones y peso del término que
+     * termina aquí, y el mayor peso de todo el subárbol
+     */
+    private static final class Nodo {
+        private char[] letras;
+        private Nodo[] hijos;
+        private int cantidadHijos;
+        private int referencias;
+        private long peso;
+        private long mejorPeso;
+
+        Nodo() {
+            this.letras = new char[0];
+            this.hijos = new Nodo[0];
+            this.cantidadHijos = 0;
+            this.referencias = 0;
+            this.peso = 0;
+            this.mejorPeso = Long.MIN_VALUE;
+        }
+
+        Nodo hijo(char letra) {
+            int posicion = Arrays.binarySearch(letras, 0, cantidadHijos, letra);
+            return (posicion >= 0) ? hijos[posicion] : null;
+        }
+
+        Nodo agregarHijo(char letra) {
+            int posicion = -Arrays.binarySearch(letras, 0, cantidadHijos, letra) - 1;
+            if (cantidadHijos == letras.length) {
+                int capacidad = Math.max(2, cantidadHijos * 2);
+                letras = Arrays.copyOf(letras, capacidad);
+                hijos = Arrays.copyOf(hijos, capacidad);
+            }
+
+            System.arraycopy(letras, posicion, letras, posicion + 1, cantidadHijos - posicion);
+            System.arraycopy(hijos, posicion, hijos, posicion + 1, cantidadHijos - posicion);
+            Nodo hijo = new Nodo();
+            letras[posicion] = letra;
+            hijos[posicion] = hijo;
+            cantidadHijos++;
+            return hijo;
+        }
+
+        void quitarHijo(char letra) {
+            int posicion = Arrays.binarySearch(letras, 0, cantidadHijos, letra);
+            if (posicion < 0) {
+                return;
+            }
+
+            System.arraycopy(letras, posicion + 1, letras, posicion, cantidadHijos - posicion - 1);
+            System.arraycopy(hijos, posicion + 1, hijos, posicion, cantidadHijos - posicion - 1);
+            cantidadHijos--;
+            hijos[cantidadHijos] = null;
+        }
+
+        void recalcularMejorPeso() {
+            long mejor = (referencias > 0) ? peso : Long.MIN_VALUE;
+            for (int i = 0; i < cantidadHijos; i++) {
+                mejor = Math.max(mejor, hijos[i].mejorPeso);
+            }
+            mejorPeso = mejor;
+        }
+    }
+
+    /**
+     * Elemento de la búsqueda por el mejor primero: un nodo por abrir o un término listo
+     */
+    private static final class Entrada implements Comparable<Entrada> {
+        private final Nodo nodo;
+        private final String texto;
+        private final long peso;
+        private final boolean terminal;
+
+        Entrada(Nodo nodo, String texto, long peso, boolean terminal) {
+            this.nodo = nodo;
+            this.texto = texto;
+            this.peso = peso;
+            this.terminal = terminal;
+        }
+
+        @Override
+        public int compareTo(Entrada otra) {
+            int porPeso = Long.compare(otra.peso, peso);
+            if (porPeso != 0) {
+                return porPeso;
+            }
+            int porTexto = texto.compareTo(otra.texto);
+            if (porTexto != 0) {
+                return porTexto;
+            }
+            // Con el mismo texto, el término listo va antes que el nodo que lo contiene
+            return Boolean.compare(otra.terminal, terminal);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package inventario;
+
+import estructuras.Mapa_int_int;
+import producto.Producto;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alertas de reposición: detecta cuándo el stock de un producto cruza su punto de
+ * reorden y avisa a los oyentes de alertas
+ * La detección corre dentro del aviso de stock que hace Producto.reducirStock (una
+ * comparación); la entrega a los oyentes se encola en un hilo propio, así que el
+ * carrito que hizo la compra no espera a que se muestre o se procese la alerta
+ * Con el stock repartido de venta relámpago los avisos de stock se agrupan, así que
+ * la alerta puede llegar hasta 31 unidades después de cruzar el punto (ver Producto.activarStockRepartido)
+ * Si un oyente falla, el hilo de alertas no escribe nada: la falla queda anotada y la
+ * informa el inventario en el hilo que hace el siguiente cambio (informarFallas)
+ */
+public class Alertas_stock implements Oyente_inventario {
+    private final Mapa_int_int puntos;      // Clave: id_producto, Valor: punto de reorden propio
+    private volatile int puntoPorDefecto;
+    private final List<Oyente_alertas_stock> oyentes;
+    private final Queue<String> fallas;     // Entregas que fallaron y todavía no se informaron
+    private ExecutorService entregas;       // null hasta la primera alerta con oyentes
+    private boolean cerrado;
+
+    /**
+     * Constructor con un punto de reorden para todos los productos
+     * @param puntoPorDefecto Punto de reorden (0 avisa solo al agotarse)
+     */
+    public Alertas_stock(int puntoPorDefecto) {
+        this.puntos = new Mapa_int_int();
+        this.puntoPorDefecto = puntoPorDefecto;
+        this.oyentes = new CopyOnWriteArrayList<>();
+        this.fallas = new ConcurrentLinkedQueue<>();
+        this.entregas = null;
+        this.cerrado = false;
+    }
+
+    // ==================== CONFIGURAR ====================
+
+    /**
+     * Fija el punto de reorden de un producto
+     * @param idProducto ID del producto
+     * @param punto Punto de reorden (negativo para no avisar nunca)
+     */
+    public synchronized void setPuntoReorden(int idProducto, int punto) {
+        puntos.poner(idProducto, punto);
+    }
+
+    /**
+     * Punto de reorden de un producto (el propio o, si no tiene, el por defecto)
+     * @param idProducto ID del producto
+     * @return Punto de reorden
+     */
+    public synchronized int getPuntoReorden(int idProducto) {
+        return puntos.obtener(idProducto, puntoPorDefecto);
+    }
+
+    public int getPuntoPorDefecto() {
+        return puntoPorDefecto;
+    }
+
+    public void setPuntoPorDefecto(int puntoPorDefecto) {
+        this.puntoPorDefecto = puntoPorDefecto;
+    }
+
+    public void agregarOyente(Oyente_alertas_stock oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void quitarOyente(Oyente_alertas_stock oyente) {
+        oyentes.remove(oyente);
+    }
+
+    // ==================== DETECTAR ====================
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        int stock = producto.getStock();
+        if (stock >= stockAnterior || oyentes.isEmpty()) {
+            return;
+        }
+
+        int punto = getPuntoReorden(producto.getIdProducto());
+        if (stockAnterior > punto && stock <= punto) {
+            encolar(producto, stock, punto);
+        }
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        synchronized (this) {
+            puntos.eliminar(producto.getIdProducto());
+        }
+    }
+
+    // ==================== ENTREGAR ====================
+
+    /**
+     * Muestra las entregas de alertas que fallaron desde la última vez
+     * (se llama desde el hilo que usa el inventario, no desde el de alertas)
+     * @return Cantidad de fallas informadas
+     */
+    public int informarFallas() {
+        int informadas = 0;
+        String falla;
+        while ((falla = fallas.poll()) != null) {
+            System.out.println("No se pudo entregar una alerta de stock: " + falla);
+            informadas++;
+        }
+        return informadas;
+    }
+
+    /**
+     * Entrega las alertas que quedaban en cola y detiene el hilo de alertas
+     * Las alertas que se detecten después ya no se entregan
+     * @param esperaMillis Tiempo máximo para terminar de entregar
+     * @return true si se entregó todo lo pendiente a tiempo
+     */
+    public boolean cerrar(long esperaMillis) {
+        ExecutorService hilo;
+        synchronized (this) {
+            cerrado = true;
+            hilo = entregas;
+            entregas = null;
+        }
+        if (hilo == null) {
+            return true;
+        }
+
+        hilo.shutdown();
+        try {
+            if (hilo.awaitTermination(esperaMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        hilo.shutdownNow();
+        return false;
+    }
+
+    private void encolar(Producto producto, int stock, int punto) {
+        ExecutorService hilo;
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            if (entregas == null) {
+                entregas = Executors.newSingleThreadExecutor(tarea -> {
+                    Thread alertas = new Thread(tarea, "alertas-stock");
+                    alertas.setDaemon(true);
+                    return alertas;
+                });
+            }
+            hilo = entregas;
+        }
+
+        hilo.execute(() -> {
+            for (Oyente_alertas_stock oyente : oyentes) {
+                try {
+                    oyente.stockBajo(producto, stock, punto);
+                } catch (RuntimeException e) {
+                    fallas.add(producto.getNombre() + " (" + e.getMessage() + ")");
+                }
+            }
+        });
+    }
+}
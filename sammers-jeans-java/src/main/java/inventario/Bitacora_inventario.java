@@ -0,0 +1,503 @@
+package inventario;
+
+import producto.Producto;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de escritura anticipada del inventario: un archivo donde solo se agregan
+ * registros con cada cambio (producto agregado o eliminado, stock nuevo con su
+ * disponibilidad y, si lo lleva, el stock de cada talla y color, y cambios de precio,
+ * nombre y categoría), para recuperarlos al volver a arrancar
+ * Los registros guardan valores y no diferencias, así que volver a aplicar cambios que
+ * una instantánea ya incluye no altera el resultado
+ * Cada registro lleva su largo y un CRC32 del contenido; al leer, un registro incompleto o
+ * dañado (por ejemplo si el proceso se cortó a mitad de una escritura) marca el final válido
+ * Los cambios se anotan en memoria y se confirman en grupo: el primer hilo que espera
+ * escribe y sincroniza con el disco todo lo anotado hasta ese momento, también lo de otros
+ * hilos, que mientras tanto esperan; así muchos cambios a la vez comparten un solo fsync
+ */
+public class Bitacora_inventario implements Oyente_inventario {
+    private static final byte AGREGADO = 1;
+    private static final byte ELIMINADO = 2;
+    private static final byte STOCK_FIJADO = 3;
+    private static final byte PRECIO = 4;
+    private static final byte NOMBRE = 5;
+    private static final byte CATEGORIA = 6;
+    private static final int LARGO_MAXIMO = 1 << 20;    // Un largo mayor indica un registro dañado
+
+    private final Path ruta;
+    private FileChannel canal;                          // null mientras no se abra
+    private ByteArrayOutputStream pendientes;           // Registros anotados que no se escribieron todavía
+    private long anotados;                              // Secuencia del último registro anotado
+    private long durables;                              // Secuencia del último registro sincronizado con el disco
+    private boolean escribiendo;                        // Hay un hilo escribiendo un grupo
+    private long sincronizaciones;
+    private long bytesDescartados;
+
+    /**
+     * Recibe los cambios guardados en la bitácora al reproducirla
+     */
+    public interface Lector {
+        void productoAgregado(Producto producto);
+
+        void productoEliminado(int idProducto);
+
+        /**
+         * Stock nuevo de un producto
+         * @param idProducto ID del producto
+         * @param stock Stock total
+         * @param disponible Disponibilidad
+         * @param variantes Unidades de cada talla y color (por talla, y dentro de cada talla
+         *                  por color, en el orden del producto), o null si no lleva stock por variante
+         */
+        void stockFijado(int idProducto, int stock, boolean disponible, int[] variantes);
+
+        void precioCambiado(int idProducto, double precio);
+
+        void nombreCambiado(int idProducto, String nombre);
+
+        void categoriaCambiada(int idProducto, String categoria);
+    }
+
+    /**
+     * Constructor de una bitácora cerrada
+     * @param ruta Archivo de la bitácora (se crea si no existe)
+     */
+    public Bitacora_inventario(Path ruta) {
+        this.ruta = ruta;
+        this.pendientes = new ByteArrayOutputStream();
+        this.anotados = 0;
+        this.durables = 0;
+        this.escribiendo = false;
+        this.sincronizaciones = 0;
+        this.bytesDescartados = 0;
+    }
+
+    // ==================== ABRIR Y REPRODUCIR ====================
+
+    /**
+     * Lee la bitácora y pasa cada cambio al lector, en orden
+     * Se detiene en el primer registro incompleto o con CRC inválido
+     * @param lector Destino de los cambios
+     * @return Cantidad de cambios reproducidos, o -1 si no se pudo leer el archivo
+     */
+    public int reproducir(Lector lector) {
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+
+        int reproducidos = 0;
+        long posicionValida = 0;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            while (true) {
+                byte[] contenido = leerRegistro(entrada);
+                if (contenido == null) {
+                    break;
+                }
+                aplicar(contenido, lector);
+                posicionValida += 8 + contenido.length;
+                reproducidos++;
+            }
+            bytesDescartados = Files.size(ruta) - posicionValida;
+        } catch (IOException e) {
+            System.out.println("Error al leer la bitácora del inventario: " + e.getMessage());
+            return -1;
+        }
+        return reproducidos;
+    }
+
+    /**
+     * Abre la bitácora para agregar registros, descartando el final dañado que
+     * haya encontrado reproducir()
+     * @return true si se abrió
+     */
+    public boolean abrir() {
+        try {
+            canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            long largoValido = canal.size() - bytesDescartados;
+            if (bytesDescartados > 0) {
+                System.out.println("Se descartaron " + bytesDescartados
+                        + " bytes incompletos al final de la bitácora del inventario.");
+                canal.truncate(largoValido);
+                canal.force(true);
+            }
+            canal.position(largoValido);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error al abrir la bitácora del inventario: " + e.getMessage());
+            canal = null;
+            return false;
+        }
+    }
+
+    /**
+     * Cierra el archivo (lo anotado se confirma antes)
+     * @return true si todo lo anotado quedó en el disco
+     */
+    public boolean cerrar() {
+        boolean confirmado = esperarDurable();
+        try {
+            if (canal != null) {
+                canal.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error al cerrar la bitácora del inventario: " + e.getMessage());
+            confirmado = false;
+        }
+        canal = null;
+        return confirmado;
+    }
+
+    /**
+     * Vacía la bitácora después de guardar una instantánea que ya incluye todo lo anotado
+     * (los hilos que esperaban esos registros quedan libres: sus cambios ya están en disco)
+     * @return true si se vació
+     */
+    public synchronized boolean reiniciar() {
+        while (escribiendo) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        pendientes.reset();
+        durables = anotados;
+        notifyAll();
+        try {
+            if (canal != null) {
+                canal.truncate(0);
+                canal.position(0);
+                canal.force(true);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error al vaciar la bitácora del inventario: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== OYENTE DEL INVENTARIO ====================
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        anotar(AGREGADO, producto.getIdProducto(), salida -> {
+            salida.writeUTF(producto.getNombre());
+            salida.writeDouble(producto.getPrecio());
+            salida.writeUTF(producto.getCategoria());
+            escribirLista(salida, producto.getTallas());
+            escribirLista(salida, producto.getColores());
+            escribirStock(salida, producto);
+        });
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        anotar(ELIMINADO, producto.getIdProducto(), salida -> { });
+    }
+
+    /**
+     * Se anota también si el total no cambió: pudo cambiar la disponibilidad o el
+     * reparto entre tallas y colores
+     */
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        anotar(STOCK_FIJADO, producto.getIdProducto(), salida -> escribirStock(salida, producto));
+    }
+
+    @Override
+    public void precioCambiado(Producto producto, double precioAnterior) {
+        anotar(PRECIO, producto.getIdProducto(), salida -> salida.writeDouble(producto.getPrecio()));
+    }
+
+    @Override
+    public void nombreCambiado(Producto producto, String nombreAnterior) {
+        anotar(NOMBRE, producto.getIdProducto(), salida -> salida.writeUTF(producto.getNombre()));
+    }
+
+    @Override
+    public void categoriaCambiada(Producto producto, int codigoAnterior) {
+        anotar(CATEGORIA, producto.getIdProducto(), salida -> salida.writeUTF(producto.getCategoria()));
+    }
+
+    // ==================== CONFIRMAR ====================
+
+    /**
+     * Espera a que todo lo anotado hasta ahora esté sincronizado con el disco
+     * Si nadie está escribiendo, este hilo escribe el grupo pendiente completo;
+     * si otro hilo ya está escribiendo, espera a que termine (y quizás escribe el siguiente grupo)
+     * Si la escritura falla, el grupo vuelve al principio de lo pendiente (la próxima espera
+     * lo intenta de nuevo) y lo escrito a medias se descarta del archivo
+     * @return true si lo anotado hasta ahora está en el disco, false si no se pudo escribir
+     */
+    public boolean esperarDurable() {
+        byte[] grupo;
+        long hasta;
+        synchronized (this) {
+            long objetivo = anotados;
+            while (escribiendo && durables < objetivo) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (durables >= objetivo) {
+                return true;
+            }
+
+            escribiendo = true;
+            grupo = pendientes.toByteArray();
+            pendientes.reset();
+            hasta = anotados;
+        }
+
+        boolean escrito = escribirGrupo(grupo);
+        synchronized (this) {
+            if (escrito) {
+                durables = hasta;
+                sincronizaciones++;
+            } else {
+                // Lo anotado mientras tanto va después del grupo que no se pudo escribir
+                byte[] posteriores = pendientes.toByteArray();
+                pendientes.reset();
+                pendientes.write(grupo, 0, grupo.length);
+                pendientes.write(posteriores, 0, posteriores.length);
+            }
+            escribiendo = false;
+            notifyAll();
+        }
+        return escrito;
+    }
+
+    /**
+     * Escribe un grupo de registros al final del archivo y lo sincroniza con el disco
+     * (lo llama solo el hilo que está escribiendo)
+     * @return true si quedó en el disco
+     */
+    private boolean escribirGrupo(byte[] grupo) {
+        if (canal == null) {
+            System.out.println("La bitácora del inventario está cerrada: el cambio no quedó guardado.");
+            return false;
+        }
+
+        long inicio = -1;
+        try {
+            inicio = canal.position();
+            ByteBuffer buffer = ByteBuffer.wrap(grupo);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error al escribir la bitácora del inventario: " + e.getMessage());
+            // Un registro escrito a medias cortaría la bitácora al reproducirla
+            if (inicio >= 0) {
+                try {
+                    canal.truncate(inicio);
+                    canal.position(inicio);
+                } catch (IOException ignorada) {
+                    System.out.println("No se pudo descartar la escritura incompleta de la bitácora.");
+                }
+            }
+            return false;
+        }
+    }
+
+    // ==================== ESTADÍSTICAS ====================
+
+    public synchronized long getRegistros() {
+        return anotados;
+    }
+
+    /**
+     * Cantidad de escrituras al disco: con muchos cambios a la vez es bastante menor
+     * que la cantidad de registros
+     * @return Sincronizaciones hechas
+     */
+    public synchronized long getSincronizaciones() {
+        return sincronizaciones;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private interface Escritura {
+        void escribir(DataOutputStream salida) throws IOException;
+    }
+
+    private void anotar(byte tipo, int idProducto, Escritura datos) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream salida = new DataOutputStream(bytes);
+            salida.writeByte(tipo);
+            salida.writeInt(idProducto);
+            datos.escribir(salida);
+            byte[] contenido = bytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(contenido);
+            synchronized (this) {
+                DataOutputStream registro = new DataOutputStream(pendientes);
+                registro.writeInt(contenido.length);
+                registro.writeInt((int) crc.getValue());
+                registro.write(contenido);
+                anotados++;
+            }
+        } catch (IOException e) {
+            System.out.println("Error al anotar en la bitácora del inventario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee un registro completo y verifica su CRC
+     * @return Contenido, o null al llegar al final o a un registro incompleto o dañado
+     */
+    private static byte[] leerRegistro(DataInputStream entrada) throws IOException {
+        try {
+            int largo = entrada.readInt();
+            int crcGuardado = entrada.readInt();
+            if (largo <= 0 || largo > LARGO_MAXIMO) {
+                return null;
+            }
+
+            byte[] contenido = new byte[largo];
+            entrada.readFully(contenido);
+            CRC32 crc = new CRC32();
+            crc.update(contenido);
+            return ((int) crc.getValue() == crcGuardado) ? contenido : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void aplicar(byte[] contenido, Lector lector) throws IOException {
+        DataInputStream datos = new DataInputStream(new ByteArrayInputStream(contenido));
+        byte tipo = datos.readByte();
+        int idProducto = datos.readInt();
+
+        switch (tipo) {
+            case AGREGADO:
+                String nombre = datos.readUTF();
+                double precio = datos.readDouble();
+                String categoria = datos.readUTF();
+                List<String> tallas = leerLista(datos);
+                List<String> colores = leerLista(datos);
+                int stock = datos.readInt();
+                boolean disponible = datos.readBoolean();
+                int[] variantes = leerVariantes(datos);
+                Producto producto = new Producto(idProducto, nombre, precio, stock,
+                        categoria, tallas, colores, disponible);
+                if (variantes != null) {
+                    fijarVariantes(producto, variantes);
+                    producto.setDisponible(disponible);
+                }
+                lector.productoAgregado(producto);
+                break;
+            case ELIMINADO:
+                lector.productoEliminado(idProducto);
+                break;
+            case PRECIO:
+                lector.precioCambiado(idProducto, datos.readDouble());
+                break;
+            case STOCK_FIJADO:
+                int stockFijado = datos.readInt();
+                boolean disponibleFijado = datos.readBoolean();
+                lector.stockFijado(idProducto, stockFijado, disponibleFijado, leerVariantes(datos));
+                break;
+            case NOMBRE:
+                lector.nombreCambiado(idProducto, datos.readUTF());
+                break;
+            case CATEGORIA:
+                lector.categoriaCambiada(idProducto, datos.readUTF());
+                break;
+            default:
+                throw new IOException("Tipo de registro desconocido: " + tipo);
+        }
+    }
+
+    /**
+     * Stock total, disponibilidad y, si el producto lleva stock por variante, las unidades
+     * de cada talla y color (la cantidad primero; -1 sin stock por variante)
+     */
+    private static void escribirStock(DataOutputStream salida, Producto producto) throws IOException {
+        salida.writeInt(producto.getStock());
+        salida.writeBoolean(producto.isDisponible());
+        if (!producto.tieneVariantes()) {
+            salida.writeInt(-1);
+            return;
+        }
+
+        List<String> tallas = producto.getTallas();
+        List<String> colores = producto.getColores();
+        salida.writeInt(tallas.size() * colores.size());
+        for (String talla : tallas) {
+            for (String color : colores) {
+                salida.writeInt(producto.getStockVariante(talla, color));
+            }
+        }
+    }
+
+    private static int[] leerVariantes(DataInputStream datos) throws IOException {
+        int cantidad = datos.readInt();
+        if (cantidad < 0) {
+            return null;
+        }
+
+        int[] variantes = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            variantes[i] = datos.readInt();
+        }
+        return variantes;
+    }
+
+    /**
+     * Fija las unidades de cada talla y color en el orden en que se anotaron
+     * @param producto Producto con las mismas tallas y colores que al anotar
+     * @param variantes Unidades por talla y, dentro de cada talla, por color
+     */
+    public static void fijarVariantes(Producto producto, int[] variantes) {
+        List<String> tallas = producto.getTallas();
+        List<String> colores = producto.getColores();
+        if (colores.isEmpty() || variantes.length != tallas.size() * colores.size()) {
+            return;
+        }
+        for (int i = 0; i < variantes.length; i++) {
+            producto.setStockVariante(tallas.get(i / colores.size()), colores.get(i % colores.size()), variantes[i]);
+        }
+    }
+
+    private static void escribirLista(DataOutputStream salida, List<String> valores) throws IOException {
+        salida.writeInt(valores.size());
+        for (String valor : valores) {
+            salida.writeUTF(valor);
+        }
+    }
+
+    private static List<String> leerLista(DataInputStream datos) throws IOException {
+        int cantidad = datos.readInt();
+        List<String> valores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            valores.add(datos.readUTF());
+        }
+        return valores;
+    }
+}
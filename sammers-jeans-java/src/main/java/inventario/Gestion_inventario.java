@@ -1,23 +1,62 @@
 package inventario;
 
+import estructuras.Indice_aproximado;
+import producto.Oyente_producto;
 import producto.Producto;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Clase para gestionar el inventario de productos
  * Incluye productos predefinidos y operaciones CRUD
  */
 public class Gestion_inventario {
+    private static final int PUNTO_REORDEN_POR_DEFECTO = 5;
+    private static final long ESPERA_CIERRE_ALERTAS = 1_000;    // Milisegundos para entregar las alertas pendientes
+
     private Map<Integer, Producto> inventario;
+    private Indice_aproximado nombres;    // Para búsquedas de nombres tolerantes a errores (null: se arma al primer uso)
+    private List<Oyente_inventario> oyentes;
+    private Notificador notificador;
+    private int profundidadLote;                 // Lotes abiertos con ejecutarEnLote
+    private volatile Bitacora_inventario bitacora;    // null mientras no se active
+    private String rutaInstantanea;              // null mientras no se cargue una instantánea
+    private Indice_stock indiceStock;            // Para listar stock bajo y agotado sin recorrer todo
+    private Alertas_stock alertas;
+    private Totales_inventario totales;          // Unidades y valor, al día con cada cambio
+    private Map<Integer, Producto> repartidos;   // Productos con stock repartido (publican cada algunas unidades)
 
     /**
      * Constructor que inicializa el inventario con productos predefinidos
      */
     public Gestion_inventario() {
         this.inventario = new HashMap<>();
+        this.oyentes = new ArrayList<>();
+        this.repartidos = new HashMap<>();
+        this.notificador = new Notificador();
+        this.nombres = new Indice_aproximado();
         inicializarInventario();
+
+        for (Producto producto : inventario.values()) {
+            producto.setOyente(notificador);
+            nombres.agregar(producto.getIdProducto(), producto.getNombre());
+        }
+
+        this.indiceStock = new Indice_stock(inventario);
+        this.alertas = new Alertas_stock(PUNTO_REORDEN_POR_DEFECTO);
+        this.totales = new Totales_inventario(inventario);
+        oyentes.add(indiceStock);
+        oyentes.add(alertas);
+        oyentes.add(totales);
     }
 
     /**
@@ -90,38 +129,98 @@ public class Gestion_inventario {
                 "bermudas",
                 60000,
                 15,
-                "caballero",
+                "Caballero",
                 Arrays.asList("28", "30", "32"),
                 Arrays.asList("azul", "caqui"),
                 true
         ));
     }
 
+    /**
+     * Agrega un producto sin mensajes y avisa a los oyentes
+     */
+    private void incorporar(Producto producto) {
+        inventario.put(producto.getIdProducto(), producto);
+        producto.setOyente(notificador);
+        if (nombres != null) {
+            nombres.agregar(producto.getIdProducto(), producto.getNombre());
+        }
+        avisar(oyente -> oyente.productoAgregado(producto));
+    }
+
+    /**
+     * Quita un producto sin mensajes y avisa a los oyentes
+     * @return Producto quitado
+     */
+    private Producto quitar(int productoId) {
+        Producto eliminado = inventario.remove(productoId);
+        eliminado.setOyente(null);
+        repartidos.remove(productoId);
+        if (nombres != null) {
+            nombres.eliminar(productoId);
+        }
+        avisar(oyente -> oyente.productoEliminado(eliminado));
+        return eliminado;
+    }
+
     // ==================== BUSCAR PRODUCTOS ====================
 
     /**
-     * Busca un producto por nombre exacto (para reseñas)
+     * Busca un producto por nombre exacto (para reseñas), sin importar tildes ni mayúsculas
      * @param nombreProducto Nombre del producto a buscar
-     * @return Producto encontrado o null
+     * @return Producto encontrado (el de menor ID si hay varios) o null
      */
-    public Producto buscarPorNombre(String nombreProducto) {
-        String nombreBusqueda = nombreProducto.toLowerCase();
-
-        for (Producto producto : inventario.values()) {
-            if (producto.getNombre().toLowerCase().equals(nombreBusqueda)) {
+    public synchronized Producto buscarPorNombre(String nombreProducto) {
+        for (int id : indiceNombres().buscarExactos(nombreProducto)) {
+            Producto producto = inventario.get(id);
+            if (producto != null) {
                 return producto;
             }
         }
-
         return null;
     }
 
+    /**
+     * Busca los productos con nombre parecido, tolerando errores de escritura
+     * (por ejemplo "jogger deportvo" encuentra "jogger deportivo"). Se busca con el
+     * candado tomado: el índice cambia cuando se agregan, renombran o eliminan productos
+     * @param nombreProducto Nombre escrito por el usuario
+     * @param cantidad Cantidad máxima de productos
+     * @return Productos ordenados del más parecido al menos parecido
+     */
+    public synchronized List<Producto> buscarParecidos(String nombreProducto, int cantidad) {
+        List<Producto> resultado = new ArrayList<>();
+        for (int id : indiceNombres().buscar(nombreProducto, cantidad)) {
+            Producto producto = inventario.get(id);
+            if (producto != null) {
+                resultado.add(producto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Índice de nombres, armándolo si todavía no existe (después de cargar una
+     * instantánea se arma recién con la primera búsqueda por nombre)
+     * @return Índice de nombres al día
+     */
+    private Indice_aproximado indiceNombres() {
+        if (nombres == null) {
+            Indice_aproximado nuevo = new Indice_aproximado();
+            for (Producto producto : inventario.values()) {
+                nuevo.agregar(producto.getIdProducto(), producto.getNombre());
+            }
+            nombres = nuevo;
+        }
+        return nombres;
+    }
+
     /**
      * Busca un producto por ID
      * @param idProducto ID del producto
      * @return Producto encontrado o null
      */
-    public Producto buscarPorId(int idProducto) {
+    public synchronized Producto buscarPorId(int idProducto) {
         return inventario.get(idProducto);
     }
 
@@ -138,11 +237,63 @@ public class Gestion_inventario {
             return false;
         }
 
-        inventario.put(producto.getIdProducto(), producto);
+        incorporar(producto);
+        if (!confirmar()) {
+            return false;
+        }
         System.out.println("Producto " + producto.getNombre() + " agregado al inventario con éxito.");
         return true;
     }
 
+    /**
+     * Agrega muchos productos como un solo lote, sin un mensaje por producto
+     * (por ejemplo desde Importador_productos): los oyentes reciben cada producto pero
+     * loteTerminado una sola vez, y con la bitácora activa se espera una sola escritura
+     * Si el lote es más grande que el inventario, el índice de nombres no se actualiza
+     * producto por producto: se vuelve a armar una sola vez en la próxima búsqueda por nombre
+     * @param productos Productos a agregar
+     * @param repetidos Lista donde se dejan los productos que no se agregaron porque su ID ya existía
+     * @return true si el lote quedó guardado (false si la bitácora no lo pudo escribir)
+     */
+    public boolean agregarProductos(List<Producto> productos, List<Producto> repetidos) {
+        Bitacora_inventario activa;
+        synchronized (this) {
+            if (productos.size() > inventario.size()) {
+                nombres = null;
+            }
+            for (Producto producto : productos) {
+                if (inventario.containsKey(producto.getIdProducto())) {
+                    repetidos.add(producto);
+                    continue;
+                }
+                inventario.put(producto.getIdProducto(), producto);
+                producto.setOyente(notificador);
+                if (nombres != null) {
+                    nombres.agregar(producto.getIdProducto(), producto.getNombre());
+                }
+                for (Oyente_inventario oyente : oyentes) {
+                    oyente.productoAgregado(producto);
+                }
+            }
+            terminarCambio();
+            activa = bitacora;
+        }
+        return activa == null || activa.esperarDurable();
+    }
+
+    /**
+     * Importa productos desde un archivo CSV o JSONL y muestra el reporte
+     * @param ruta Archivo a importar
+     * @return Reporte de la importación, o null si no se pudo leer el archivo
+     */
+    public Reporte_importacion importarProductos(String ruta) {
+        Reporte_importacion reporte = new Importador_productos(this).importar(ruta);
+        if (reporte != null) {
+            reporte.mostrar();
+        }
+        return reporte;
+    }
+
     // ==================== ELIMINAR PRODUCTO ====================
 
     /**
@@ -156,8 +307,11 @@ public class Gestion_inventario {
             return false;
         }
 
-        String nombre = inventario.get(productoId).getNombre();
-        inventario.remove(productoId);
+        Producto eliminado = quitar(productoId);
+        if (!confirmar()) {
+            return false;
+        }
+        String nombre = eliminado.getNombre();
         System.out.println("El producto " + nombre + " con ID " + productoId +
                 " fue eliminado del inventario.");
         return true;
@@ -178,13 +332,20 @@ public class Gestion_inventario {
         }
 
         Producto producto = inventario.get(productoId);
-        producto.setStock(nuevaCantidad);
+        if (producto.tieneVariantes()) {
+            System.out.println("El stock de " + producto.getNombre() + " se maneja por talla y color.");
+            return false;
+        }
+
+        boolean[] fijado = {false};
+        ejecutarEnLote(() -> {
+            boolean stockFijado = producto.setStock(nuevaCantidad);
 
-        // Actualizar disponibilidad según el stock
-        if (nuevaCantidad > 0) {
-            producto.setDisponible(true);
-        } else {
-            producto.setDisponible(false);
+            // Actualizar disponibilidad según el stock
+            fijado[0] = producto.setDisponible(nuevaCantidad > 0) && stockFijado;
+        });
+        if (!fijado[0] || !confirmar()) {
+            return false;
         }
 
         System.out.println("Stock de " + producto.getNombre() + " actualizado a " + nuevaCantidad + ".");
@@ -192,7 +353,43 @@ public class Gestion_inventario {
     }
 
     /**
-     * Aumenta el stock de un producto
+     * Fija el stock de una variante (talla y color) de un producto
+     * La primera vez el producto pasa a llevar el stock por variante y su stock
+     * total queda como la suma de las variantes
+     * @param productoId ID del producto
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @param cantidad Unidades de la variante
+     * @return true si se actualizó exitosamente
+     */
+    public boolean actualizarStockVariante(int productoId, String talla, String color, int cantidad) {
+        if (!inventario.containsKey(productoId)) {
+            System.out.println("El producto no existe en el inventario.");
+            return false;
+        }
+
+        if (cantidad < 0) {
+            System.out.println("El stock no puede ser negativo.");
+            return false;
+        }
+
+        Producto producto = inventario.get(productoId);
+        if (!producto.tieneVariante(talla, color)) {
+            System.out.println(producto.getNombre() + " no tiene la talla " + talla + " en color " + color + ".");
+            return false;
+        }
+        if (!producto.setStockVariante(talla, color, cantidad) || !confirmar()) {
+            return false;
+        }
+
+        System.out.println("Stock de " + producto.getNombre() + " (Talla: " + talla + ", Color: " + color +
+                ") actualizado a " + cantidad + ". Stock total: " + producto.getStock() + ".");
+        return true;
+    }
+
+    /**
+     * Aumenta el stock de un producto (sin leer y volver a escribir el stock, así
+     * no pisa reservas hechas al mismo tiempo desde carritos)
      * @param productoId ID del producto
      * @param cantidad Cantidad a aumentar
      * @return true si se actualizó exitosamente
@@ -203,13 +400,28 @@ public class Gestion_inventario {
             return false;
         }
 
+        if (cantidad < 0) {
+            return reducirStock(productoId, -cantidad);
+        }
+
         Producto producto = inventario.get(productoId);
-        int nuevoStock = producto.getStock() + cantidad;
-        return actualizarStock(productoId, nuevoStock);
+        if (producto.tieneVariantes()) {
+            System.out.println("El stock de " + producto.getNombre() + " se maneja por talla y color.");
+            return false;
+        }
+
+        boolean[] aumentado = {false};
+        ejecutarEnLote(() -> aumentado[0] = producto.aumentarStock(cantidad));
+        if (!aumentado[0]) {
+            return false;
+        }
+        System.out.println("Stock de " + producto.getNombre() + " actualizado a " + producto.getStock() + ".");
+        return true;
     }
 
     /**
-     * Reduce el stock de un producto
+     * Reduce el stock de un producto de forma atómica (nunca queda negativo,
+     * aunque haya reservas al mismo tiempo)
      * @param productoId ID del producto
      * @param cantidad Cantidad a reducir
      * @return true si se actualizó exitosamente
@@ -221,14 +433,224 @@ public class Gestion_inventario {
         }
 
         Producto producto = inventario.get(productoId);
-        int nuevoStock = producto.getStock() - cantidad;
+        if (producto.tieneVariantes()) {
+            System.out.println("El stock de " + producto.getNombre() + " se maneja por talla y color.");
+            return false;
+        }
 
-        if (nuevoStock < 0) {
+        boolean[] reducido = {false};
+        ejecutarEnLote(() -> reducido[0] = producto.reducirStock(cantidad));
+        if (!reducido[0]) {
             System.out.println("No se puede reducir el stock por debajo de 0.");
             return false;
         }
 
-        return actualizarStock(productoId, nuevoStock);
+        System.out.println("Stock de " + producto.getNombre() + " actualizado a " + producto.getStock() + ".");
+        return true;
+    }
+
+    /**
+     * Marca o desmarca un producto como muy pedido (venta relámpago): su stock se reparte
+     * en una cubeta por núcleo para que muchos carritos reserven a la vez sin competir
+     * @param productoId ID del producto
+     * @param activar true para repartir el stock, false para volver a un solo contador
+     * @return true si se cambió exitosamente
+     */
+    public boolean cambiarStockRepartido(int productoId, boolean activar) {
+        if (!inventario.containsKey(productoId)) {
+            System.out.println("El producto no existe en el inventario.");
+            return false;
+        }
+
+        Producto producto = inventario.get(productoId);
+        if (!activar) {
+            producto.desactivarStockRepartido();
+            synchronized (this) {
+                repartidos.remove(productoId);
+            }
+            System.out.println("El stock de " + producto.getNombre() + " vuelve a un solo contador.");
+            return true;
+        }
+
+        if (!producto.activarStockRepartido(Runtime.getRuntime().availableProcessors())) {
+            System.out.println("El stock de " + producto.getNombre() +
+                    " se maneja por talla y color y no se puede repartir.");
+            return false;
+        }
+        synchronized (this) {
+            repartidos.put(productoId, producto);
+        }
+        System.out.println("Stock de " + producto.getNombre() + " repartido para venta relámpago.");
+        return true;
+    }
+
+    // ==================== CAMBIOS EN LOTE ====================
+
+    /**
+     * Aplica un lote de cambios de stock y precio (por ejemplo al recibir la entrega de
+     * un proveedor), todo o nada: primero valida todas las operaciones y, si alguna no es
+     * válida, no aplica ninguna. Las operaciones de un mismo producto se juntan, así que cada
+     * producto cambia a lo sumo una vez de stock y una de precio; los oyentes reciben esos
+     * cambios seguidos, sin otros intercalados, y loteTerminado una sola vez
+     * @param operaciones Operaciones a aplicar, en orden
+     * @return true si se aplicaron todas
+     */
+    public boolean aplicarLote(List<Operacion_inventario> operaciones) {
+        Map<Integer, Cambio_lote> cambios = new LinkedHashMap<>();
+        Producto sinStock;
+        Bitacora_inventario activa;
+
+        synchronized (this) {
+            List<String> errores = new ArrayList<>();
+            for (int i = 0; i < operaciones.size(); i++) {
+                String error = juntarOperacion(operaciones.get(i), cambios);
+                if (error != null) {
+                    errores.add("Operación " + (i + 1) + " (" + operaciones.get(i) + "): " + error);
+                }
+            }
+            for (Cambio_lote cambio : cambios.values()) {
+                int stockFinal = cambio.stockFinal();
+                if (stockFinal < 0) {
+                    errores.add("El stock de " + cambio.producto.getNombre() + " (ID " +
+                            cambio.producto.getIdProducto() + ") quedaría en " + stockFinal + ".");
+                }
+            }
+
+            if (!errores.isEmpty()) {
+                System.out.println("No se aplicó el lote de cambios:");
+                for (String error : errores) {
+                    System.out.println("  " + error);
+                }
+                return false;
+            }
+
+            profundidadLote++;
+            try {
+                sinStock = aplicarCambios(cambios.values());
+            } finally {
+                profundidadLote--;
+                terminarCambio();
+            }
+            activa = bitacora;
+        }
+
+        if (sinStock != null) {
+            System.out.println("No se aplicó el lote de cambios: el stock de " + sinStock.getNombre() +
+                    " bajó mientras tanto.");
+            return false;
+        }
+
+        // Una sola espera por la bitácora para todo el lote. Si un carrito estaba publicando
+        // el stock de alguno de los productos, el aviso del lote pudo quedar en sus manos
+        if (activa != null) {
+            for (Cambio_lote cambio : cambios.values()) {
+                cambio.producto.esperarStockPublicado();
+            }
+            if (!activa.esperarDurable()) {
+                System.out.println("El lote de cambios se aplicó pero no quedó guardado en la bitácora.");
+                return false;
+            }
+        }
+        System.out.println("Lote aplicado: " + operaciones.size() + " operaciones sobre " +
+                cambios.size() + " productos.");
+        return true;
+    }
+
+    /**
+     * Suma una operación al cambio de su producto
+     * @return Motivo por el que la operación no es válida, o null
+     */
+    private String juntarOperacion(Operacion_inventario operacion, Map<Integer, Cambio_lote> cambios) {
+        Producto producto = inventario.get(operacion.getIdProducto());
+        if (producto == null) {
+            return "el producto no existe en el inventario.";
+        }
+
+        Cambio_lote cambio = cambios.computeIfAbsent(producto.getIdProducto(), id -> new Cambio_lote(producto));
+        switch (operacion.getTipo()) {
+            case Operacion_inventario.DIFERENCIA_STOCK:
+            case Operacion_inventario.FIJAR_STOCK:
+                if (producto.tieneVariantes()) {
+                    return "el stock de " + producto.getNombre() + " se maneja por talla y color.";
+                }
+                double valor = operacion.getValor();
+                if (valor != Math.rint(valor) || Math.abs(valor) > Integer.MAX_VALUE) {
+                    return "las unidades de stock deben ser un número entero.";
+                }
+                int unidades = (int) valor;
+                if (operacion.getTipo() == Operacion_inventario.DIFERENCIA_STOCK) {
+                    cambio.diferencia += unidades;
+                } else if (unidades < 0) {
+                    return "el stock no puede ser negativo.";
+                } else {
+                    cambio.fijar = true;
+                    cambio.stock = unidades;
+                    cambio.diferencia = 0;
+                }
+                return null;
+            case Operacion_inventario.PRECIO:
+                if (!(operacion.getValor() > 0) || Double.isInfinite(operacion.getValor())) {
+                    return "el precio debe ser mayor a 0.";
+                }
+                cambio.cambiaPrecio = true;
+                cambio.precio = operacion.getValor();
+                return null;
+            default:
+                return "operación desconocida.";
+        }
+    }
+
+    /**
+     * Aplica los cambios ya validados (con el candado tomado). Primero las reducciones
+     * de stock, que son las únicas que pueden fallar si un carrito reservó mientras tanto:
+     * si una falla se devuelven las ya hechas y no se aplica nada más
+     * @return Producto que se quedó sin stock suficiente, o null si se aplicó todo
+     */
+    private Producto aplicarCambios(Collection<Cambio_lote> cambios) {
+        List<Cambio_lote> reducidos = new ArrayList<>();
+        for (Cambio_lote cambio : cambios) {
+            if (!cambio.fijar && cambio.diferencia < 0) {
+                if (!cambio.producto.reducirStock(-cambio.diferencia)) {
+                    for (Cambio_lote hecho : reducidos) {
+                        hecho.producto.aumentarStock(-hecho.diferencia);
+                    }
+                    return cambio.producto;
+                }
+                reducidos.add(cambio);
+            }
+        }
+
+        for (Cambio_lote cambio : cambios) {
+            if (cambio.fijar) {
+                cambio.producto.setStock(cambio.stock + cambio.diferencia);
+            } else if (cambio.diferencia > 0) {
+                cambio.producto.aumentarStock(cambio.diferencia);
+            }
+            if (cambio.cambiaPrecio && cambio.precio != cambio.producto.getPrecio()) {
+                cambio.producto.setPrecio(cambio.precio);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cambio neto de un producto dentro de un lote
+     */
+    private static final class Cambio_lote {
+        private final Producto producto;
+        private boolean fijar;         // true si el lote fija el stock
+        private int stock;             // Stock fijado (si fijar)
+        private int diferencia;        // Unidades a sumar después (o al stock actual)
+        private boolean cambiaPrecio;
+        private double precio;
+
+        Cambio_lote(Producto producto) {
+            this.producto = producto;
+        }
+
+        int stockFinal() {
+            return (fijar ? stock : producto.getStock()) + diferencia;
+        }
     }
 
     // ==================== MOSTRAR INVENTARIO ====================
@@ -264,10 +686,13 @@ public class Gestion_inventario {
 
         System.out.println("=".repeat(130));
         System.out.println("Total de productos: " + inventario.size());
+        System.out.println("Unidades en stock: " + totales.getUnidades());
+        System.out.printf("Valor del inventario: $%.0f%n", totales.getValor());
     }
 
     /**
-     * Muestra productos con stock bajo (menor a un umbral)
+     * Muestra productos con stock bajo (menor a un umbral), de menor a mayor stock
+     * Usa el índice de stock: recorre solo las cubetas por debajo del umbral
      * @param umbral Cantidad mínima de stock
      */
     public void mostrarStockBajo(int umbral) {
@@ -277,22 +702,17 @@ public class Gestion_inventario {
         System.out.printf("%-5s %-30s %-15s %-15s%n", "ID", "NOMBRE", "STOCK", "CATEGORÍA");
         System.out.println("-".repeat(80));
 
-        boolean hayStockBajo = false;
-
-        for (Map.Entry<Integer, Producto> entry : inventario.entrySet()) {
-            Producto producto = entry.getValue();
-
-            if (producto.getStock() < umbral && producto.getStock() > 0) {
-                hayStockBajo = true;
-                System.out.printf("%-5d %-30s %-15d %-15s%n",
-                        entry.getKey(),
-                        producto.getNombre(),
-                        producto.getStock(),
-                        producto.getCategoria());
-            }
+        int[] ids = indiceStock.idsConStockEntre(1, umbral - 1);
+        for (int id : ids) {
+            Producto producto = inventario.get(id);
+            System.out.printf("%-5d %-30s %-15d %-15s%n",
+                    producto.getIdProducto(),
+                    producto.getNombre(),
+                    producto.getStock(),
+                    producto.getCategoria());
         }
 
-        if (!hayStockBajo) {
+        if (ids.length == 0) {
             System.out.println("No hay productos con stock bajo.");
         }
 
@@ -309,21 +729,16 @@ public class Gestion_inventario {
         System.out.printf("%-5s %-30s %-15s%n", "ID", "NOMBRE", "CATEGORÍA");
         System.out.println("-".repeat(80));
 
-        boolean haySinStock = false;
-
-        for (Map.Entry<Integer, Producto> entry : inventario.entrySet()) {
-            Producto producto = entry.getValue();
-
-            if (producto.getStock() == 0) {
-                haySinStock = true;
-                System.out.printf("%-5d %-30s %-15s%n",
-                        entry.getKey(),
-                        producto.getNombre(),
-                        producto.getCategoria());
-            }
+        int[] ids = indiceStock.idsSinStock();
+        for (int id : ids) {
+            Producto producto = inventario.get(id);
+            System.out.printf("%-5d %-30s %-15s%n",
+                    id,
+                    producto.getNombre(),
+                    producto.getCategoria());
         }
 
-        if (!haySinStock) {
+        if (ids.length == 0) {
             System.out.println("Todos los productos tienen stock.");
         }
 
@@ -352,26 +767,52 @@ public class Gestion_inventario {
         Producto producto = inventario.get(productoId);
         double precioAnterior = producto.getPrecio();
         producto.setPrecio(nuevoPrecio);
+        if (!confirmar()) {
+            return false;
+        }
 
         System.out.printf("Precio de %s actualizado de $%.2f a $%.2f%n",
                 producto.getNombre(), precioAnterior, nuevoPrecio);
         return true;
     }
 
+    /**
+     * Cambia el nombre de un producto
+     * @param productoId ID del producto
+     * @param nuevoNombre Nuevo nombre
+     * @return true si se actualizó exitosamente
+     */
+    public boolean actualizarNombre(int productoId, String nuevoNombre) {
+        if (!inventario.containsKey(productoId)) {
+            System.out.println("El producto no existe en el inventario.");
+            return false;
+        }
+
+        if (nuevoNombre == null || nuevoNombre.isBlank()) {
+            System.out.println("El nombre no puede estar vacío.");
+            return false;
+        }
+
+        Producto producto = inventario.get(productoId);
+        String nombreAnterior = producto.getNombre();
+        producto.setNombre(nuevoNombre.trim());
+        if (!confirmar()) {
+            return false;
+        }
+
+        System.out.println("Nombre de " + nombreAnterior + " actualizado a " + producto.getNombre() + ".");
+        return true;
+    }
+
     // ==================== ESTADÍSTICAS ====================
 
     /**
-     * Calcula el valor total del inventario
+     * Valor total del inventario, mantenido con cada cambio de stock y precio (O(1))
      * @return Valor total (precio * stock)
      */
     public double calcularValorTotalInventario() {
-        double total = 0.0;
-
-        for (Producto producto : inventario.values()) {
-            total += producto.getPrecio() * producto.getStock();
-        }
-
-        return total;
+        publicarRepartidos();
+        return totales.getValor();
     }
 
     /**
@@ -383,27 +824,440 @@ public class Gestion_inventario {
     }
 
     /**
-     * Cuenta el total de unidades en stock
+     * Total de unidades en stock, mantenido con cada cambio de stock (O(1))
      * @return Suma de todos los stocks
      */
     public int contarUnidadesTotales() {
-        int total = 0;
+        publicarRepartidos();
+        return (int) totales.getUnidades();
+    }
 
-        for (Producto producto : inventario.values()) {
-            total += producto.getStock();
+    /**
+     * Totales del inventario, con las reservas de los productos con stock repartido ya contadas
+     * @return Totales (se siguen actualizando con cada cambio)
+     */
+    public Totales_inventario getTotales() {
+        publicarRepartidos();
+        return totales;
+    }
+
+    /**
+     * Los productos con stock repartido avisan su stock cada algunas unidades: antes de leer
+     * los totales se publica lo que tengan pendiente, así cuentan todas las reservas hechas
+     * hasta ahora. Se espera sin el candado del inventario: quien esté publicando lo
+     * necesita para avisar
+     */
+    private void publicarRepartidos() {
+        List<Producto> pendientes;
+        synchronized (this) {
+            if (repartidos.isEmpty()) {
+                return;
+            }
+            pendientes = new ArrayList<>(repartidos.values());
+        }
+        for (Producto producto : pendientes) {
+            producto.esperarStockPublicado();
+        }
+    }
+
+    // ==================== ALERTAS DE STOCK ====================
+
+    /**
+     * Fija el punto de reorden de un producto: cuando su stock baja hasta ese valor
+     * (por ejemplo durante una compra) se avisa a los oyentes de alertas
+     * @param productoId ID del producto
+     * @param punto Punto de reorden (negativo para no avisar)
+     * @return true si se configuró
+     */
+    public boolean configurarPuntoReorden(int productoId, int punto) {
+        if (!inventario.containsKey(productoId)) {
+            System.out.println("El producto no existe en el inventario.");
+            return false;
+        }
+
+        alertas.setPuntoReorden(productoId, punto);
+        System.out.println("Punto de reorden de " + inventario.get(productoId).getNombre() +
+                ((punto < 0) ? " desactivado." : " fijado en " + punto + " unidades."));
+        return true;
+    }
+
+    /**
+     * Registra un oyente de alertas de stock (recibe los avisos desde el hilo de alertas)
+     * Si el oyente falla, el error se muestra con el siguiente cambio del inventario
+     * @param oyente Oyente a registrar
+     */
+    public void agregarOyenteAlertas(Oyente_alertas_stock oyente) {
+        alertas.agregarOyente(oyente);
+    }
+
+    public Alertas_stock getAlertas() {
+        return alertas;
+    }
+
+    public Indice_stock getIndiceStock() {
+        return indiceStock;
+    }
+
+    // ==================== BITÁCORA ====================
+
+    /**
+     * Activa la bitácora del inventario: primero reproduce los cambios guardados en el
+     * archivo (productos agregados y eliminados, stock por producto y por talla y color,
+     * disponibilidad, precios, nombres y categorías) sobre el inventario
+     * inicial, y desde ahora anota cada cambio y no lo da por terminado hasta que está
+     * en el disco. Los cambios hechos a la vez desde varios hilos comparten una sola escritura
+     * Debe llamarse antes de construir el catálogo y los demás oyentes
+     * @param ruta Archivo de la bitácora (se crea si no existe)
+     * @return true si la bitácora quedó activa
+     */
+    public boolean activarBitacora(String ruta) {
+        if (bitacora != null) {
+            return true;
         }
 
-        return total;
+        Bitacora_inventario nueva = new Bitacora_inventario(Paths.get(ruta));
+        int recuperados = nueva.reproducir(new Bitacora_inventario.Lector() {
+            @Override
+            public void productoAgregado(Producto producto) {
+                if (inventario.containsKey(producto.getIdProducto())) {
+                    quitar(producto.getIdProducto());
+                }
+                incorporar(producto);
+            }
+
+            @Override
+            public void productoEliminado(int idProducto) {
+                if (inventario.containsKey(idProducto)) {
+                    quitar(idProducto);
+                }
+            }
+
+            @Override
+            public void stockFijado(int idProducto, int stock, boolean disponible, int[] variantes) {
+                Producto producto = inventario.get(idProducto);
+                if (producto == null) {
+                    return;
+                }
+                if (variantes != null) {
+                    Bitacora_inventario.fijarVariantes(producto, variantes);
+                } else if (!producto.tieneVariantes()) {
+                    producto.setStock(stock);
+                }
+                if (producto.isDisponible() != disponible) {
+                    producto.setDisponible(disponible);
+                }
+            }
+
+            @Override
+            public void precioCambiado(int idProducto, double precio) {
+                Producto producto = inventario.get(idProducto);
+                if (producto != null) {
+                    producto.setPrecio(precio);
+                }
+            }
+
+            @Override
+            public void nombreCambiado(int idProducto, String nombre) {
+                Producto producto = inventario.get(idProducto);
+                if (producto != null) {
+                    producto.setNombre(nombre);
+                }
+            }
+
+            @Override
+            public void categoriaCambiada(int idProducto, String categoria) {
+                Producto producto = inventario.get(idProducto);
+                if (producto != null) {
+                    producto.setCategoria(categoria);
+                }
+            }
+        });
+
+        if (recuperados < 0 || !nueva.abrir()) {
+            System.out.println("El inventario funcionará sin bitácora: los cambios se perderán al cerrar.");
+            return false;
+        }
+        if (recuperados > 0) {
+            System.out.println("Se recuperaron " + recuperados + " cambios del inventario desde la bitácora.");
+        }
+
+        synchronized (this) {
+            bitacora = nueva;
+            oyentes.add(nueva);
+        }
+        return true;
+    }
+
+    // ==================== INSTANTÁNEA ====================
+
+    /**
+     * Reemplaza el inventario inicial por el de una instantánea binaria, si existe
+     * La carga no es perezosa: se arma un Producto por cada fila (el inventario y los
+     * índices del catálogo trabajan con productos), pero leyendo filas de tamaño fijo y
+     * sin interpretar texto. Lo único que se posterga es el índice de nombres, que espera
+     * a la primera búsqueda por nombre. Debe llamarse antes de activar la bitácora
+     * y de construir el catálogo; guardarInstantanea() escribe en la misma ruta
+     * @param ruta Archivo de la instantánea
+     * @return true si se cargó una instantánea
+     */
+    public boolean cargarInstantanea(String ruta) {
+        if (bitacora != null) {
+            System.out.println("La instantánea debe cargarse antes de activar la bitácora.");
+            return false;
+        }
+
+        rutaInstantanea = ruta;
+        Instantanea_inventario instantanea = Instantanea_inventario.abrir(Paths.get(ruta));
+        if (instantanea == null) {
+            return false;
+        }
+
+        synchronized (this) {
+            nombres = null;
+        }
+        try {
+            ejecutarEnLote(() -> {
+                for (Integer id : new ArrayList<>(inventario.keySet())) {
+                    quitar(id);
+                }
+                for (int i = 0; i < instantanea.getCantidad(); i++) {
+                    incorporar(instantanea.leerProducto(i));
+                }
+            });
+        } finally {
+            // Sin el archivo mapeado, guardarInstantanea() lo puede reemplazar
+            instantanea.cerrar();
+        }
+        return true;
+    }
+
+    /**
+     * Guarda una instantánea de todo el inventario y, como ya incluye todo lo anotado,
+     * vacía la bitácora (así el próximo arranque reproduce solo lo que pase desde ahora)
+     * @return true si se guardó
+     */
+    public boolean guardarInstantanea() {
+        if (rutaInstantanea == null) {
+            System.out.println("No se indicó dónde guardar la instantánea del inventario.");
+            return false;
+        }
+
+        // Con el candado tomado no se anotan cambios: la instantánea y la bitácora
+        // vaciada quedan de acuerdo (un stock publicado después se anota después)
+        synchronized (this) {
+            if (!Instantanea_inventario.guardar(Paths.get(rutaInstantanea), inventario.values())) {
+                return false;
+            }
+            return bitacora == null || bitacora.reiniciar();
+        }
+    }
+
+    /**
+     * Obtiene la bitácora del inventario
+     * @return Bitácora o null si no se activó
+     */
+    public Bitacora_inventario getBitacora() {
+        return bitacora;
+    }
+
+    // ==================== CERRAR ====================
+
+    /**
+     * Cierra el inventario al salir: entrega las alertas de stock pendientes, detiene su
+     * hilo y cierra la bitácora (los cambios posteriores ya no se anotan)
+     * @return true si las alertas se entregaron y todo lo anotado quedó en el disco
+     */
+    public boolean cerrar() {
+        boolean entregadas = alertas.cerrar(ESPERA_CIERRE_ALERTAS);
+        if (!entregadas) {
+            System.out.println("Algunas alertas de stock no se llegaron a entregar.");
+        }
+        alertas.informarFallas();
+
+        Bitacora_inventario activa;
+        synchronized (this) {
+            activa = bitacora;
+            bitacora = null;
+            oyentes.remove(activa);
+        }
+        return entregadas && (activa == null || activa.cerrar());
+    }
+
+    // ==================== OYENTES ====================
+
+    /**
+     * Ejecuta varios cambios como un solo lote: los oyentes reciben cada evento
+     * pero loteTerminado se avisa una sola vez, al final
+     * @param cambios Cambios a ejecutar
+     */
+    public void ejecutarEnLote(Runnable cambios) {
+        synchronized (this) {
+            profundidadLote++;
+        }
+        try {
+            cambios.run();
+        } finally {
+            synchronized (this) {
+                profundidadLote--;
+                terminarCambio();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una lectura de los oyentes (índices del catálogo) con el candado tomado y
+     * fuera de cualquier lote, así que ve todos los avisos hasta el último loteTerminado y
+     * ningún lote a medias. No se debe llamar desde dentro de ejecutarEnLote
+     * @param lectura Lectura a ejecutar
+     * @param <T> Tipo del resultado
+     * @return Resultado de la lectura
+     */
+    public synchronized <T> T leer(Supplier<T> lectura) {
+        while (profundidadLote > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return lectura.get();
+    }
+
+    /**
+     * Avisa un cambio a todos los oyentes y, si no hay un lote abierto, el fin del lote
+     * Los cambios de stock pueden llegar desde varios hilos a la vez (carritos que
+     * reservan): los oyentes reciben los avisos de a uno
+     * @param aviso Evento a avisar a cada oyente
+     */
+    private synchronized void avisar(Consumer<Oyente_inventario> aviso) {
+        for (Oyente_inventario oyente : oyentes) {
+            aviso.accept(oyente);
+        }
+        terminarCambio();
+    }
+
+    /**
+     * Con la bitácora activa espera, sin el candado, a que lo avisado hasta ahora esté en el
+     * disco; mientras tanto otros hilos pueden anotar sus cambios y entrar en la misma escritura
+     * Dentro de un lote que tiene el candado (aplicarLote) no espera: el lote espera una vez, al final
+     * Antes informa las alertas de stock que no se pudieron entregar desde el último cambio
+     * @return true si quedó guardado (o no hay bitácora)
+     */
+    private boolean confirmar() {
+        alertas.informarFallas();
+        Bitacora_inventario activa = bitacora;
+        if (activa == null || Thread.holdsLock(this)) {
+            return true;
+        }
+        if (!activa.esperarDurable()) {
+            System.out.println("El cambio no quedó guardado en la bitácora del inventario.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Avisa el fin del lote si no hay ninguno abierto
+     */
+    private void terminarCambio() {
+        if (profundidadLote > 0) {
+            return;
+        }
+        for (Oyente_inventario oyente : oyentes) {
+            oyente.loteTerminado();
+        }
+        notifyAll();    // Lecturas esperando en leer()
+    }
+
+    /**
+     * Registra un oyente que será notificado de los cambios del inventario
+     * @param oyente Oyente a registrar
+     */
+    public synchronized void agregarOyente(Oyente_inventario oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Quita un oyente registrado
+     * @param oyente Oyente a quitar
+     */
+    public synchronized void quitarOyente(Oyente_inventario oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Reenvía a los oyentes del inventario los cambios hechos directamente sobre
+     * los productos (carrito, pedidos, setters) y mantiene al día el índice de nombres
+     * Los cambios de stock los avisa el hilo que publica el stock del producto, que puede
+     * no ser el que hizo el cambio: cada hilo que cambió el stock espera después la
+     * bitácora por su cuenta (requiereConfirmacion y confirmarCambios). Los demás
+     * cambios se confirman en el mismo aviso
+     */
+    private class Notificador implements Oyente_producto {
+        @Override
+        public void stockCambiado(Producto producto, int stockAnterior) {
+            avisar(oyente -> oyente.stockCambiado(producto, stockAnterior));
+        }
+
+        @Override
+        public boolean requiereConfirmacion() {
+            return bitacora != null && !Thread.holdsLock(Gestion_inventario.this);
+        }
+
+        @Override
+        public boolean confirmarCambios() {
+            Bitacora_inventario activa = bitacora;
+            return activa == null || activa.esperarDurable();
+        }
+
+        /**
+         * Los cambios que no son de stock los avisa el mismo hilo que los hace: se confirman acá
+         */
+        private void confirmarAviso() {
+            if (requiereConfirmacion()) {
+                confirmarCambios();
+            }
+        }
+
+        @Override
+        public void precioCambiado(Producto producto, double precioAnterior) {
+            avisar(oyente -> oyente.precioCambiado(producto, precioAnterior));
+            confirmarAviso();
+        }
+
+        @Override
+        public void nombreCambiado(Producto producto, String nombreAnterior) {
+            synchronized (Gestion_inventario.this) {
+                if (nombres != null) {
+                    nombres.agregar(producto.getIdProducto(), producto.getNombre());
+                }
+            }
+            avisar(oyente -> oyente.nombreCambiado(producto, nombreAnterior));
+            confirmarAviso();
+        }
+
+        @Override
+        public void categoriaCambiada(Producto producto, int codigoAnterior) {
+            avisar(oyente -> oyente.categoriaCambiada(producto, codigoAnterior));
+            confirmarAviso();
+        }
+
+        @Override
+        public void resenaAgregada(Producto producto, int calificacion) {
+            avisar(oyente -> oyente.resenaAgregada(producto, calificacion));
+        }
     }
 
     // ==================== GETTERS Y SETTERS ====================
 
     /**
-     * Obtiene el mapa del inventario
-     * @return Inventario completo
+     * Obtiene una copia del mapa del inventario (el mapa de la gestión solo se
+     * toca con su candado)
+     * @return Copia del inventario completo
      */
-    public Map<Integer, Producto> getInventario() {
-        return inventario;
+    public synchronized Map<Integer, Producto> getInventario() {
+        return new HashMap<>(inventario);
     }
 
     /**
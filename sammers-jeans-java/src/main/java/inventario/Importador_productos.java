@@ -0,0 +1,621 @@
+package inventario;
+
+import estructuras.Mapa_int_int;
+import estructuras.Normalizador_texto;
+import producto.Producto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importación masiva de productos desde archivos CSV o JSONL (un objeto JSON por línea)
+ * El archivo se lee por bloques con un FileChannel, cortando cada bloque en el último
+ * salto de línea, y los bloques se interpretan y validan en paralelo (un hilo por núcleo)
+ * Los resultados se juntan en el orden del archivo, así que los IDs repetidos se resuelven
+ * siempre igual: vale la primera fila y las siguientes se rechazan. Al final los productos
+ * entran al inventario en un solo lote (los índices del catálogo publican una sola vez)
+ *
+ * CSV: la primera línea indica las columnas (id, nombre, precio, stock, categoria y,
+ * opcionales, tallas, colores y disponible); las tallas y colores van separados por "|".
+ * Los campos pueden ir entre comillas dobles, pero no pueden tener saltos de línea
+ * JSONL: {"id": 7, "nombre": "jean", "precio": 80000, "stock": 5, "categoria": "Dama",
+ * "tallas": ["30", "32"], "colores": ["azul"], "disponible": true}
+ */
+public class Importador_productos {
+    private static final int TAMANO_BLOQUE = 1 << 20;    // Bytes leídos por vez
+    private static final String[] COLUMNAS = {"id", "nombre", "precio", "stock", "categoria",
+            "tallas", "colores", "disponible"};
+    private static final int ID = 0;
+    private static final int NOMBRE = 1;
+    private static final int PRECIO = 2;
+    private static final int STOCK = 3;
+    private static final int CATEGORIA = 4;
+    private static final int TALLAS = 5;
+    private static final int COLORES = 6;
+    private static final int DISPONIBLE = 7;
+    private static final int OBLIGATORIAS = 5;           // Las primeras columnas no se pueden omitir
+
+    private final Gestion_inventario inventario;
+    private final int hilos;
+
+    /**
+     * Constructor que usa un hilo por núcleo
+     * @param inventario Inventario donde se agregan los productos
+     */
+    public Importador_productos(Gestion_inventario inventario) {
+        this(inventario, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor con una cantidad de hilos fija
+     * @param inventario Inventario donde se agregan los productos
+     * @param hilos Hilos que interpretan bloques a la vez
+     */
+    public Importador_productos(Gestion_inventario inventario, int hilos) {
+        this.inventario = inventario;
+        this.hilos = Math.max(1, hilos);
+    }
+
+    // ==================== IMPORTAR ====================
+
+    /**
+     * Importa los productos de un archivo (JSONL si termina en .jsonl o .ndjson, si no CSV)
+     * @param ruta Archivo a importar
+     * @return Reporte con los importados y los rechazos, o null si no se pudo leer el archivo
+     */
+    public Reporte_importacion importar(String ruta) {
+        long inicio = System.currentTimeMillis();
+        String nombreArchivo = ruta.toLowerCase();
+        boolean json = nombreArchivo.endsWith(".jsonl") || nombreArchivo.endsWith(".ndjson");
+
+        Union union = new Union();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            leerBloques(Paths.get(ruta), json, ejecutor, union);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo " + ruta + ": " + e.getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            System.out.println("El archivo " + ruta + " no se puede importar: " + e.getMessage());
+            return null;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        // Otro hilo pudo agregar alguno de estos IDs mientras se leía el archivo
+        List<Producto> yaExistian = new ArrayList<>();
+        if (!inventario.agregarProductos(union.aceptados, yaExistian)) {
+            union.reporte.marcarNoGuardado();
+        }
+        for (Producto repetido : yaExistian) {
+            union.reporte.rechazar(union.lineas.obtener(repetido.getIdProducto(), 0),
+                    "El producto con ID " + repetido.getIdProducto() + " ya existe en el inventario");
+        }
+        union.reporte.contarImportados(union.aceptados.size() - yaExistian.size());
+        union.reporte.getRechazos().sort((a, b) -> Long.compare(a.getLinea(), b.getLinea()));
+        union.reporte.setMilisegundos(System.currentTimeMillis() - inicio);
+        return union.reporte;
+    }
+
+    // ==================== LEER EL ARCHIVO ====================
+
+    /**
+     * Lee el archivo por bloques terminados en salto de línea y manda cada bloque a
+     * interpretar; junta los resultados en orden, con a lo sumo dos bloques por hilo en
+     * memoria a la vez
+     */
+    private void leerBloques(Path ruta, boolean json, ExecutorService ejecutor, Union union) throws IOException {
+        Deque<Future<Bloque>> enCurso = new ArrayDeque<>();
+        Columnas columnas = json ? null : new Columnas();
+        ByteBuffer lectura = ByteBuffer.allocate(TAMANO_BLOQUE);
+        byte[] resto = new byte[0];
+        boolean primero = true;
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            boolean fin = false;
+            while (!fin) {
+                lectura.clear();
+                fin = canal.read(lectura) < 0;
+                lectura.flip();
+
+                byte[] bytes = new byte[resto.length + lectura.remaining()];
+                System.arraycopy(resto, 0, bytes, 0, resto.length);
+                lectura.get(bytes, resto.length, bytes.length - resto.length);
+
+                int corte = fin ? bytes.length : ultimoSalto(bytes) + 1;
+                resto = Arrays.copyOfRange(bytes, corte, bytes.length);
+                if (corte == 0) {
+                    continue;    // Una línea más larga que el bloque: se sigue leyendo
+                }
+
+                int desde = 0;
+                if (primero) {
+                    desde = saltarMarcaBom(bytes);
+                    if (!json) {
+                        desde = columnas.leerEncabezado(bytes, desde, corte);
+                        union.lineaBase = 1;
+                    }
+                    primero = false;
+                }
+
+                byte[] bloque = Arrays.copyOfRange(bytes, desde, corte);
+                Columnas columnasBloque = columnas;
+                enCurso.add(ejecutor.submit(() -> interpretar(bloque, json, columnasBloque)));
+                if (enCurso.size() >= hilos * 2) {
+                    union.juntar(esperar(enCurso.poll()));
+                }
+            }
+        }
+
+        while (!enCurso.isEmpty()) {
+            union.juntar(esperar(enCurso.poll()));
+        }
+    }
+
+    private static Bloque esperar(Future<Bloque> pendiente) throws IOException {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida");
+        } catch (ExecutionException e) {
+            throw new IOException("Error al interpretar un bloque: " + e.getCause());
+        }
+    }
+
+    // ==================== INTERPRETAR UN BLOQUE ====================
+
+    /**
+     * Interpreta y valida las líneas de un bloque (corre en los hilos del importador;
+     * no toca el inventario ni crea productos)
+     */
+    private static Bloque interpretar(byte[] bytes, boolean json, Columnas columnas) {
+        Bloque bloque = new Bloque();
+        int inicio = 0;
+        while (inicio < bytes.length) {
+            int fin = inicio;
+            while (fin < bytes.length && bytes[fin] != '\n') {
+                fin++;
+            }
+            int largo = fin - inicio;
+            if (largo > 0 && bytes[fin - 1] == '\r') {
+                largo--;
+            }
+
+            String linea = new String(bytes, inicio, largo, StandardCharsets.UTF_8);
+            if (linea.isBlank()) {
+                bloque.agregar(null, null);
+            } else {
+                try {
+                    bloque.agregar(json ? filaJson(linea) : columnas.fila(linea), null);
+                } catch (IllegalArgumentException e) {
+                    bloque.agregar(null, e.getMessage());
+                }
+            }
+            inicio = fin + 1;
+        }
+        return bloque;
+    }
+
+    /**
+     * Valida los campos de una fila
+     * @throws IllegalArgumentException con el motivo si algún campo no es válido
+     */
+    private static Fila validar(String id, String nombre, String precio, String stock, String categoria,
+                                List<String> tallas, List<String> colores, String disponible) {
+        Fila fila = new Fila();
+        fila.id = entero(id, "ID");
+        if (fila.id <= 0) {
+            throw new IllegalArgumentException("ID inválido: " + id);
+        }
+        if (nombre == null || nombre.isBlank()) {
+            throw new IllegalArgumentException("Falta el nombre del producto " + fila.id);
+        }
+        fila.nombre = nombre.trim();
+
+        if (precio == null) {
+            throw new IllegalArgumentException("Falta el precio del producto " + fila.id);
+        }
+        try {
+            fila.precio = Double.parseDouble(precio.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Precio inválido: " + precio);
+        }
+        if (!(fila.precio > 0) || Double.isInfinite(fila.precio)) {
+            throw new IllegalArgumentException("El precio debe ser mayor a 0: " + precio);
+        }
+
+        fila.stock = entero(stock, "Stock");
+        if (fila.stock < 0) {
+            throw new IllegalArgumentException("El stock no puede ser negativo: " + stock);
+        }
+        if (categoria == null || categoria.isBlank()) {
+            throw new IllegalArgumentException("Falta la categoría del producto " + fila.id);
+        }
+        fila.categoria = categoria.trim();
+        fila.tallas = tallas;
+        fila.colores = colores;
+
+        if (disponible == null || disponible.isBlank()) {
+            fila.disponible = fila.stock > 0;
+        } else {
+            String valor = Normalizador_texto.normalizar(disponible);
+            if (valor.equals("true") || valor.equals("si") || valor.equals("1")) {
+                fila.disponible = true;
+            } else if (valor.equals("false") || valor.equals("no") || valor.equals("0")) {
+                fila.disponible = false;
+            } else {
+                throw new IllegalArgumentException("Disponibilidad inválida: " + disponible);
+            }
+        }
+        return fila;
+    }
+
+    private static int entero(String texto, String campo) {
+        if (texto == null) {
+            throw new IllegalArgumentException("Falta el campo " + campo);
+        }
+        try {
+            return Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(campo + " inválido: " + texto);
+        }
+    }
+
+    // ==================== CSV ====================
+
+    /**
+     * Posición de cada columna según el encabezado del archivo
+     */
+    private static final class Columnas {
+        private final int[] posiciones = new int[COLUMNAS.length];
+        private int cantidad;
+
+        /**
+         * Lee la primera línea del archivo
+         * @return Posición donde empiezan los datos
+         */
+        int leerEncabezado(byte[] bytes, int desde, int hasta) {
+            int fin = desde;
+            while (fin < hasta && bytes[fin] != '\n') {
+                fin++;
+            }
+            String encabezado = new String(bytes, desde, fin - desde, StandardCharsets.UTF_8).strip();
+            List<String> nombres = separarCsv(encabezado);
+
+            Arrays.fill(posiciones, -1);
+            cantidad = nombres.size();
+            for (int i = 0; i < nombres.size(); i++) {
+                String nombre = Normalizador_texto.normalizar(nombres.get(i));
+                for (int c = 0; c < COLUMNAS.length; c++) {
+                    if (COLUMNAS[c].equals(nombre) && posiciones[c] < 0) {
+                        posiciones[c] = i;
+                    }
+                }
+            }
+            for (int c = 0; c < OBLIGATORIAS; c++) {
+                if (posiciones[c] < 0) {
+                    throw new IllegalArgumentException("falta la columna " + COLUMNAS[c] + " en el encabezado");
+                }
+            }
+            return Math.min(fin + 1, hasta);
+        }
+
+        Fila fila(String linea) {
+            List<String> campos = separarCsv(linea);
+            if (campos.size() != cantidad) {
+                throw new IllegalArgumentException("Se esperaban " + cantidad + " columnas y hay " + campos.size());
+            }
+            return validar(campo(campos, ID), campo(campos, NOMBRE), campo(campos, PRECIO),
+                    campo(campos, STOCK), campo(campos, CATEGORIA), lista(campo(campos, TALLAS)),
+                    lista(campo(campos, COLORES)), campo(campos, DISPONIBLE));
+        }
+
+        private String campo(List<String> campos, int columna) {
+            return (posiciones[columna] >= 0) ? campos.get(posiciones[columna]) : null;
+        }
+
+        private static List<String> lista(String valor) {
+            List<String> valores = new ArrayList<>();
+            if (valor != null) {
+                for (String parte : valor.split("\\|")) {
+                    if (!parte.isBlank()) {
+                        valores.add(parte.trim());
+                    }
+                }
+            }
+            return valores;
+        }
+    }
+
+    /**
+     * Separa una línea CSV en campos (las comillas dobles agrupan y "" es una comilla)
+     */
+    private static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    // ==================== JSONL ====================
+
+    private static Fila filaJson(String linea) {
+        Map<String, Object> objeto = new Lector_json(linea).objeto();
+        return validar(texto(objeto, ID), texto(objeto, NOMBRE), texto(objeto, PRECIO), texto(objeto, STOCK),
+                texto(objeto, CATEGORIA), listaJson(objeto, TALLAS), listaJson(objeto, COLORES),
+                texto(objeto, DISPONIBLE));
+    }
+
+    private static String texto(Map<String, Object> objeto, int columna) {
+        Object valor = objeto.get(COLUMNAS[columna]);
+        if (valor instanceof List) {
+            throw new IllegalArgumentException("El campo " + COLUMNAS[columna] + " no puede ser una lista");
+        }
+        return (valor != null) ? valor.toString() : null;
+    }
+
+    private static List<String> listaJson(Map<String, Object> objeto, int columna) {
+        Object valor = objeto.get(COLUMNAS[columna]);
+        List<String> valores = new ArrayList<>();
+        if (valor instanceof List) {
+            for (Object elemento : (List<?>) valor) {
+                valores.add(String.valueOf(elemento));
+            }
+        } else if (valor != null) {
+            throw new IllegalArgumentException("El campo " + COLUMNAS[columna] + " debe ser una lista");
+        }
+        return valores;
+    }
+
+    /**
+     * Lector de un objeto JSON plano: sus valores son textos, números, true/false/null
+     * o listas de esos valores (los números y literales se guardan como texto)
+     */
+    private static final class Lector_json {
+        private final String texto;
+        private int posicion;
+
+        Lector_json(String texto) {
+            this.texto = texto;
+            this.posicion = 0;
+        }
+
+        Map<String, Object> objeto() {
+            Map<String, Object> objeto = new HashMap<>();
+            esperar('{');
+            if (!siguiente('}')) {
+                do {
+                    String clave = cadena();
+                    esperar(':');
+                    objeto.put(Normalizador_texto.normalizar(clave), valor());
+                } while (siguiente(','));
+                esperar('}');
+            }
+            saltarEspacios();
+            if (posicion < texto.length()) {
+                throw new IllegalArgumentException("JSON inválido: texto después del objeto");
+            }
+            return objeto;
+        }
+
+        private Object valor() {
+            saltarEspacios();
+            if (posicion >= texto.length()) {
+                throw new IllegalArgumentException("JSON inválido: falta un valor");
+            }
+            char c = texto.charAt(posicion);
+            if (c == '"') {
+                return cadena();
+            }
+            if (c == '[') {
+                posicion++;
+                List<Object> lista = new ArrayList<>();
+                if (!siguiente(']')) {
+                    do {
+                        lista.add(valor());
+                    } while (siguiente(','));
+                    esperar(']');
+                }
+                return lista;
+            }
+            if (c == '{') {
+                throw new IllegalArgumentException("JSON inválido: no se admiten objetos anidados");
+            }
+
+            int inicio = posicion;
+            while (posicion < texto.length() && ",]} \t".indexOf(texto.charAt(posicion)) < 0) {
+                posicion++;
+            }
+            String literal = texto.substring(inicio, posicion);
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String cadena() {
+            esperar('"');
+            StringBuilder resultado = new StringBuilder();
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion++);
+                if (c == '"') {
+                    return resultado.toString();
+                }
+                if (c != '\\') {
+                    resultado.append(c);
+                    continue;
+                }
+                if (posicion >= texto.length()) {
+                    break;
+                }
+                char escape = texto.charAt(posicion++);
+                switch (escape) {
+                    case 'n': resultado.append('\n'); break;
+                    case 't': resultado.append('\t'); break;
+                    case 'r': resultado.append('\r'); break;
+                    case 'b': resultado.append('\b'); break;
+                    case 'f': resultado.append('\f'); break;
+                    case 'u':
+                        if (posicion + 4 > texto.length()) {
+                            throw new IllegalArgumentException("JSON inválido: escape \\u incompleto");
+                        }
+                        try {
+                            resultado.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("JSON inválido: escape \\u incorrecto");
+                        }
+                        posicion += 4;
+                        break;
+                    default: resultado.append(escape);
+                }
+            }
+            throw new IllegalArgumentException("JSON inválido: texto sin cerrar");
+        }
+
+        private boolean siguiente(char esperado) {
+            saltarEspacios();
+            if (posicion < texto.length() && texto.charAt(posicion) == esperado) {
+                posicion++;
+                return true;
+            }
+            return false;
+        }
+
+        private void esperar(char esperado) {
+            if (!siguiente(esperado)) {
+                throw new IllegalArgumentException("JSON inválido: se esperaba '" + esperado + "'");
+            }
+        }
+
+        private void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+    }
+
+    // ==================== JUNTAR RESULTADOS ====================
+
+    /**
+     * Campos validados de una fila (el producto se crea al juntar, en un solo hilo)
+     */
+    private static final class Fila {
+        private int id;
+        private String nombre;
+        private double precio;
+        private int stock;
+        private String categoria;
+        private List<String> tallas;
+        private List<String> colores;
+        private boolean disponible;
+    }
+
+    /**
+     * Resultado de un bloque: por cada línea, su fila o el motivo del rechazo
+     * (ambos null si la línea estaba en blanco)
+     */
+    private static final class Bloque {
+        private final List<Fila> filas = new ArrayList<>();
+        private final List<String> errores = new ArrayList<>();
+
+        void agregar(Fila fila, String error) {
+            filas.add(fila);
+            errores.add(error);
+        }
+    }
+
+    /**
+     * Junta los bloques en el orden del archivo: numera las líneas, descarta IDs
+     * repetidos o que ya están en el inventario y crea los productos aceptados
+     */
+    private final class Union {
+        private final Reporte_importacion reporte = new Reporte_importacion();
+        private final List<Producto> aceptados = new ArrayList<>();
+        private final Mapa_int_int lineas = new Mapa_int_int();    // Clave: id, Valor: línea donde apareció
+        private long lineaBase = 0;
+
+        void juntar(Bloque bloque) {
+            for (int i = 0; i < bloque.filas.size(); i++) {
+                long linea = lineaBase + i + 1;
+                Fila fila = bloque.filas.get(i);
+                String error = bloque.errores.get(i);
+                if (fila == null && error == null) {
+                    continue;
+                }
+
+                reporte.contarFila();
+                if (error != null) {
+                    reporte.rechazar(linea, error);
+                    continue;
+                }
+
+                int primera = lineas.obtener(fila.id, -1);
+                if (primera >= 0) {
+                    reporte.rechazar(linea, "ID " + fila.id + " repetido (ya aparece en la línea " + primera + ")");
+                } else if (inventario.existeProducto(fila.id)) {
+                    reporte.rechazar(linea, "El producto con ID " + fila.id + " ya existe en el inventario");
+                } else {
+                    lineas.poner(fila.id, (int) linea);
+                    aceptados.add(new Producto(fila.id, fila.nombre, fila.precio, fila.stock, fila.categoria,
+                            fila.tallas, fila.colores, fila.disponible));
+                }
+            }
+            lineaBase += bloque.filas.size();
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static int ultimoSalto(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int saltarMarcaBom(byte[] bytes) {
+        boolean bom = bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF
+                && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF;
+        return bom ? 3 : 0;
+    }
+}
@@ -0,0 +1,197 @@
+package inventario;
+
+import estructuras.Mapa_int_int;
+import producto.Producto;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Índice de productos por nivel de stock, para listar el stock bajo o agotado sin
+ * recorrer el inventario
+ * Cada stock de 0 a CUBETAS_EXACTAS - 1 tiene su cubeta y los mayores comparten la última.
+ * Las cubetas son listas doblemente enlazadas guardadas en arreglos primitivos, así que
+ * mover un producto de cubeta cuando cambia su stock (en cada reserva de un carrito)
+ * es O(1), y listar los productos con stock entre dos valores es O(cubetas recorridas + k)
+ */
+public final class Indice_stock implements Oyente_inventario {
+    private static final int CUBETAS_EXACTAS = 1024;
+    private static final int SIN_POSICION = -1;
+
+    private final Mapa_int_int posiciones;    // Clave: id_producto, Valor: posición en los arreglos
+    private int[] ids;
+    private int[] stocks;
+    private int[] siguientes;                 // Siguiente posición en la misma cubeta (o en la lista de libres)
+    private int[] anteriores;
+    private final int[] primeros;             // Primera posición de cada cubeta
+    private int libre;                        // Primera posición libre
+    private int usadas;
+
+    /**
+     * Constructor que indexa el inventario actual
+     * @param productos Mapa de productos del inventario
+     */
+    public Indice_stock(Map<Integer, Producto> productos) {
+        this.posiciones = new Mapa_int_int();
+        this.ids = new int[16];
+        this.stocks = new int[16];
+        this.siguientes = new int[16];
+        this.anteriores = new int[16];
+        this.primeros = new int[CUBETAS_EXACTAS + 1];
+        Arrays.fill(primeros, SIN_POSICION);
+        this.libre = SIN_POSICION;
+        this.usadas = 0;
+
+        for (Producto producto : productos.values()) {
+            actualizar(producto.getIdProducto(), producto.getStock());
+        }
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Agrega un producto o lo mueve a la cubeta de su stock actual
+     * @param idProducto ID del producto
+     * @param stock Stock actual
+     */
+    public synchronized void actualizar(int idProducto, int stock) {
+        int posicion = posiciones.obtener(idProducto, SIN_POSICION);
+        if (posicion == SIN_POSICION) {
+            posicion = nuevaPosicion();
+            ids[posicion] = idProducto;
+            posiciones.poner(idProducto, posicion);
+        } else if (cubeta(stocks[posicion]) == cubeta(stock)) {
+            stocks[posicion] = stock;
+            return;
+        } else {
+            desenlazar(posicion);
+        }
+
+        stocks[posicion] = stock;
+        enlazar(posicion);
+    }
+
+    /**
+     * Quita un producto del índice
+     * @param idProducto ID del producto
+     */
+    public synchronized void eliminar(int idProducto) {
+        int posicion = posiciones.obtener(idProducto, SIN_POSICION);
+        if (posicion == SIN_POSICION) {
+            return;
+        }
+
+        desenlazar(posicion);
+        posiciones.eliminar(idProducto);
+        siguientes[posicion] = libre;
+        libre = posicion;
+    }
+
+    @Override
+    public void productoAgregado(Producto producto) {
+        actualizar(producto.getIdProducto(), producto.getStock());
+    }
+
+    @Override
+    public void productoEliminado(Producto producto) {
+        eliminar(producto.getIdProducto());
+    }
+
+    @Override
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        actualizar(producto.getIdProducto(), producto.getStock());
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * IDs de los productos con stock entre mínimo y máximo (inclusive)
+     * @param minimo Stock mínimo
+     * @param maximo Stock máximo
+     * @return IDs ordenados de menor a mayor stock (en empate, por ID)
+     */
+    public synchronized int[] idsConStockEntre(int minimo, int maximo) {
+        if (minimo > maximo) {
+            return new int[0];
+        }
+
+        long[] pares = new long[16];    // Stock en los 32 bits altos e ID en los bajos
+        int cantidad = 0;
+        for (int c = cubeta(Math.max(0, minimo)); c <= cubeta(maximo); c++) {
+            for (int p = primeros[c]; p != SIN_POSICION; p = siguientes[p]) {
+                if (stocks[p] < minimo || stocks[p] > maximo) {
+                    continue;    // Solo pasa en la última cubeta (o con stocks negativos)
+                }
+                if (cantidad == pares.length) {
+                    pares = Arrays.copyOf(pares, cantidad * 2);
+                }
+                pares[cantidad++] = ((long) stocks[p] << 32) | (ids[p] & 0xFFFFFFFFL);
+            }
+        }
+
+        Arrays.sort(pares, 0, cantidad);
+        int[] resultado = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            resultado[i] = (int) pares[i];
+        }
+        return resultado;
+    }
+
+    /**
+     * IDs de los productos sin stock
+     * @return IDs ordenados
+     */
+    public int[] idsSinStock() {
+        return idsConStockEntre(0, 0);
+    }
+
+    public synchronized int tamano() {
+        return posiciones.tamano();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static int cubeta(int stock) {
+        return Math.max(0, Math.min(stock, CUBETAS_EXACTAS));
+    }
+
+    private int nuevaPosicion() {
+        if (libre != SIN_POSICION) {
+            int posicion = libre;
+            libre = siguientes[posicion];
+            return posicion;
+        }
+
+        if (usadas == ids.length) {
+            int capacidad = usadas * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            stocks = Arrays.copyOf(stocks, capacidad);
+            siguientes = Arrays.copyOf(siguientes, capacidad);
+            anteriores = Arrays.copyOf(anteriores, capacidad);
+        }
+        return usadas++;
+    }
+
+    private void enlazar(int posicion) {
+        int c = cubeta(stocks[posicion]);
+        anteriores[posicion] = SIN_POSICION;
+        siguientes[posicion] = primeros[c];
+        if (primeros[c] != SIN_POSICION) {
+            anteriores[primeros[c]] = posicion;
+        }
+        primeros[c] = posicion;
+    }
+
+    private void desenlazar(int posicion) {
+        int anterior = anteriores[posicion];
+        int siguiente = siguientes[posicion];
+        if (anterior != SIN_POSICION) {
+            siguientes[anterior] = siguiente;
+        } else {
+            primeros[cubeta(stocks[posicion])] = siguiente;
+        }
+        if (siguiente != SIN_POSICION) {
+            anteriores[siguiente] = anterior;
+        }
+    }
+}
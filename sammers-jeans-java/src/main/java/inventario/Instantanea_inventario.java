@@ -0,0 +1,366 @@
+package inventario;
+
+import producto.Producto;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantánea binaria del inventario: una copia compacta de todos los productos para
+ * no empezar desde los productos predefinidos y reproducir toda la bitácora
+ * El archivo se mapea en memoria: cada producto es una fila de tamaño fijo (ordenadas
+ * por ID, así que se encuentran con búsqueda binaria) y los nombres, categorías, tallas
+ * y colores son referencias a una tabla de textos sin repetir, que se decodifican recién
+ * la primera vez que se piden. Cargar el inventario (Gestion_inventario.cargarInstantanea)
+ * arma igual un Producto por fila, así que el arranque sigue siendo proporcional al catálogo
+ *
+ * El mapeo pertenece a un Arena y se libera al llamar a cerrar(), no cuando pase el
+ * recolector: así guardar() puede reemplazar el archivo apenas se terminó de cargar
+ * (en Windows no se puede reemplazar un archivo que sigue mapeado)
+ *
+ * Formato (enteros de 4 bytes, big endian):
+ *   Encabezado: magia, versión, productos, textos, posición de enteros, posición de textos, largo
+ *   Filas:      id, nombre, precio (8 bytes), stock, categoría, tallas, colores, primer entero, marcas
+ *   Enteros:    por producto, sus tallas y colores (índices de texto) y, si lleva stock por
+ *               variante, las unidades de cada talla y color
+ *   Textos:     posición de cada texto (uno más que la cantidad) y sus bytes en UTF-8
+ */
+public class Instantanea_inventario {
+    private static final int MAGIA = 0x534A494E;    // "SJIN"
+    private static final int VERSION = 1;
+    private static final int ENCABEZADO = 28;
+    private static final int FILA = 40;
+    private static final int DISPONIBLE = 1;        // Marcas de cada fila
+    private static final int VARIANTES = 2;
+    private static final ValueLayout.OfInt ENTERO = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DECIMAL = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment datos;
+    private final int cantidad;
+    private final int cantidadTextos;
+    private final int posicionEnteros;
+    private final int posicionTextos;
+    private final String[] textos;    // Decodificados a medida que se piden
+
+    private Instantanea_inventario(Arena arena, MemorySegment datos) {
+        this.arena = arena;
+        this.datos = datos;
+        this.cantidad = datos.get(ENTERO, 8);
+        this.cantidadTextos = datos.get(ENTERO, 12);
+        this.posicionEnteros = datos.get(ENTERO, 16);
+        this.posicionTextos = datos.get(ENTERO, 20);
+        this.textos = new String[cantidadTextos];
+    }
+
+    // ==================== ABRIR ====================
+
+    /**
+     * Mapea una instantánea en memoria, verificando solo el encabezado
+     * Hay que llamar a cerrar() al terminar de leerla
+     * @param ruta Archivo de la instantánea
+     * @return Instantánea, o null si no existe o no es válida
+     */
+    public static Instantanea_inventario abrir(Path ruta) {
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+
+        Arena arena = Arena.ofShared();
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long largo = canal.size();
+            if (largo < ENCABEZADO || largo > Integer.MAX_VALUE) {
+                System.out.println("La instantánea del inventario no es válida.");
+                arena.close();
+                return null;
+            }
+
+            MemorySegment datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, largo, arena);
+            if (datos.get(ENTERO, 0) != MAGIA || datos.get(ENTERO, 4) != VERSION || datos.get(ENTERO, 24) != largo) {
+                System.out.println("La instantánea del inventario no es válida o está incompleta.");
+                arena.close();
+                return null;
+            }
+            return new Instantanea_inventario(arena, datos);
+        } catch (IOException e) {
+            System.out.println("Error al abrir la instantánea del inventario: " + e.getMessage());
+            arena.close();
+            return null;
+        }
+    }
+
+    /**
+     * Libera el mapeo del archivo; después de cerrarla la instantánea ya no se puede leer
+     * (los productos creados con leerProducto siguen valiendo)
+     */
+    public void cerrar() {
+        arena.close();
+    }
+
+    // ==================== CONSULTAR SIN CREAR PRODUCTOS ====================
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Busca la fila de un producto (búsqueda binaria sobre las filas mapeadas)
+     * @param idProducto ID del producto
+     * @return Posición de la fila, o -1 si no está
+     */
+    public int buscarPosicion(int idProducto) {
+        int desde = 0;
+        int hasta = cantidad - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int id = getIdProducto(medio);
+            if (id < idProducto) {
+                desde = medio + 1;
+            } else if (id > idProducto) {
+                hasta = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    public int getIdProducto(int posicion) {
+        return datos.get(ENTERO, fila(posicion));
+    }
+
+    public String getNombre(int posicion) {
+        return texto(datos.get(ENTERO, fila(posicion) + 4));
+    }
+
+    public double getPrecio(int posicion) {
+        return datos.get(DECIMAL, fila(posicion) + 8);
+    }
+
+    public int getStock(int posicion) {
+        return datos.get(ENTERO, fila(posicion) + 16);
+    }
+
+    // ==================== CREAR PRODUCTOS ====================
+
+    /**
+     * Crea el producto de una fila (con su stock por variante, si lo tenía)
+     * @param posicion Posición de la fila
+     * @return Producto nuevo, sin oyente
+     */
+    public Producto leerProducto(int posicion) {
+        int inicio = fila(posicion);
+        int cantidadTallas = datos.get(ENTERO, inicio + 24);
+        int cantidadColores = datos.get(ENTERO, inicio + 28);
+        int entero = datos.get(ENTERO, inicio + 32);
+        int marcas = datos.get(ENTERO, inicio + 36);
+
+        List<String> tallas = leerTextos(entero, cantidadTallas);
+        entero += cantidadTallas;
+        List<String> colores = leerTextos(entero, cantidadColores);
+        entero += cantidadColores;
+
+        Producto producto = new Producto(
+                datos.get(ENTERO, inicio),
+                texto(datos.get(ENTERO, inicio + 4)),
+                datos.get(DECIMAL, inicio + 8),
+                datos.get(ENTERO, inicio + 16),
+                texto(datos.get(ENTERO, inicio + 20)),
+                tallas,
+                colores,
+                (marcas & DISPONIBLE) != 0);
+
+        if ((marcas & VARIANTES) != 0) {
+            for (String talla : tallas) {
+                for (String color : colores) {
+                    producto.setStockVariante(talla, color, leerEntero(entero++));
+                }
+            }
+            producto.setDisponible((marcas & DISPONIBLE) != 0);
+        }
+        return producto;
+    }
+
+    // ==================== GUARDAR ====================
+
+    /**
+     * Escribe una instantánea de los productos: primero en un archivo temporal y
+     * después lo reemplaza de una vez, así nunca queda una instantánea a medias
+     * @param ruta Archivo de la instantánea
+     * @param productos Productos a guardar
+     * @return true si se guardó
+     */
+    public static boolean guardar(Path ruta, Collection<Producto> productos) {
+        List<Producto> ordenados = new ArrayList<>(productos);
+        ordenados.sort(Comparator.comparingInt(Producto::getIdProducto));
+
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> textos = new ArrayList<>();
+        int[] filas = new int[ordenados.size() * (FILA / 4)];    // Las filas como enteros (el precio aparte)
+        double[] precios = new double[ordenados.size()];
+        int[] enteros = new int[16];
+        int cantidadEnteros = 0;
+
+        for (int i = 0; i < ordenados.size(); i++) {
+            Producto producto = ordenados.get(i);
+            List<String> tallas = producto.getTallas();
+            List<String> colores = producto.getColores();
+            boolean variantes = producto.tieneVariantes();
+
+            int necesarios = cantidadEnteros + tallas.size() + colores.size()
+                    + (variantes ? tallas.size() * colores.size() : 0);
+            if (necesarios > enteros.length) {
+                enteros = Arrays.copyOf(enteros, Math.max(necesarios, enteros.length * 2));
+            }
+
+            int base = i * (FILA / 4);
+            filas[base] = producto.getIdProducto();
+            filas[base + 1] = indiceTexto(producto.getNombre(), indices, textos);
+            precios[i] = producto.getPrecio();
+            filas[base + 4] = producto.getStock();
+            filas[base + 5] = indiceTexto(producto.getCategoria(), indices, textos);
+            filas[base + 6] = tallas.size();
+            filas[base + 7] = colores.size();
+            filas[base + 8] = cantidadEnteros;
+            filas[base + 9] = (producto.isDisponible() ? DISPONIBLE : 0) | (variantes ? VARIANTES : 0);
+
+            for (String talla : tallas) {
+                enteros[cantidadEnteros++] = indiceTexto(talla, indices, textos);
+            }
+            for (String color : colores) {
+                enteros[cantidadEnteros++] = indiceTexto(color, indices, textos);
+            }
+            if (variantes) {
+                for (String talla : tallas) {
+                    for (String color : colores) {
+                        enteros[cantidadEnteros++] = producto.getStockVariante(talla, color);
+                    }
+                }
+            }
+        }
+
+        byte[][] bytesTextos = new byte[textos.size()][];
+        int largoTextos = 0;
+        for (int i = 0; i < textos.size(); i++) {
+            bytesTextos[i] = textos.get(i).getBytes(StandardCharsets.UTF_8);
+            largoTextos += bytesTextos[i].length;
+        }
+
+        int posicionEnteros = ENCABEZADO + ordenados.size() * FILA;
+        int posicionTextos = posicionEnteros + cantidadEnteros * 4;
+        long largo = (long) posicionTextos + (textos.size() + 1) * 4L + largoTextos;
+        if (largo > Integer.MAX_VALUE) {
+            System.out.println("El inventario es demasiado grande para una instantánea.");
+            return false;
+        }
+
+        ByteBuffer salida = ByteBuffer.allocate((int) largo);
+        salida.putInt(MAGIA).putInt(VERSION).putInt(ordenados.size()).putInt(textos.size())
+                .putInt(posicionEnteros).putInt(posicionTextos).putInt((int) largo);
+        for (int i = 0; i < ordenados.size(); i++) {
+            int base = i * (FILA / 4);
+            salida.putInt(filas[base]).putInt(filas[base + 1]).putDouble(precios[i]);
+            for (int j = 4; j < FILA / 4; j++) {
+                salida.putInt(filas[base + j]);
+            }
+        }
+        for (int i = 0; i < cantidadEnteros; i++) {
+            salida.putInt(enteros[i]);
+        }
+        int posicion = 0;
+        for (byte[] texto : bytesTextos) {
+            salida.putInt(posicion);
+            posicion += texto.length;
+        }
+        salida.putInt(posicion);
+        for (byte[] texto : bytesTextos) {
+            salida.put(texto);
+        }
+        salida.flip();
+
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (salida.hasRemaining()) {
+                canal.write(salida);
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            System.out.println("Error al guardar la instantánea del inventario: " + e.getMessage());
+            return false;
+        }
+
+        try {
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error al reemplazar la instantánea del inventario: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private int fila(int posicion) {
+        if (posicion < 0 || posicion >= cantidad) {
+            throw new IndexOutOfBoundsException("Fila " + posicion + " de " + cantidad);
+        }
+        return ENCABEZADO + posicion * FILA;
+    }
+
+    private int leerEntero(int indice) {
+        return datos.get(ENTERO, posicionEnteros + indice * 4L);
+    }
+
+    private List<String> leerTextos(int primero, int cantidadTextos) {
+        List<String> resultado = new ArrayList<>(cantidadTextos);
+        for (int i = 0; i < cantidadTextos; i++) {
+            resultado.add(texto(leerEntero(primero + i)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Decodifica un texto la primera vez que se pide (los siguientes pedidos lo reutilizan)
+     */
+    private String texto(int indice) {
+        String texto = textos[indice];
+        if (texto == null) {
+            int inicioBytes = posicionTextos + (cantidadTextos + 1) * 4;
+            int desde = datos.get(ENTERO, posicionTextos + indice * 4L);
+            int hasta = datos.get(ENTERO, posicionTextos + (indice + 1) * 4L);
+            byte[] bytes = new byte[hasta - desde];
+            MemorySegment.copy(datos, ValueLayout.JAVA_BYTE, (long) inicioBytes + desde, bytes, 0, bytes.length);
+            texto = new String(bytes, StandardCharsets.UTF_8);
+            textos[indice] = texto;
+        }
+        return texto;
+    }
+
+    private static int indiceTexto(String texto, Map<String, Integer> indices, List<String> textos) {
+        Integer indice = indices.get(texto);
+        if (indice == null) {
+            indice = textos.size();
+            indices.put(texto, indice);
+            textos.add(texto);
+        }
+        return indice;
+    }
+}
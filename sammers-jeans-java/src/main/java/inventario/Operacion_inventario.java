@@ -0,0 +1,81 @@
+package inventario;
+
+/**
+ * Una operación de un lote de cambios del inventario (ver Gestion_inventario.aplicarLote):
+ * sumar o restar stock, fijar el stock o cambiar el precio de un producto
+ */
+public class Operacion_inventario {
+    public static final int DIFERENCIA_STOCK = 1;
+    public static final int FIJAR_STOCK = 2;
+    public static final int PRECIO = 3;
+
+    private final int idProducto;
+    private final int tipo;
+    private final double valor;
+
+    private Operacion_inventario(int idProducto, int tipo, double valor) {
+        this.idProducto = idProducto;
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+
+    /**
+     * Suma (o resta, si es negativa) unidades al stock
+     * @param idProducto ID del producto
+     * @param diferencia Unidades a sumar
+     * @return Operación
+     */
+    public static Operacion_inventario diferenciaStock(int idProducto, int diferencia) {
+        return new Operacion_inventario(idProducto, DIFERENCIA_STOCK, diferencia);
+    }
+
+    /**
+     * Fija el stock (las diferencias posteriores del mismo lote se suman a este valor)
+     * @param idProducto ID del producto
+     * @param stock Stock nuevo
+     * @return Operación
+     */
+    public static Operacion_inventario fijarStock(int idProducto, int stock) {
+        return new Operacion_inventario(idProducto, FIJAR_STOCK, stock);
+    }
+
+    /**
+     * Cambia el precio
+     * @param idProducto ID del producto
+     * @param precio Precio nuevo
+     * @return Operación
+     */
+    public static Operacion_inventario precio(int idProducto, double precio) {
+        return new Operacion_inventario(idProducto, PRECIO, precio);
+    }
+
+    // ==================== GETTERS ====================
+
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public int getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Unidades (para operaciones de stock) o precio
+     * @return Valor de la operación
+     */
+    public double getValor() {
+        return valor;
+    }
+
+    @Override
+    public String toString() {
+        switch (tipo) {
+            case DIFERENCIA_STOCK:
+                return "Producto " + idProducto + ": stock " + ((valor >= 0) ? "+" : "") + (int) valor;
+            case FIJAR_STOCK:
+                return "Producto " + idProducto + ": stock = " + (int) valor;
+            default:
+                return String.format("Producto %d: precio $%.2f", idProducto, valor);
+        }
+    }
+}
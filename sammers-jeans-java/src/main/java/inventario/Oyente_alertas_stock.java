@@ -0,0 +1,20 @@
+package inventario;
+
+import producto.Producto;
+
+/**
+ * Interfaz para quienes deben enterarse cuando un producto llega a su punto de reorden
+ * (por ejemplo para avisar al administrador o pedir más unidades al proveedor)
+ * Los avisos llegan desde el hilo de alertas, nunca desde el hilo que hizo la compra
+ */
+public interface Oyente_alertas_stock {
+
+    /**
+     * Se llama cuando el stock de un producto baja hasta su punto de reorden o menos
+     * (una vez por cada vez que lo cruza; se vuelve a avisar si se repone y vuelve a bajar)
+     * @param producto Producto con stock bajo
+     * @param stock Stock en el momento de cruzar el punto
+     * @param puntoReorden Punto de reorden del producto
+     */
+    void stockBajo(Producto producto, int stock, int puntoReorden);
+}
@@ -0,0 +1,72 @@
+package inventario;
+
+import producto.Producto;
+
+/**
+ * Interfaz para los componentes que deben enterarse de los cambios del inventario
+ * (índices del catálogo, estadísticas, etc.)
+ * Todos los métodos tienen implementación vacía para implementar solo los necesarios
+ */
+public interface Oyente_inventario {
+
+    /**
+     * Se llama después de agregar un producto al inventario
+     * @param producto Producto agregado
+     */
+    default void productoAgregado(Producto producto) {
+    }
+
+    /**
+     * Se llama después de eliminar un producto del inventario
+     * @param producto Producto eliminado
+     */
+    default void productoEliminado(Producto producto) {
+    }
+
+    /**
+     * Se llama después de un cambio de stock o disponibilidad de un producto del inventario
+     * @param producto Producto modificado
+     * @param stockAnterior Stock antes del cambio
+     */
+    default void stockCambiado(Producto producto, int stockAnterior) {
+    }
+
+    /**
+     * Se llama después de un cambio de precio de un producto del inventario
+     * @param producto Producto modificado
+     * @param precioAnterior Precio antes del cambio
+     */
+    default void precioCambiado(Producto producto, double precioAnterior) {
+    }
+
+    /**
+     * Se llama después de un cambio de nombre de un producto del inventario
+     * @param producto Producto modificado
+     * @param nombreAnterior Nombre antes del cambio
+     */
+    default void nombreCambiado(Producto producto, String nombreAnterior) {
+    }
+
+    /**
+     * Se llama después de un cambio de categoría de un producto del inventario
+     * @param producto Producto modificado
+     * @param codigoAnterior Código de la categoría anterior en Diccionario_categorias
+     */
+    default void categoriaCambiada(Producto producto, int codigoAnterior) {
+    }
+
+    /**
+     * Se llama después de agregar una reseña a un producto del inventario
+     * @param producto Producto reseñado
+     * @param calificacion Calificación de la nueva reseña
+     */
+    default void resenaAgregada(Producto producto, int calificacion) {
+    }
+
+    /**
+     * Se llama cuando termina un lote de cambios del inventario (una operación
+     * sola fuera de un lote cuenta como un lote de un cambio)
+     */
+    default void loteTerminado() {
+    }
+}
@@ -0,0 +1,135 @@
+package inventario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de productos: cuántas filas se leyeron,
+ * cuántos productos entraron al inventario y por qué se rechazó cada fila rechazada
+ */
+public class Reporte_importacion {
+    private static final int RECHAZOS_MOSTRADOS = 20;
+
+    private int filasLeidas;
+    private int importados;
+    private List<Rechazo> rechazos;
+    private long milisegundos;
+    private boolean guardado;      // false si la bitácora no pudo escribir los productos importados
+
+    /**
+     * Constructor de un reporte vacío
+     */
+    public Reporte_importacion() {
+        this.filasLeidas = 0;
+        this.importados = 0;
+        this.rechazos = new ArrayList<>();
+        this.milisegundos = 0;
+        this.guardado = true;
+    }
+
+    // ==================== REGISTRAR ====================
+
+    public void contarFila() {
+        filasLeidas++;
+    }
+
+    public void contarImportados(int cantidad) {
+        importados += cantidad;
+    }
+
+    public void marcarNoGuardado() {
+        guardado = false;
+    }
+
+    /**
+     * Anota una fila rechazada
+     * @param linea Número de línea en el archivo (la primera es 1)
+     * @param motivo Motivo del rechazo
+     */
+    public void rechazar(long linea, String motivo) {
+        rechazos.add(new Rechazo(linea, motivo));
+    }
+
+    // ==================== MOSTRAR ====================
+
+    /**
+     * Muestra el resumen y las primeras filas rechazadas
+     */
+    public void mostrar() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("REPORTE DE IMPORTACIÓN");
+        System.out.println("=".repeat(80));
+        System.out.println("Filas leídas: " + filasLeidas);
+        System.out.println("Productos importados: " + importados);
+        System.out.println("Filas rechazadas: " + rechazos.size());
+        System.out.println("Tiempo: " + milisegundos + " ms");
+        if (!guardado) {
+            System.out.println("Atención: los productos importados no quedaron guardados en la bitácora.");
+        }
+
+        if (!rechazos.isEmpty()) {
+            System.out.println("-".repeat(80));
+            System.out.printf("%-10s %-60s%n", "LÍNEA", "MOTIVO");
+            for (int i = 0; i < Math.min(RECHAZOS_MOSTRADOS, rechazos.size()); i++) {
+                Rechazo rechazo = rechazos.get(i);
+                System.out.printf("%-10d %-60s%n", rechazo.getLinea(), rechazo.getMotivo());
+            }
+            if (rechazos.size() > RECHAZOS_MOSTRADOS) {
+                System.out.println("... y " + (rechazos.size() - RECHAZOS_MOSTRADOS) + " más.");
+            }
+        }
+        System.out.println("=".repeat(80));
+    }
+
+    // ==================== GETTERS Y SETTERS ====================
+
+    public int getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public int getImportados() {
+        return importados;
+    }
+
+    public List<Rechazo> getRechazos() {
+        return rechazos;
+    }
+
+    public boolean isGuardado() {
+        return guardado;
+    }
+
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    public void setMilisegundos(long milisegundos) {
+        this.milisegundos = milisegundos;
+    }
+
+    /**
+     * Fila rechazada y su motivo
+     */
+    public static class Rechazo {
+        private final long linea;
+        private final String motivo;
+
+        public Rechazo(long linea, String motivo) {
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+
+        public long getLinea() {
+            return linea;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + ": " + motivo;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package inventario;
+
+import estructuras.Mapa_int_int;
+import estructuras.Mapa_int_long;
+import producto.Producto;
+
+import java.util.Map;
+
+/**
+ * Totales del inventario (unidades y valor) mantenidos con cada cambio, para leerlos en O(1)
+ * Se actualizan con los avisos de stock y precio, que llegan por todos los caminos
+ * (carritos, pedidos cancelados, lotes, setters) y de a uno, con el candado del inventario
+ * El valor se lleva en centavos con enteros, así que no acumula errores de redondeo
+ * por muchas sumas y restas. Cada producto guarda el stock y el precio con que está contado:
+ * así un cambio de precio que llega antes que el aviso de un cambio de stock ya hecho
+ * no mezcla el precio nuevo con un stock que todavía no se contó
+ * Los productos con stock repartido avisan cada algunas unidades: Gestion_inventario
+ * publica lo que tengan pendiente antes de devolver los totales
+ */
+public final class Totales_inventario implements Oyente_inventario {
+    private final Mapa_int_int stocks;             // Clave: id_producto, Valor: stock contado
+    private final Mapa_int_long centavos;          // Clave: id_producto, Valor: precio contado en centavos
+    private volatile long unidades;
+    private volatile long valorCentavos;
+
+    /**
+     * Constructor que suma el inventario actual
+     * @param productos Mapa de productos del inventario
+     */
+    public Totales_inventario(Map<Integer, Producto> productos) {
+        this.stocks = new Mapa_int_int();
+        this.centavos = new Mapa_int_long();
+        this.unidades = 0;
+        this.valorCentavos = 0;
+
+        for (Producto producto : productos.values()) {
+            productoAgregado(producto);
+        }
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Unidades en stock de todo el inventario
+     * @return Suma de los stocks
+     */
+    public long getUnidades() {
+        return unidades;
+    }
+
+    /**
+     * Valor del inventario (precio por stock de cada producto)
+     * @return Valor total
+     */
+    public double getValor() {
+        return valorCentavos / 100.0;
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    @Override
+    public synchronized void productoAgregado(Producto producto) {
+        int id = producto.getIdProducto();
+        if (stocks.contiene(id)) {
+            productoEliminado(producto);
+        }
+
+        int stock = producto.getStock();
+        long precio = aCentavos(producto.getPrecio());
+        stocks.poner(id, stock);
+        centavos.poner(id, precio);
+        unidades += stock;
+        valorCentavos += precio * stock;
+    }
+
+    @Override
+    public synchronized void productoEliminado(Producto producto) {
+        int id = producto.getIdProducto();
+        if (!stocks.contiene(id)) {
+            return;
+        }
+
+        int stock = stocks.obtener(id, 0);
+        unidades -= stock;
+        valorCentavos -= centavos.obtener(id, 0) * stock;
+        stocks.eliminar(id);
+        centavos.eliminar(id);
+    }
+
+    @Override
+    public synchronized void stockCambiado(Producto producto, int stockAnterior) {
+        int id = producto.getIdProducto();
+        if (!stocks.contiene(id)) {
+            return;
+        }
+
+        int stock = producto.getStock();
+        int diferencia = stock - stocks.obtener(id, 0);
+        stocks.poner(id, stock);
+        unidades += diferencia;
+        valorCentavos += centavos.obtener(id, 0) * diferencia;
+    }
+
+    @Override
+    public synchronized void precioCambiado(Producto producto, double precioAnterior) {
+        int id = producto.getIdProducto();
+        if (!stocks.contiene(id)) {
+            return;
+        }
+
+        long precio = aCentavos(producto.getPrecio());
+        long diferencia = precio - centavos.obtener(id, 0);
+        centavos.poner(id, precio);
+        valorCentavos += diferencia * stocks.obtener(id, 0);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static long aCentavos(double precio) {
+        return Math.round(precio * 100);
+    }
+}
@@ -4,14 +4,20 @@ import usuarios.Usuario;
 import usuarios.Gestion_usuarios;
 import producto.Producto;
 import catalogo.Catalogo;
+import catalogo.Instantanea_catalogo;
+import catalogo.Pagina;
+import catalogo.Producto_publicado;
+import catalogo.Vista_catalogo;
 import carrito.Carrito;
 import carrito.Item_carrito;
 import pedidos.Pedido;
 import pedidos.Gestion_pedidos;
 import inventario.Gestion_inventario;
+import inventario.Operacion_inventario;
 import pagos.Pago;
 import pagos.Gestion_pagos;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +32,7 @@ public class Menu {
     private Gestion_usuarios gestionUsuarios;
     private Gestion_inventario gestionInventario;
     private Catalogo catalogo;
+    private Vista_catalogo vistaCatalogo;
     private Gestion_pedidos gestionPedidos;
     private Gestion_pagos gestionPagos;
     private Usuario usuarioActual;
@@ -34,7 +41,13 @@ public class Menu {
         this.scanner = new Scanner(System.in);
         this.gestionUsuarios = new Gestion_usuarios();
         this.gestionInventario = new Gestion_inventario();
-        this.catalogo = new Catalogo(gestionInventario.getInventario());
+        this.gestionInventario.cargarInstantanea("inventario.instantanea");
+        this.gestionInventario.activarBitacora("inventario.bitacora");
+        this.gestionInventario.agregarOyenteAlertas((producto, stock, punto) ->
+                System.out.println("\n[ALERTA] Stock bajo de " + producto.getNombre() + " (ID " +
+                        producto.getIdProducto() + "): quedan " + stock + " unidades."));
+        this.catalogo = new Catalogo(gestionInventario);
+        this.vistaCatalogo = new Vista_catalogo();
         this.gestionPedidos = new Gestion_pedidos();
         this.gestionPagos = new Gestion_pagos();
         this.usuarioActual = null;
@@ -68,6 +81,8 @@ public class Menu {
                         break;
                     case 3:
                         System.out.println("Saliendo del sistema. Hasta luego!");
+                        gestionInventario.guardarInstantanea();
+                        gestionInventario.cerrar();
                         salir = true;
                         break;
                     default:
@@ -127,7 +142,8 @@ public class Menu {
             System.out.println("4. Ver estadísticas de pagos");
             System.out.println("5. Listar usuarios");
             System.out.println("6. Ver productos con stock bajo");
-            System.out.println("7. Cerrar sesión");
+            System.out.println("7. Ver estadísticas del caché del catálogo");
+            System.out.println("8. Cerrar sesión");
             System.out.println("=".repeat(60));
             System.out.print("Seleccione una opción: ");
 
@@ -155,6 +171,9 @@ public class Menu {
                         gestionInventario.mostrarStockBajo(10);
                         break;
                     case 7:
+                        vistaCatalogo.mostrarEstadisticasCache(catalogo.getCache());
+                        break;
+                    case 8:
                         System.out.println("Cerrando sesión de administrador...");
                         continuar = false;
                         break;
@@ -175,6 +194,12 @@ public class Menu {
         System.out.println("3. Actualizar stock");
         System.out.println("4. Actualizar precio");
         System.out.println("5. Eliminar producto");
+        System.out.println("6. Cambiar nombre");
+        System.out.println("7. Actualizar stock por talla y color");
+        System.out.println("8. Activar/desactivar stock de venta relámpago");
+        System.out.println("9. Importar productos desde archivo (CSV o JSONL)");
+        System.out.println("10. Actualizar stock y precios en lote");
+        System.out.println("11. Configurar punto de reorden");
         System.out.print("Seleccione una opción: ");
 
         try {
@@ -211,6 +236,51 @@ public class Menu {
                     scanner.nextLine();
                     gestionInventario.eliminarProducto(idEliminar);
                     break;
+                case 6:
+                    System.out.print("ID del producto: ");
+                    int idNombre = scanner.nextInt();
+                    scanner.nextLine();
+                    System.out.print("Nuevo nombre: ");
+                    String nuevoNombre = scanner.nextLine().trim();
+                    gestionInventario.actualizarNombre(idNombre, nuevoNombre);
+                    break;
+                case 7:
+                    System.out.print("ID del producto: ");
+                    int idVariante = scanner.nextInt();
+                    scanner.nextLine();
+                    System.out.print("Talla: ");
+                    String tallaVariante = scanner.nextLine().trim();
+                    System.out.print("Color: ");
+                    String colorVariante = scanner.nextLine().trim();
+                    System.out.print("Stock: ");
+                    int stockVariante = scanner.nextInt();
+                    scanner.nextLine();
+                    gestionInventario.actualizarStockVariante(idVariante, tallaVariante, colorVariante, stockVariante);
+                    break;
+                case 8:
+                    System.out.print("ID del producto: ");
+                    int idRepartido = scanner.nextInt();
+                    scanner.nextLine();
+                    Producto productoRepartido = gestionInventario.buscarPorId(idRepartido);
+                    boolean activar = productoRepartido == null || !productoRepartido.tieneStockRepartido();
+                    gestionInventario.cambiarStockRepartido(idRepartido, activar);
+                    break;
+                case 9:
+                    System.out.print("Ruta del archivo: ");
+                    String rutaImportacion = scanner.nextLine().trim();
+                    gestionInventario.importarProductos(rutaImportacion);
+                    break;
+                case 10:
+                    actualizarEnLote();
+                    break;
+                case 11:
+                    System.out.print("ID del producto: ");
+                    int idReorden = scanner.nextInt();
+                    System.out.print("Punto de reorden (negativo para desactivar): ");
+                    int puntoReorden = scanner.nextInt();
+                    scanner.nextLine();
+                    gestionInventario.configurarPuntoReorden(idReorden, puntoReorden);
+                    break;
                 default:
                     System.out.println("Opción no válida.");
             }
@@ -220,6 +290,52 @@ public class Menu {
         }
     }
 
+    /**
+     * Pide un cambio por línea (ID +unidades, ID -unidades, ID =stock o ID $precio)
+     * hasta una línea vacía y los aplica todos juntos
+     */
+    private void actualizarEnLote() {
+        System.out.println("Ingrese un cambio por línea y una línea vacía para terminar:");
+        System.out.println("  ID +unidades  |  ID -unidades  |  ID =stock  |  ID $precio");
+
+        List<Operacion_inventario> operaciones = new ArrayList<>();
+        String linea;
+        while (!(linea = scanner.nextLine().trim()).isEmpty()) {
+            String[] partes = linea.split("\\s+");
+            try {
+                if (partes.length != 2 || partes[1].length() < 2) {
+                    throw new NumberFormatException();
+                }
+                int id = Integer.parseInt(partes[0]);
+                String valor = partes[1].substring(1);
+                switch (partes[1].charAt(0)) {
+                    case '+':
+                        operaciones.add(Operacion_inventario.diferenciaStock(id, Integer.parseInt(valor)));
+                        break;
+                    case '-':
+                        operaciones.add(Operacion_inventario.diferenciaStock(id, -Integer.parseInt(valor)));
+                        break;
+                    case '=':
+                        operaciones.add(Operacion_inventario.fijarStock(id, Integer.parseInt(valor)));
+                        break;
+                    case '$':
+                        operaciones.add(Operacion_inventario.precio(id, Double.parseDouble(valor)));
+                        break;
+                    default:
+                        throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Línea ignorada (formato inválido): " + linea);
+            }
+        }
+
+        if (operaciones.isEmpty()) {
+            System.out.println("No se ingresaron cambios.");
+            return;
+        }
+        gestionInventario.aplicarLote(operaciones);
+    }
+
     private void cambiarEstadoPedido() {
         System.out.print("ID del pedido: ");
         try {
@@ -336,7 +452,9 @@ public class Menu {
             System.out.println("8. Ver mis pedidos");
             System.out.println("9. Actualizar mis datos");
             System.out.println("10. Ver reseñas de productos");
-            System.out.println("11. Salir");
+            System.out.println("11. Ver productos en tendencia");
+            System.out.println("12. Repetir un pedido anterior");
+            System.out.println("13. Salir");
             System.out.println("=".repeat(50));
             System.out.print("Seleccione una opción -> ");
 
@@ -344,7 +462,7 @@ public class Menu {
 
             switch (opcionCliente) {
                 case "1":
-                    catalogo.mostrarCatalogo();
+                    verCatalogoPaginado();
                     break;
                 case "2":
                     buscarProducto();
@@ -374,6 +492,13 @@ public class Menu {
                     verResenasProducto();
                     break;
                 case "11":
+                    vistaCatalogo.mostrarResultados("Productos en tendencia:", catalogo.obtenerTendencias(10),
+                            "Todavía no hay productos en tendencia.");
+                    break;
+                case "12":
+                    repetirPedido(carritoUsuario, correo);
+                    break;
+                case "13":
                     System.out.println("Cerrando sesión...");
                     continuar = false;
                     break;
@@ -385,10 +510,64 @@ public class Menu {
 
     // ==================== FUNCIONES CLIENTE ====================
 
+    private void verCatalogoPaginado() {
+        String cursor = null;
+
+        do {
+            Pagina pagina = catalogo.paginar(Producto_publicado::estaALaVenta, 10, cursor);
+            vistaCatalogo.mostrarPagina(pagina);
+            cursor = pagina.getCursorSiguiente();
+
+            if (cursor != null) {
+                System.out.print("¿Ver más productos? (si/no): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("si")) {
+                    cursor = null;
+                }
+            }
+        } while (cursor != null);
+    }
+
     private void buscarProducto() {
         System.out.print("Ingresa el nombre del producto a buscar: ");
-        String nombre = scanner.nextLine().trim();
-        catalogo.buscarPorNombre(nombre);
+        String nombre = elegirSugerencia(scanner.nextLine().trim());
+
+        // Las sugerencias también incluyen categorías
+        List<Producto_publicado> resultados = catalogo.buscarPorNombre(nombre);
+        if (resultados.isEmpty()) {
+            resultados = catalogo.buscarPorCategoria(nombre);
+        }
+        vistaCatalogo.mostrarResultados("Resultados de búsqueda:", resultados,
+                "No se encontraron productos con ese nombre.");
+    }
+
+    /**
+     * Muestra las sugerencias para lo escrito y deja elegir una
+     * @param texto Texto escrito por el usuario
+     * @return Sugerencia elegida, o el mismo texto si no se elige ninguna
+     */
+    private String elegirSugerencia(String texto) {
+        List<String> sugerencias = catalogo.autocompletar(texto, 5);
+        if (texto.isEmpty() || sugerencias.isEmpty()
+                || (sugerencias.size() == 1 && sugerencias.get(0).equalsIgnoreCase(texto))) {
+            return texto;
+        }
+
+        System.out.println("Sugerencias:");
+        for (int i = 0; i < sugerencias.size(); i++) {
+            System.out.println((i + 1) + ". " + sugerencias.get(i));
+        }
+        System.out.print("Elige una sugerencia (Enter para buscar \"" + texto + "\"): ");
+
+        String opcion = scanner.nextLine().trim();
+        try {
+            int numero = Integer.parseInt(opcion);
+            if (numero >= 1 && numero <= sugerencias.size()) {
+                return sugerencias.get(numero - 1);
+            }
+        } catch (NumberFormatException e) {
+            // Enter o texto no numérico: se busca lo escrito
+        }
+        return texto;
     }
 
     private void agregarProductoAlCarrito(Carrito carrito) {
@@ -400,11 +579,14 @@ public class Menu {
             int cantidad = scanner.nextInt();
             scanner.nextLine(); // Limpiar buffer
 
-            Producto producto = catalogo.obtenerProducto(productoId);
-            if (producto != null) {
-                carrito.agregarProducto(producto, cantidad);
-            } else {
+            Producto_publicado publicado = catalogo.obtenerProducto(productoId);
+            Producto producto = (publicado != null) ? publicado.getProducto() : null;
+            if (producto == null) {
                 System.out.println("El producto con ese ID no existe.");
+            } else if (producto.tieneVariantes()) {
+                agregarVarianteAlCarrito(carrito, producto, cantidad);
+            } else if (carrito.agregarProducto(producto, cantidad)) {
+                mostrarCompradosJuntos(productoId);
             }
         } catch (Exception e) {
             System.out.println("Error: Debes ingresar números válidos.");
@@ -412,6 +594,51 @@ public class Menu {
         }
     }
 
+    /**
+     * Pide talla y color (entre las variantes con stock) y agrega esa variante al carrito
+     * @param carrito Carrito del cliente
+     * @param producto Producto con stock por talla y color
+     * @param cantidad Cantidad a agregar
+     */
+    private void agregarVarianteAlCarrito(Carrito carrito, Producto producto, int cantidad) {
+        System.out.println("Tallas disponibles: " + producto.getTallasDisponibles());
+        System.out.print("Talla -> ");
+        String talla = scanner.nextLine().trim();
+
+        List<String> colores = producto.getColoresDisponibles(talla);
+        if (colores.isEmpty()) {
+            System.out.println("No hay stock de " + producto.getNombre() + " en talla " + talla + ".");
+            return;
+        }
+        System.out.println("Colores disponibles: " + colores);
+        System.out.print("Color -> ");
+        String color = scanner.nextLine().trim();
+
+        if (carrito.agregarProducto(producto, cantidad, talla, color)) {
+            mostrarCompradosJuntos(producto.getIdProducto());
+        }
+    }
+
+    /**
+     * Muestra los productos con stock que otros clientes compraron junto con uno dado
+     * @param idProducto ID del producto recién agregado al carrito
+     */
+    private void mostrarCompradosJuntos(int idProducto) {
+        List<Producto_publicado> recomendados = new ArrayList<>();
+        Instantanea_catalogo instantanea = catalogo.getInstantanea();
+        for (int id : gestionPedidos.recomendar(idProducto, 5)) {
+            Producto_publicado recomendado = instantanea.obtenerProducto(id);
+            if (recomendado != null && recomendado.getStock() > 0 && recomendados.size() < 3) {
+                recomendados.add(recomendado);
+            }
+        }
+
+        if (!recomendados.isEmpty()) {
+            vistaCatalogo.mostrarResultados("Quienes compraron este producto también compraron:",
+                    recomendados, "");
+        }
+    }
+
     private void crearPedido(Carrito carrito, String correo) {
         if (carrito.estaVacio()) {
             System.out.println("El carrito está vacío. No se puede realizar el pedido.");
@@ -440,7 +667,8 @@ public class Menu {
                 System.out.println("-----Debes pagar en la opción 6 para que se complete tu envío.----");
                 System.out.println("----------NOTA: SI NO PAGAS TU PEDIDO SERÁ CANCELADO---------");
 
-                carrito.vaciarCarrito();
+                // Las unidades reservadas por el carrito pasan al pedido
+                carrito.entregarAPedido();
                 System.out.println("El carrito ha sido vaciado.");
             } else {
                 System.out.println("No se pudo registrar el pedido.");
@@ -450,6 +678,53 @@ public class Menu {
         }
     }
 
+    /**
+     * Vuelve a poner en el carrito los productos de un pedido anterior:
+     * se agregan todos o ninguno, según haya stock
+     * @param carrito Carrito del cliente
+     * @param correo Correo del cliente
+     */
+    private void repetirPedido(Carrito carrito, String correo) {
+        List<Pedido> pedidosUsuario = gestionPedidos.obtenerPedidosPorUsuario(correo);
+        if (pedidosUsuario.isEmpty()) {
+            System.out.println("Todavía no tienes pedidos.");
+            return;
+        }
+
+        gestionPedidos.listarPedidosUsuario(correo);
+        try {
+            System.out.print("Ingresa el ID del pedido a repetir -> ");
+            int idPedido = scanner.nextInt();
+            scanner.nextLine(); // Limpiar buffer
+
+            Pedido pedido = null;
+            for (Pedido p : pedidosUsuario) {
+                if (p.getIdPedido() == idPedido) {
+                    pedido = p;
+                }
+            }
+            if (pedido == null) {
+                System.out.println("No tienes un pedido con ese ID.");
+                return;
+            }
+
+            List<Item_carrito> itemsPedido = new ArrayList<>();
+            for (Item_carrito item : pedido.getItems().values()) {
+                Producto producto = gestionInventario.buscarPorId(item.getProducto().getIdProducto());
+                if (producto == null) {
+                    System.out.println(item.getProducto().getNombre() + " ya no está en el catálogo.");
+                    return;
+                }
+                itemsPedido.add(new Item_carrito(producto, item.getCantidad(),
+                        item.getTallaSeleccionada(), item.getColorSeleccionado()));
+            }
+            carrito.agregarTodos(itemsPedido);
+        } catch (Exception e) {
+            System.out.println("Error: Debes ingresar números válidos.");
+            scanner.nextLine();
+        }
+    }
+
     private void pagarPedido(String correo) {
         List<Pedido> pedidosUsuario = gestionPedidos.obtenerPedidosPorUsuario(correo);
         List<Pedido> pedidosPendientes = pedidosUsuario.stream()
@@ -567,7 +842,7 @@ public class Menu {
         System.out.print("Nombre del producto que desea reseñar: ");
         String nombreProducto = scanner.nextLine().trim();
 
-        Producto producto = gestionInventario.buscarPorNombre(nombreProducto);
+        Producto producto = elegirProductoPorNombre(nombreProducto);
         if (producto == null) {
             System.out.println("No se encontró un producto con ese nombre.");
             return;
@@ -623,27 +898,66 @@ public class Menu {
         System.out.print("Nombre del producto para ver reseñas: ");
         String nombreProducto = scanner.nextLine().trim();
 
-        Producto producto = gestionInventario.buscarPorNombre(nombreProducto);
+        Producto producto = elegirProductoPorNombre(nombreProducto);
         if (producto != null) {
+            catalogo.registrarVista(producto.getIdProducto());
             producto.mostrarResenas();
         } else {
             System.out.println("Producto no encontrado.");
         }
     }
 
+    /**
+     * Busca un producto por nombre; si no hay coincidencia exacta ofrece los
+     * nombres más parecidos para que el cliente elija uno
+     * @param nombreProducto Nombre escrito por el cliente
+     * @return Producto elegido o null
+     */
+    private Producto elegirProductoPorNombre(String nombreProducto) {
+        Producto producto = gestionInventario.buscarPorNombre(nombreProducto);
+        if (producto != null) {
+            return producto;
+        }
+
+        List<Producto> sugerencias = gestionInventario.buscarParecidos(nombreProducto, 5);
+        if (sugerencias.isEmpty()) {
+            return null;
+        }
+
+        System.out.println("¿Quisiste decir?");
+        for (int i = 0; i < sugerencias.size(); i++) {
+            Producto sugerencia = sugerencias.get(i);
+            System.out.println((i + 1) + ". " + sugerencia.getNombre() + " (" + sugerencia.getCategoria() + ")");
+        }
+        System.out.print("Seleccione una opción (0 para cancelar): ");
+
+        try {
+            int opcion = scanner.nextInt();
+            scanner.nextLine();
+            if (opcion >= 1 && opcion <= sugerencias.size()) {
+                return sugerencias.get(opcion - 1);
+            }
+        } catch (Exception e) {
+            System.out.println("Debe ser un número válido.");
+            scanner.nextLine();
+        }
+        return null;
+    }
+
     // ==================== MODO INVITADO ====================
 
     private void modoInvitado() {
         System.out.println("\n=== Modo Invitado ===");
         System.out.println("Mostrando catálogo de productos:");
-        catalogo.mostrarCatalogo();
+        vistaCatalogo.mostrarCatalogo(catalogo);
 
         System.out.print("\n¿Desea buscar un producto? (si/no): ");
         String busqueda = scanner.nextLine().trim().toLowerCase();
         if (busqueda.equals("si")) {
             System.out.print("Ingresa el nombre del producto a buscar: ");
             String nombre = scanner.nextLine().trim();
-            catalogo.buscarPorNombre(nombre);
+            vistaCatalogo.mostrarResultados("Resultados de búsqueda:", catalogo.buscarPorNombre(nombre),
+                    "No se encontraron productos con ese nombre.");
         }
 
         System.out.print("\n¿Desea registrarse como usuario? (si/no): ");
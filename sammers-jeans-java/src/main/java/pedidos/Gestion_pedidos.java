@@ -10,12 +10,14 @@ import java.util.stream.Collectors;
  */
 public class Gestion_pedidos {
     private List<Pedido> basePedidos;
+    private Matriz_coocurrencias comprasConjuntas;
 
     /**
      * Constructor que inicializa la lista de pedidos
      */
     public Gestion_pedidos() {
         this.basePedidos = new ArrayList<>();
+        this.comprasConjuntas = new Matriz_coocurrencias();
     }
 
     // ==================== REGISTRAR PEDIDO ====================
@@ -28,11 +30,25 @@ public class Gestion_pedidos {
     public boolean agregarPedido(Pedido pedido) {
         if (pedido.registrarPedido()) {
             basePedidos.add(pedido);
+            comprasConjuntas.registrar(pedido);
             return true;
         }
         return false;
     }
 
+    // ==================== RECOMENDACIONES ====================
+
+    /**
+     * Productos que más se compraron junto con uno dado (sin contar pedidos cancelados)
+     * Es barato: se puede llamar cada vez que se agrega algo al carrito
+     * @param idProducto ID del producto
+     * @param cantidad Cantidad máxima de recomendaciones
+     * @return IDs de los productos recomendados, de más a menos comprados juntos
+     */
+    public int[] recomendar(int idProducto, int cantidad) {
+        return comprasConjuntas.recomendar(idProducto, cantidad);
+    }
+
     // ==================== OBTENER PEDIDOS ====================
 
     /**
@@ -183,7 +199,11 @@ public class Gestion_pedidos {
             return false;
         }
 
-        return pedido.cancelarPedido();
+        if (pedido.cancelarPedido()) {
+            comprasConjuntas.quitar(pedido);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -200,7 +220,19 @@ public class Gestion_pedidos {
             return false;
         }
 
-        return pedido.cambiarEstado(nuevoEstado);
+        boolean estabaCancelado = "Cancelado".equals(pedido.getEstado());
+        if (!pedido.cambiarEstado(nuevoEstado)) {
+            return false;
+        }
+
+        // Los pedidos cancelados no cuentan para las recomendaciones
+        boolean quedoCancelado = "Cancelado".equals(pedido.getEstado());
+        if (!estabaCancelado && quedoCancelado) {
+            comprasConjuntas.quitar(pedido);
+        } else if (estabaCancelado && !quedoCancelado) {
+            comprasConjuntas.registrar(pedido);
+        }
+        return true;
     }
 
     /**
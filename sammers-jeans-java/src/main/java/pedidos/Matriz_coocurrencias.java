@@ -0,0 +1,142 @@
+package pedidos;
+
+import estructuras.Mapa_int_int;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matriz dispersa de compras conjuntas: para cada producto, cuántos pedidos lo
+ * incluyeron junto con cada otro producto
+ * Cada fila es un mapa primitivo id_producto → pedidos en común y guarda ya
+ * ordenadas sus mejores recomendaciones; se reordena solo cuando un pedido la cambia,
+ * así que recomendar es casi siempre copiar unos pocos IDs
+ */
+public class Matriz_coocurrencias {
+    private static final int RECOMENDACIONES_GUARDADAS = 10;
+
+    private Mapa_int_int posiciones;    // Clave: id_producto, Valor: posición en filas
+    private List<Fila> filas;
+
+    /**
+     * Constructor de una matriz vacía
+     */
+    public Matriz_coocurrencias() {
+        this.posiciones = new Mapa_int_int();
+        this.filas = new ArrayList<>();
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Suma las compras conjuntas de un pedido (cada par de productos distintos)
+     * @param pedido Pedido registrado
+     */
+    public void registrar(Pedido pedido) {
+        sumar(pedido, 1);
+    }
+
+    /**
+     * Resta las compras conjuntas de un pedido (por ejemplo al cancelarlo)
+     * @param pedido Pedido que ya no cuenta
+     */
+    public void quitar(Pedido pedido) {
+        sumar(pedido, -1);
+    }
+
+    // ==================== RECOMENDAR ====================
+
+    /**
+     * Productos que más se compraron junto con uno dado
+     * @param idProducto ID del producto
+     * @param cantidad Cantidad máxima de recomendaciones
+     * @return IDs de más a menos pedidos en común (en empate, menor ID primero)
+     */
+    public int[] recomendar(int idProducto, int cantidad) {
+        int posicion = posiciones.obtener(idProducto, -1);
+        if (posicion < 0 || cantidad <= 0) {
+            return new int[0];
+        }
+
+        Fila fila = filas.get(posicion);
+        if (cantidad > RECOMENDACIONES_GUARDADAS) {
+            return fila.mejores(cantidad);
+        }
+        if (fila.recomendaciones == null) {
+            fila.recomendaciones = fila.mejores(RECOMENDACIONES_GUARDADAS);
+        }
+        return Arrays.copyOf(fila.recomendaciones, Math.min(cantidad, fila.recomendaciones.length));
+    }
+
+    /**
+     * Cantidad de pedidos que incluyeron a ambos productos
+     * @param idProducto Primer producto
+     * @param idOtro Segundo producto
+     * @return Pedidos en común
+     */
+    public int contarEnComun(int idProducto, int idOtro) {
+        int posicion = posiciones.obtener(idProducto, -1);
+        return (posicion < 0) ? 0 : filas.get(posicion).conteos.obtener(idOtro, 0);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void sumar(Pedido pedido, int diferencia) {
+        int[] ids = new int[pedido.getItems().size()];
+        int cantidad = 0;
+        for (int id : pedido.getItems().keySet()) {
+            ids[cantidad++] = id;
+        }
+
+        for (int i = 0; i < cantidad; i++) {
+            Fila fila = fila(ids[i]);
+            for (int j = 0; j < cantidad; j++) {
+                if (i != j) {
+                    fila.conteos.sumar(ids[j], diferencia);
+                }
+            }
+            fila.recomendaciones = null;
+        }
+    }
+
+    private Fila fila(int idProducto) {
+        int posicion = posiciones.obtener(idProducto, -1);
+        if (posicion < 0) {
+            posicion = filas.size();
+            filas.add(new Fila());
+            posiciones.poner(idProducto, posicion);
+        }
+        return filas.get(posicion);
+    }
+
+    /**
+     * Fila de la matriz: pedidos en común con cada producto y, si no cambió
+     * desde la última consulta, sus mejores recomendaciones ya ordenadas
+     */
+    private static final class Fila {
+        private final Mapa_int_int conteos;
+        private int[] recomendaciones;    // null si hay que recalcularlas
+
+        Fila() {
+            this.conteos = new Mapa_int_int();
+            this.recomendaciones = new int[0];
+        }
+
+        int[] mejores(int cantidad) {
+            // Conteo en los 32 bits altos e ID invertido en los bajos: ordenar los long
+            // deja de último el de más pedidos y, en empate, el de menor ID
+            long[] pares = new long[conteos.tamano()];
+            int[] siguiente = {0};
+            conteos.recorrer((id, conteo) ->
+                    pares[siguiente[0]++] = ((long) conteo << 32) | (~id & 0xFFFFFFFFL));
+            Arrays.sort(pares);
+
+            int[] resultado = new int[Math.min(cantidad, pares.length)];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = ~(int) pares[pares.length - 1 - i];
+            }
+            return resultado;
+        }
+    }
+}
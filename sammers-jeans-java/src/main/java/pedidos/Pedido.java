@@ -85,9 +85,10 @@ public class Pedido {
         // Devolver el stock a los productos
         for (Map.Entry<Integer, Item_carrito> entry : items.entrySet()) {
             Item_carrito item = entry.getValue();
-            item.getProducto().aumentarStock(item.getCantidad());
-            System.out.println("Stock devuelto: " + item.getProducto().getNombre() +
-                    " +" + item.getCantidad());
+            if (item.liberarStock(item.getCantidad())) {
+                System.out.println("Stock devuelto: " + item.getProducto().getNombre() +
+                        " +" + item.getCantidad());
+            }
         }
 
         estado = "Cancelado";
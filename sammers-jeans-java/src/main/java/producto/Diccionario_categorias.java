@@ -0,0 +1,64 @@
+package producto;
+
+import estructuras.Normalizador_texto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de categorías: cada categoría normalizada recibe un código entero
+ * ("Caballero", "caballero" y "CABALLERO" son la misma) y los productos guardan
+ * solo ese código. El nombre que se muestra es el primero con que se registró
+ */
+public final class Diccionario_categorias {
+    private static final Map<String, Integer> codigos = new HashMap<>();    // Clave: categoría normalizada
+    private static final List<String> nombres = new ArrayList<>();          // Posición: código
+
+    private Diccionario_categorias() {
+    }
+
+    /**
+     * Obtiene el código de una categoría, registrándola si es nueva
+     * @param categoria Nombre de la categoría
+     * @return Código de la categoría
+     */
+    public static int codificar(String categoria) {
+        String clave = Normalizador_texto.normalizar(categoria);
+        Integer codigo = codigos.get(clave);
+        if (codigo != null) {
+            return codigo;
+        }
+
+        nombres.add((categoria != null) ? categoria.trim() : "");
+        codigos.put(clave, nombres.size() - 1);
+        return nombres.size() - 1;
+    }
+
+    /**
+     * Busca el código de una categoría sin registrarla
+     * @param categoria Nombre de la categoría
+     * @return Código de la categoría, o -1 si no existe
+     */
+    public static int buscarCodigo(String categoria) {
+        return codigos.getOrDefault(Normalizador_texto.normalizar(categoria), -1);
+    }
+
+    /**
+     * Obtiene el nombre de una categoría
+     * @param codigo Código de la categoría
+     * @return Nombre con que se registró la categoría
+     */
+    public static String nombre(int codigo) {
+        return nombres.get(codigo);
+    }
+
+    /**
+     * Cantidad de categorías registradas (los códigos van de 0 a cantidad - 1)
+     * @return Cantidad de categorías
+     */
+    public static int cantidad() {
+        return nombres.size();
+    }
+}
@@ -0,0 +1,61 @@
+package producto;
+
+/**
+ * Interfaz para enterarse de los cambios de un producto que ocurren fuera del inventario
+ * (por ejemplo cuando el carrito o un pedido reducen o devuelven stock, un setter cambia el precio
+ * el nombre o la categoría, o un cliente deja una reseña)
+ */
+public interface Oyente_producto {
+
+    /**
+     * Se llama después de cualquier cambio de stock o disponibilidad
+     * @param producto Producto modificado
+     * @param stockAnterior Stock antes del cambio
+     */
+    void stockCambiado(Producto producto, int stockAnterior);
+
+    /**
+     * Se llama después de un cambio de precio
+     * @param producto Producto modificado
+     * @param precioAnterior Precio antes del cambio
+     */
+    void precioCambiado(Producto producto, double precioAnterior);
+
+    /**
+     * Se llama después de un cambio de nombre
+     * @param producto Producto modificado
+     * @param nombreAnterior Nombre antes del cambio
+     */
+    void nombreCambiado(Producto producto, String nombreAnterior);
+
+    /**
+     * Se llama después de un cambio de categoría
+     * @param producto Producto modificado
+     * @param codigoAnterior Código de la categoría anterior en Diccionario_categorias
+     */
+    void categoriaCambiada(Producto producto, int codigoAnterior);
+
+    /**
+     * Se llama después de agregar una reseña al producto
+     * @param producto Producto reseñado
+     * @param calificacion Calificación de la nueva reseña (1 a 5)
+     */
+    void resenaAgregada(Producto producto, int calificacion);
+
+    /**
+     * Indica si quien cambia el stock debe esperar, después del aviso, a que el cambio
+     * quede confirmado con confirmarCambios (por ejemplo guardado en disco)
+     * @return true si los cambios de stock se confirman
+     */
+    default boolean requiereConfirmacion() {
+        return false;
+    }
+
+    /**
+     * Espera a que los cambios ya avisados queden confirmados
+     * @return true si quedaron confirmados
+     */
+    default boolean confirmarCambios() {
+        return true;
+    }
+}
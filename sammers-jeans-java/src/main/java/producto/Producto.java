@@ -1,20 +1,37 @@
 package producto;
 
+import estructuras.Normalizador_texto;
 import usuarios.Usuario;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class Producto {
+    private static final int PUBLICAR_CADA = 32;   // Con stock repartido, máximo de unidades que getStock() puede ir atrasado
+    private static final int ESPERA_ACTIVA = 100;  // Vueltas sin ceder el procesador al esperar una publicación
+
     private int idProducto;
     private String nombre;
     private double precio;
-    private int stock;
-    private String categoria;
+    private final AtomicInteger stock;     // Unidades reales: se reservan y devuelven con compareAndSet
+    private volatile int stockPublicado;   // Último stock avisado al oyente (el que devuelve getStock)
+    private final AtomicBoolean publicando;
+    private final AtomicLong cambiosStock;  // Cantidad de cambios de stock hechos (numera cada cambio)
+    private volatile long cambiosPublicados; // Cambios que el oyente ya recibió
+    private int codigoCategoria;           // Código en Diccionario_categorias
     private List<String> tallas;
     private List<String> colores;
-    private boolean disponible;
+    private volatile boolean disponible;
     private List<Resena> resenas;
+    private int sumaCalificaciones;
+    private int[] histogramaCalificaciones; // Posición 0: reseñas de 1 estrella ... posición 4: de 5
+    private Oyente_producto oyente;
+    private volatile Stock_variantes variantes;  // null mientras el stock no se lleve por talla y color
+    private volatile Stock_repartido repartido;  // null salvo en productos muy pedidos (venta relámpago)
 
 
     public Producto(int idProducto, String nombre, double precio, int stock,
@@ -22,12 +39,18 @@ public class Producto {
         this.idProducto = idProducto;
         this.nombre = nombre;
         this.precio = precio;
-        this.stock = stock;
-        this.categoria = categoria;
+        this.stock = new AtomicInteger(stock);
+        this.stockPublicado = stock;
+        this.publicando = new AtomicBoolean(false);
+        this.cambiosStock = new AtomicLong();
+        this.cambiosPublicados = 0;
+        this.codigoCategoria = Diccionario_categorias.codificar(categoria);
         this.tallas = (tallas != null) ? tallas : new ArrayList<>();
         this.colores = (colores != null) ? colores : new ArrayList<>();
         this.disponible = disponible;
         this.resenas = new ArrayList<>();
+        this.sumaCalificaciones = 0;
+        this.histogramaCalificaciones = new int[5];
     }
 
 
@@ -54,6 +77,11 @@ public class Producto {
 
         Resena nuevaResena = new Resena(usuario.getNombre(), texto, calificacion);
         resenas.add(nuevaResena);
+        sumaCalificaciones += calificacion;
+        histogramaCalificaciones[calificacion - 1]++;
+        if (oyente != null) {
+            oyente.resenaAgregada(this, calificacion);
+        }
         System.out.println("Reseña agregada exitosamente");
     }
 
@@ -84,33 +112,522 @@ public class Producto {
             return 0.0;
         }
 
-        int suma = 0;
-        for (Resena resena : resenas) {
-            suma += resena.getCalificacion();
+        return (double) sumaCalificaciones / resenas.size();
+    }
+
+
+
+    public int getCantidadResenas() {
+        return resenas.size();
+    }
+
+    public int getSumaCalificaciones() {
+        return sumaCalificaciones;
+    }
+
+
+
+    /**
+     * Distribución de calificaciones (copia del histograma)
+     * @return Arreglo de 5 posiciones: [0] reseñas de 1 estrella ... [4] reseñas de 5 estrellas
+     */
+    public int[] obtenerDistribucionCalificaciones() {
+        return histogramaCalificaciones.clone();
+    }
+
+
+
+    /**
+     * Cuenta las reseñas con al menos cierta cantidad de estrellas (por ejemplo "4 estrellas o más")
+     * @param estrellas Estrellas mínimas (1 a 5)
+     * @return Cantidad de reseñas
+     */
+    public int contarResenasDesde(int estrellas) {
+        int total = 0;
+        for (int i = Math.max(1, estrellas); i <= 5; i++) {
+            total += histogramaCalificaciones[i - 1];
         }
+        return total;
+    }
 
-        return (double) suma / resenas.size();
+
+
+    /**
+     * Verifica si el promedio del producto alcanza un mínimo
+     * @param minimo Promedio mínimo (por ejemplo 4.0)
+     * @return true si tiene reseñas y su promedio es mayor o igual al mínimo
+     */
+    public boolean tieneCalificacionMinima(double minimo) {
+        return !resenas.isEmpty() && sumaCalificaciones >= minimo * resenas.size();
     }
 
 
 
+    /**
+     * Reserva unidades del stock de forma atómica: varios hilos pueden reservar a la vez
+     * sin vender de más ni dejar el stock negativo
+     * Si el oyente pide confirmar los cambios (bitácora del inventario activa), vuelve
+     * recién cuando la reserva está confirmada; si no se pudo confirmar, la deshace
+     * @param cantidad Unidades a reservar
+     * @return true si había unidades suficientes y la reserva quedó confirmada
+     */
     public boolean reducirStock(int cantidad) {
-        if (stock >= cantidad) {
-            stock -= cantidad;
-            if (stock == 0) {
+        long cambio = reservar(cantidad);
+        if (cambio < 0) {
+            return false;
+        }
+        if (!confirmarStock(cambio)) {
+            devolver(cantidad);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve unidades al stock de forma atómica
+     * @param cantidad Unidades a devolver (no negativas: para quitar unidades está reducirStock)
+     * @return true si se devolvieron y el cambio quedó confirmado
+     */
+    public boolean aumentarStock(int cantidad) {
+        if (cantidad < 0) {
+            return false;
+        }
+        if (variantes != null) {
+            System.out.println("El stock de " + nombre + " se maneja por talla y color.");
+            return false;
+        }
+
+        return confirmarStock(devolver(cantidad));
+    }
+
+    /**
+     * Reserva sin confirmar
+     * @return Número del cambio, o -1 si no había unidades suficientes
+     */
+    private long reservar(int cantidad) {
+        if (variantes != null) {
+            // Con stock por variante hay que saber de qué talla y color sale
+            return -1;
+        }
+        if (cantidad < 0) {
+            return -1;
+        }
+
+        Stock_repartido cubetas = repartido;
+        if (cubetas != null && cantidad > 0) {
+            int restantes = cubetas.reservar(cantidad);
+            if (restantes < 0) {
+                // Si justo se desactivó el stock repartido, las unidades volvieron al contador
+                return (repartido != cubetas) ? reservar(cantidad) : -1;
+            }
+            long cambio = cambiosStock.incrementAndGet();
+            if (cruzaUmbral(restantes, cantidad, cubetas.getCantidadCubetas())) {
+                publicarStock();
+            }
+            return cambio;
+        }
+
+        int actual;
+        do {
+            actual = stock.get();
+            if (actual < cantidad) {
+                // Si justo se activó el stock repartido, las unidades pasaron a las cubetas
+                return (repartido != null) ? reservar(cantidad) : -1;
+            }
+        } while (!stock.compareAndSet(actual, actual - cantidad));
+
+        long cambio = cambiosStock.incrementAndGet();
+        publicarStock();
+        return cambio;
+    }
+
+    /**
+     * Devuelve sin confirmar
+     * @return Número del cambio
+     */
+    private long devolver(int cantidad) {
+        Stock_repartido cubetas = repartido;
+        if (cubetas != null) {
+            cubetas.liberar(cantidad);
+            if (repartido != cubetas) {
+                // Se desactivó mientras tanto: lo devuelto pasa al contador
+                stock.addAndGet(cubetas.vaciar());
+            }
+        } else {
+            stock.addAndGet(cantidad);
+        }
+        long cambio = cambiosStock.incrementAndGet();
+        publicarStock();
+        return cambio;
+    }
+
+
+
+    // ==================== STOCK REPARTIDO (VENTA RELÁMPAGO) ====================
+
+    /**
+     * Reparte el stock en cubetas para que muchos clientes puedan reservar a la vez
+     * sin competir por un mismo contador (ver Stock_repartido)
+     * Con el stock repartido, getStock() se actualiza cada algunas unidades (nunca queda
+     * atrasado PUBLICAR_CADA unidades o más), con cada devolución y siempre al agotarse
+     * el producto (si el oyente pide confirmar cada cambio, con cada reserva)
+     * @param cubetas Cantidad de cubetas (lo normal es una por núcleo)
+     * @return true si se activó (no aplica a productos con stock por talla y color)
+     */
+    public synchronized boolean activarStockRepartido(int cubetas) {
+        if (variantes != null) {
+            return false;
+        }
+        if (repartido == null) {
+            // Las cubetas se publican ya llenas: quien las vea nunca las encuentra vacías
+            repartido = new Stock_repartido(cubetas, stock.getAndSet(0));
+        }
+        return true;
+    }
+
+    /**
+     * Vuelve a llevar el stock en un solo contador
+     */
+    public synchronized void desactivarStockRepartido() {
+        Stock_repartido cubetas = repartido;
+        if (cubetas != null) {
+            repartido = null;
+            stock.addAndGet(cubetas.vaciar());
+            publicarStock();
+        }
+    }
+
+    public boolean tieneStockRepartido() {
+        return repartido != null;
+    }
+
+    /**
+     * Con stock repartido se publica al vaciarse una cubeta o cuando la cubeta pasa por un
+     * múltiplo de su parte de PUBLICAR_CADA, así el oyente no se entera de cada reserva
+     * Cada publicación deja getStock() al día y después cada cubeta baja menos de su parte
+     * sin publicar, así que entre todas quedan sin avisar menos de PUBLICAR_CADA unidades
+     * (con más cubetas que PUBLICAR_CADA se publica cada reserva)
+     */
+    private static boolean cruzaUmbral(int restantes, int cantidad, int cubetas) {
+        int paso = Math.max(1, PUBLICAR_CADA / cubetas);
+        return restantes == 0 || restantes / paso != (restantes + cantidad) / paso;
+    }
+
+
+
+    // ==================== STOCK POR VARIANTE ====================
+
+    /**
+     * Fija las unidades de una variante (talla y color)
+     * La primera vez el producto pasa a llevar el stock por variante: desde ahí su
+     * stock total es la suma de las variantes y se reduce o aumenta indicando talla y color
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @param unidades Unidades de la variante
+     * @return true si el producto tiene esa talla y ese color y el cambio quedó confirmado
+     */
+    public boolean setStockVariante(String talla, String color, int unidades) {
+        long cambio;
+        synchronized (this) {
+            Stock_variantes matriz = (variantes != null) ? variantes : new Stock_variantes(tallas, colores);
+            int posicionTalla = matriz.indiceTalla(talla);
+            int posicionColor = matriz.indiceColor(color);
+            if (posicionTalla < 0 || posicionColor < 0) {
+                return false;
+            }
+
+            if (variantes == null) {
+                // El stock general pasa a ser la suma de las variantes
+                desactivarStockRepartido();
+                stock.set(0);
+                variantes = matriz;
+            }
+            stock.addAndGet(variantes.fijar(posicionTalla, posicionColor, unidades));
+            cambio = cambiosStock.incrementAndGet();
+            // Aunque el total no cambie, pueden cambiar las tallas y colores disponibles
+            avisarStockSinCambio();
+        }
+        return confirmarStock(cambio);
+    }
+
+    /**
+     * Reduce el stock de una variante (sin stock por variante, reduce el stock general)
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @param cantidad Unidades a reducir
+     * @return true si la variante existe, tenía unidades suficientes y la reserva quedó confirmada
+     */
+    public boolean reducirStock(String talla, String color, int cantidad) {
+        if (variantes == null) {
+            return reducirStock(cantidad);
+        }
+
+        int posicionTalla = variantes.indiceTalla(talla);
+        int posicionColor = variantes.indiceColor(color);
+        if (posicionTalla < 0 || posicionColor < 0
+                || !variantes.reservar(posicionTalla, posicionColor, cantidad)) {
+            return false;
+        }
+        stock.addAndGet(-cantidad);
+        long cambio = cambiosStock.incrementAndGet();
+        publicarStock();
+        if (!confirmarStock(cambio)) {
+            devolverVariante(posicionTalla, posicionColor, cantidad);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Aumenta el stock de una variante (sin stock por variante, aumenta el stock general)
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @param cantidad Unidades a devolver
+     * @return true si la variante existe y el cambio quedó confirmado
+     */
+    public boolean aumentarStock(String talla, String color, int cantidad) {
+        if (variantes == null) {
+            return aumentarStock(cantidad);
+        }
+
+        int posicionTalla = variantes.indiceTalla(talla);
+        int posicionColor = variantes.indiceColor(color);
+        if (posicionTalla < 0 || posicionColor < 0 || cantidad < 0) {
+            return false;
+        }
+        return cantidad == 0 || confirmarStock(devolverVariante(posicionTalla, posicionColor, cantidad));
+    }
+
+    /**
+     * Devuelve unidades a una variante sin confirmar
+     * @return Número del cambio
+     */
+    private long devolverVariante(int posicionTalla, int posicionColor, int cantidad) {
+        variantes.liberar(posicionTalla, posicionColor, cantidad);
+        stock.addAndGet(cantidad);
+        long cambio = cambiosStock.incrementAndGet();
+        publicarStock();
+        return cambio;
+    }
+
+    /**
+     * Verifica si el producto tiene una talla y un color (sin importar tildes ni mayúsculas)
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @return true si tiene los dos
+     */
+    public boolean tieneVariante(String talla, String color) {
+        return contiene(tallas, talla) && contiene(colores, color);
+    }
+
+    /**
+     * Unidades de una variante
+     * @param talla Talla de la variante
+     * @param color Color de la variante
+     * @return Unidades (sin stock por variante, el stock general si el producto tiene esa talla y color)
+     */
+    public int getStockVariante(String talla, String color) {
+        if (variantes == null) {
+            return (contiene(tallas, talla) && contiene(colores, color)) ? getStock() : 0;
+        }
+
+        int posicionTalla = variantes.indiceTalla(talla);
+        int posicionColor = variantes.indiceColor(color);
+        return (posicionTalla < 0 || posicionColor < 0) ? 0 : variantes.obtener(posicionTalla, posicionColor);
+    }
+
+    /**
+     * Verifica si el stock se lleva por talla y color
+     * @return true si el producto tiene stock por variante
+     */
+    public boolean tieneVariantes() {
+        return variantes != null;
+    }
+
+    /**
+     * Tallas que se pueden comprar: con stock por variante, solo las que tienen
+     * unidades en algún color; si no, todas las del producto
+     * @return Tallas disponibles
+     */
+    public List<String> getTallasDisponibles() {
+        return (variantes != null) ? variantes.tallasDisponibles() : tallas;
+    }
+
+    /**
+     * Colores que se pueden comprar: con stock por variante, solo los que tienen
+     * unidades en alguna talla; si no, todos los del producto
+     * @return Colores disponibles
+     */
+    public List<String> getColoresDisponibles() {
+        return (variantes != null) ? variantes.coloresDisponibles() : colores;
+    }
+
+    /**
+     * Colores que se pueden comprar en una talla
+     * @param talla Talla elegida
+     * @return Colores con unidades en esa talla
+     */
+    public List<String> getColoresDisponibles(String talla) {
+        if (variantes == null) {
+            return contiene(tallas, talla) ? colores : new ArrayList<>();
+        }
+
+        int posicionTalla = variantes.indiceTalla(talla);
+        return (posicionTalla >= 0) ? variantes.coloresDisponibles(posicionTalla) : new ArrayList<>();
+    }
+
+    // ==================== PUBLICACIÓN DEL STOCK ====================
+
+    /**
+     * Avisa al oyente los cambios de stock que todavía no vio
+     * Las reservas no toman candados: cada hilo cambia el contador atómico y luego
+     * publica. Un solo hilo a la vez publica; si otro ya lo está haciendo, este se va
+     * y aquel avisa también su cambio (varios cambios seguidos pueden llegar como uno).
+     * Así el oyente recibe los cambios de a uno y en orden, y mientras atiende uno
+     * getStock() no cambia
+     */
+    private void publicarStock() {
+        do {
+            if (!intentarPublicar()) {
+                return;
+            }
+            // Un cambio hecho justo antes de soltar la publicación quedaría sin avisar
+        } while (stockActual() != stockPublicado || cambioDeVariantePendiente());
+    }
+
+    /**
+     * Publica los cambios pendientes si ningún otro hilo está publicando
+     * @return true si publicó este hilo
+     */
+    private boolean intentarPublicar() {
+        if (!publicando.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            publicarPendientes(false);
+        } finally {
+            publicando.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * Unidades reales: el contador más, si el stock está repartido, lo que hay en las cubetas
+     */
+    private int stockActual() {
+        Stock_repartido cubetas = repartido;
+        return (cubetas != null) ? stock.get() + cubetas.getTotal() : stock.get();
+    }
+
+    /**
+     * Publica los cambios pendientes y avisa al oyente aunque el stock no haya
+     * cambiado (por ejemplo al cambiar la disponibilidad), esperando si otro hilo
+     * está publicando para no cruzarse con él
+     */
+    private void avisarStockSinCambio() {
+        while (!publicando.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            publicarPendientes(true);
+        } finally {
+            publicando.set(false);
+        }
+        publicarStock();
+    }
+
+    /**
+     * Avisa uno por uno los cambios que el oyente no vio (se llama con la publicación tomada)
+     * Al terminar, todos los cambios numerados hasta el momento de empezar quedan publicados
+     * @param avisarSiempre true para avisar al menos una vez aunque el stock no haya cambiado
+     */
+    private void publicarPendientes(boolean avisarSiempre) {
+        // Cada cambio suma su número después de aplicarse: el stock leído a continuación lo incluye
+        long vistos = cambiosStock.get();
+        boolean avisado = false;
+        int actual;
+        while ((actual = stockActual()) != stockPublicado) {
+            int stockAnterior = stockPublicado;
+            stockPublicado = actual;
+            if (actual == 0) {
                 disponible = false;
+            } else if (actual > stockAnterior && !disponible) {
+                disponible = true;
             }
+            notificarStock(stockAnterior);
+            avisado = true;
+        }
+        // Con stock por variante, mover unidades entre tallas o colores no cambia el total
+        if (!avisado && (avisarSiempre || (variantes != null && vistos != cambiosPublicados))) {
+            notificarStock(stockPublicado);
+        }
+        cambiosPublicados = vistos;
+    }
+
+    private boolean cambioDeVariantePendiente() {
+        return variantes != null && cambiosStock.get() != cambiosPublicados;
+    }
+
+    /**
+     * Espera a que el oyente haya recibido un cambio: si nadie está publicando lo publica
+     * este hilo, si no espera a que termine quien publica
+     * @param cambio Número del cambio
+     */
+    private void esperarPublicacion(long cambio) {
+        int vueltas = 0;
+        while (cambiosPublicados < cambio) {
+            if (intentarPublicar()) {
+                publicarStock();
+            } else if (++vueltas < ESPERA_ACTIVA) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Si el oyente lo pide (por ejemplo con la bitácora del inventario activa), espera a que
+     * el oyente reciba el cambio y lo confirme. Cada hilo espera por su propio cambio, aunque
+     * lo haya avisado otro hilo
+     * @param cambio Número del cambio hecho por este hilo
+     * @return true si quedó confirmado (o el oyente no pide confirmar)
+     */
+    private boolean confirmarStock(long cambio) {
+        Oyente_producto actual = oyente;
+        if (actual == null || !actual.requiereConfirmacion()) {
             return true;
         }
-        return false;
+
+        esperarPublicacion(cambio);
+        if (!actual.confirmarCambios()) {
+            System.out.println("El cambio de stock de " + nombre + " no quedó guardado.");
+            return false;
+        }
+        return true;
     }
 
+    /**
+     * Espera a que el oyente haya recibido todos los cambios de stock hechos hasta ahora
+     * (por ejemplo el inventario, después de un lote aplicado con su candado tomado)
+     */
+    public void esperarStockPublicado() {
+        esperarPublicacion(cambiosStock.get());
+    }
 
+    private static boolean contiene(List<String> valores, String valor) {
+        String buscado = Normalizador_texto.normalizar(valor);
+        for (String actual : valores) {
+            if (Normalizador_texto.normalizar(actual).equals(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-    public void aumentarStock(int cantidad) {
-        stock += cantidad;
-        if (stock > 0) {
-            disponible = true;
+    private void notificarStock(int stockAnterior) {
+        if (oyente != null) {
+            oyente.stockCambiado(this, stockAnterior);
         }
     }
 
@@ -128,12 +645,21 @@ public class Producto {
         return precio;
     }
 
+    /**
+     * Stock publicado: el último que se avisó al oyente. Si otro hilo está
+     * reservando en este momento puede ir un instante por detrás del real
+     * @return Unidades en stock
+     */
     public int getStock() {
-        return stock;
+        return stockPublicado;
     }
 
     public String getCategoria() {
-        return categoria;
+        return Diccionario_categorias.nombre(codigoCategoria);
+    }
+
+    public int getCodigoCategoria() {
+        return codigoCategoria;
     }
 
     public List<String> getTallas() {
@@ -149,7 +675,7 @@ public class Producto {
     }
 
     public List<Resena> getResenas() {
-        return resenas;
+        return Collections.unmodifiableList(resenas);
     }
 
 
@@ -159,19 +685,52 @@ public class Producto {
     }
 
     public void setNombre(String nombre) {
+        String nombreAnterior = this.nombre;
         this.nombre = nombre;
+        if (oyente != null) {
+            oyente.nombreCambiado(this, nombreAnterior);
+        }
     }
 
     public void setPrecio(double precio) {
+        double precioAnterior = this.precio;
         this.precio = precio;
+        if (oyente != null) {
+            oyente.precioCambiado(this, precioAnterior);
+        }
     }
 
-    public void setStock(int stock) {
-        this.stock = stock;
+    /**
+     * Fija el stock general. Con stock por talla y color no se puede: el total es la
+     * suma de las variantes y se cambia con setStockVariante
+     * @param stock Unidades en stock
+     * @return true si se fijó y el cambio quedó confirmado
+     */
+    public boolean setStock(int stock) {
+        long cambio;
+        synchronized (this) {
+            if (variantes != null) {
+                System.out.println("El stock de " + nombre + " se maneja por talla y color.");
+                return false;
+            }
+            Stock_repartido cubetas = repartido;
+            if (cubetas != null) {
+                cubetas.fijar(stock);
+            } else {
+                this.stock.set(stock);
+            }
+            cambio = cambiosStock.incrementAndGet();
+        }
+        publicarStock();
+        return confirmarStock(cambio);
     }
 
     public void setCategoria(String categoria) {
-        this.categoria = categoria;
+        int codigoAnterior = this.codigoCategoria;
+        this.codigoCategoria = Diccionario_categorias.codificar(categoria);
+        if (oyente != null && codigoAnterior != codigoCategoria) {
+            oyente.categoriaCambiada(this, codigoAnterior);
+        }
     }
 
     public void setTallas(List<String> tallas) {
@@ -182,8 +741,28 @@ public class Producto {
         this.colores = colores;
     }
 
-    public void setDisponible(boolean disponible) {
+    /**
+     * Cambia la disponibilidad (se avisa como un cambio de stock)
+     * @param disponible true si se puede comprar
+     * @return true si el cambio quedó confirmado
+     */
+    public boolean setDisponible(boolean disponible) {
         this.disponible = disponible;
+        long cambio = cambiosStock.incrementAndGet();
+        avisarStockSinCambio();
+        return confirmarStock(cambio);
+    }
+
+    public Oyente_producto getOyente() {
+        return oyente;
+    }
+
+    /**
+     * Asigna el oyente de cambios (lo usa el inventario dueño del producto)
+     * @param oyente Oyente o null para dejar de notificar
+     */
+    public void setOyente(Oyente_producto oyente) {
+        this.oyente = oyente;
     }
 
 
@@ -191,7 +770,7 @@ public class Producto {
     @Override
     public String toString() {
         return String.format("Producto(%d, %s, $%.2f, stock=%d, Categoria=%s)",
-                idProducto, nombre, precio, stock, categoria);
+                idProducto, nombre, precio, getStock(), getCategoria());
     }
 
     // ==================== CLASE INTERNA: RESEÑA ====================
@@ -0,0 +1,269 @@
+package producto;
+
+import estructuras.Normalizador_texto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock de un producto por variante (talla y color)
+ * Las unidades se guardan en una matriz primitiva de tallas por colores, y para cada
+ * talla hay una máscara de bits con los colores que tienen stock (y al revés para cada
+ * color), así que reservar, liberar y preguntar si una variante o una talla está
+ * disponible es O(1), sin recorrer la matriz
+ * Las unidades se reservan con compareAndSet, así que varios hilos pueden reservar y
+ * liberar a la vez sin candados; las máscaras se ajustan después de cada cambio y
+ * pueden ir un instante por detrás de las unidades
+ * Admite hasta 64 tallas y 64 colores por producto
+ */
+public class Stock_variantes {
+    private static final int MAXIMO_VALORES = 64;
+
+    private final List<String> tallas;
+    private final List<String> colores;
+    private final Map<String, Integer> indicesTalla;    // Clave: talla normalizada
+    private final Map<String, Integer> indicesColor;    // Clave: color normalizado
+    private final AtomicIntegerArray unidades;          // Fila: talla, columna: color
+    private final AtomicLongArray coloresConStock;      // Posición: talla, bit: color con unidades
+    private final AtomicLongArray tallasConStock;       // Posición: color, bit: talla con unidades
+    private final AtomicInteger total;
+
+    /**
+     * Constructor de una matriz sin unidades
+     * @param tallas Tallas del producto
+     * @param colores Colores del producto
+     */
+    public Stock_variantes(List<String> tallas, List<String> colores) {
+        if (tallas.size() > MAXIMO_VALORES || colores.size() > MAXIMO_VALORES) {
+            throw new IllegalArgumentException("Un producto admite hasta " + MAXIMO_VALORES
+                    + " tallas y " + MAXIMO_VALORES + " colores");
+        }
+
+        this.tallas = new ArrayList<>(tallas);
+        this.colores = new ArrayList<>(colores);
+        this.indicesTalla = indices(tallas);
+        this.indicesColor = indices(colores);
+        this.unidades = new AtomicIntegerArray(tallas.size() * colores.size());
+        this.coloresConStock = new AtomicLongArray(tallas.size());
+        this.tallasConStock = new AtomicLongArray(colores.size());
+        this.total = new AtomicInteger(0);
+    }
+
+    // ==================== MODIFICAR ====================
+
+    /**
+     * Reserva unidades de una variante (por ejemplo al agregarla al carrito)
+     * @param talla Posición de la talla
+     * @param color Posición del color
+     * @param cantidad Unidades a reservar
+     * @return true si había unidades suficientes
+     */
+    public boolean reservar(int talla, int color, int cantidad) {
+        if (cantidad <= 0) {
+            return false;
+        }
+
+        int posicion = talla * colores.size() + color;
+        int actual;
+        do {
+            actual = unidades.get(posicion);
+            if (actual < cantidad) {
+                return false;
+            }
+        } while (!unidades.compareAndSet(posicion, actual, actual - cantidad));
+
+        total.addAndGet(-cantidad);
+        actualizarMascaras(talla, color);
+        return true;
+    }
+
+    /**
+     * Devuelve unidades a una variante (por ejemplo al sacarla del carrito)
+     * @param talla Posición de la talla
+     * @param color Posición del color
+     * @param cantidad Unidades a devolver
+     */
+    public void liberar(int talla, int color, int cantidad) {
+        if (cantidad > 0) {
+            unidades.addAndGet(talla * colores.size() + color, cantidad);
+            total.addAndGet(cantidad);
+            actualizarMascaras(talla, color);
+        }
+    }
+
+    /**
+     * Fija las unidades de una variante
+     * @param talla Posición de la talla
+     * @param color Posición del color
+     * @param cantidad Unidades (no negativas)
+     * @return Diferencia con las unidades que tenía
+     */
+    public int fijar(int talla, int color, int cantidad) {
+        int nuevas = Math.max(0, cantidad);
+        int diferencia = nuevas - unidades.getAndSet(talla * colores.size() + color, nuevas);
+        total.addAndGet(diferencia);
+        actualizarMascaras(talla, color);
+        return diferencia;
+    }
+
+    // ==================== CONSULTAR ====================
+
+    /**
+     * Posición de una talla (sin importar tildes ni mayúsculas)
+     * @param talla Talla a buscar
+     * @return Posición, o -1 si el producto no tiene esa talla
+     */
+    public int indiceTalla(String talla) {
+        return indicesTalla.getOrDefault(Normalizador_texto.normalizar(talla), -1);
+    }
+
+    /**
+     * Posición de un color (sin importar tildes ni mayúsculas)
+     * @param color Color a buscar
+     * @return Posición, o -1 si el producto no tiene ese color
+     */
+    public int indiceColor(String color) {
+        return indicesColor.getOrDefault(Normalizador_texto.normalizar(color), -1);
+    }
+
+    /**
+     * Unidades de una variante
+     * @param talla Posición de la talla
+     * @param color Posición del color
+     * @return Unidades disponibles
+     */
+    public int obtener(int talla, int color) {
+        return unidades.get(talla * colores.size() + color);
+    }
+
+    /**
+     * Colores con unidades en una talla
+     * @param talla Posición de la talla
+     * @return Máscara con el bit de cada color disponible
+     */
+    public long mascaraColores(int talla) {
+        return coloresConStock.get(talla);
+    }
+
+    /**
+     * Tallas con unidades en un color
+     * @param color Posición del color
+     * @return Máscara con el bit de cada talla disponible
+     */
+    public long mascaraTallas(int color) {
+        return tallasConStock.get(color);
+    }
+
+    /**
+     * Verifica si una talla tiene unidades en algún color
+     * @param talla Posición de la talla
+     * @return true si hay al menos una unidad
+     */
+    public boolean tallaDisponible(int talla) {
+        return coloresConStock.get(talla) != 0;
+    }
+
+    /**
+     * Verifica si un color tiene unidades en alguna talla
+     * @param color Posición del color
+     * @return true si hay al menos una unidad
+     */
+    public boolean colorDisponible(int color) {
+        return tallasConStock.get(color) != 0;
+    }
+
+    /**
+     * Tallas con unidades en algún color, en el orden del producto
+     * @return Tallas disponibles
+     */
+    public List<String> tallasDisponibles() {
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i < tallas.size(); i++) {
+            if (coloresConStock.get(i) != 0) {
+                resultado.add(tallas.get(i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Colores con unidades en alguna talla, en el orden del producto
+     * @return Colores disponibles
+     */
+    public List<String> coloresDisponibles() {
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i < colores.size(); i++) {
+            if (tallasConStock.get(i) != 0) {
+                resultado.add(colores.get(i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Colores con unidades en una talla
+     * @param talla Posición de la talla
+     * @return Colores disponibles en esa talla
+     */
+    public List<String> coloresDisponibles(int talla) {
+        List<String> resultado = new ArrayList<>();
+        for (long mascara = coloresConStock.get(talla); mascara != 0; mascara &= mascara - 1) {
+            resultado.add(colores.get(Long.numberOfTrailingZeros(mascara)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Unidades de todas las variantes
+     * @return Total de unidades
+     */
+    public int getTotal() {
+        return total.get();
+    }
+
+    public List<String> getTallas() {
+        return tallas;
+    }
+
+    public List<String> getColores() {
+        return colores;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void actualizarMascaras(int talla, int color) {
+        int posicion = talla * colores.size() + color;
+        actualizarBit(coloresConStock, talla, 1L << color, posicion);
+        actualizarBit(tallasConStock, color, 1L << talla, posicion);
+    }
+
+    /**
+     * Deja el bit de una variante de acuerdo con sus unidades
+     * Si las unidades cambian mientras tanto se vuelve a intentar, así el último hilo
+     * que cambia una variante siempre deja su bit correcto
+     */
+    private void actualizarBit(AtomicLongArray mascaras, int indice, long bit, int posicion) {
+        while (true) {
+            long mascara = mascaras.get(indice);
+            int actuales = unidades.get(posicion);
+            long nueva = (actuales > 0) ? (mascara | bit) : (mascara & ~bit);
+            if ((nueva == mascara || mascaras.compareAndSet(indice, mascara, nueva))
+                    && unidades.get(posicion) == actuales) {
+                return;
+            }
+        }
+    }
+
+    private static Map<String, Integer> indices(List<String> valores) {
+        Map<String, Integer> resultado = new HashMap<>();
+        for (int i = 0; i < valores.size(); i++) {
+            resultado.putIfAbsent(Normalizador_texto.normalizar(valores.get(i)), i);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,100 @@
+package rendimiento;
+
+import inventario.Gestion_inventario;
+import inventario.Instantanea_inventario;
+import producto.Producto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mide una instantánea binaria con un catálogo grande: guardarla, consultar un producto
+ * directo sobre el archivo mapeado y cargar todo el inventario (Gestion_inventario arma
+ * un Producto por fila, así que tarda lo mismo que armar los productos a mano o más), y
+ * verifica que después de cargarla se pueda volver a guardar sobre el mismo archivo
+ * Uso: java rendimiento.Benchmark_instantanea [cantidad de productos]
+ */
+public class Benchmark_instantanea {
+    private static final String[] CATEGORIAS = {"Caballero", "Dama", "Niño", "Niña"};
+    private static final String[] NOMBRES = {"jean clasico", "pantalon cargo", "jogger deportivo", "bermudas"};
+
+    public static void main(String[] args) throws IOException {
+        int cantidad = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        Path archivo = Files.createTempFile("inventario", ".instantanea");
+
+        long inicio = System.nanoTime();
+        List<Producto> productos = crearProductos(cantidad);
+        double armar = milisegundos(inicio);
+
+        inicio = System.nanoTime();
+        Instantanea_inventario.guardar(archivo, productos);
+        double guardar = milisegundos(inicio);
+
+        // Primera consulta: mapear y leer un solo producto por ID
+        inicio = System.nanoTime();
+        Instantanea_inventario instantanea = Instantanea_inventario.abrir(archivo);
+        int posicion = instantanea.buscarPosicion(cantidad / 2 + 1);
+        Producto consultado = instantanea.leerProducto(posicion);
+        double primeraConsulta = milisegundos(inicio);
+        instantanea.cerrar();
+
+        inicio = System.nanoTime();
+        Gestion_inventario inventario = new Gestion_inventario();
+        inventario.cargarInstantanea(archivo.toString());
+        double cargarTodo = milisegundos(inicio);
+
+        // La carga ya liberó el mapeo: el archivo se puede reemplazar
+        inicio = System.nanoTime();
+        boolean reemplazada = inventario.guardarInstantanea();
+        double volverAGuardar = milisegundos(inicio);
+
+        if (!reemplazada || inventario.contarProductos() != cantidad || consultado.getIdProducto() != cantidad / 2 + 1
+                || inventario.contarUnidadesTotales() != contarUnidades(productos)) {
+            throw new IllegalStateException("La instantánea no reproduce el inventario");
+        }
+
+        System.out.println("Instantánea de " + cantidad + " productos (" + Files.size(archivo) / 1024 + " KB)");
+        System.out.println("=".repeat(50));
+        System.out.printf("%-32s %12.1f ms%n", "Armar productos a mano", armar);
+        System.out.printf("%-32s %12.1f ms%n", "Guardar instantánea", guardar);
+        System.out.printf("%-32s %12.3f ms%n", "Mapear y primera consulta", primeraConsulta);
+        System.out.printf("%-32s %12.1f ms%n", "Cargar todo el inventario", cargarTodo);
+        System.out.printf("%-32s %12.1f ms%n", "Guardar sobre la misma ruta", volverAGuardar);
+
+        Files.deleteIfExists(archivo);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static List<Producto> crearProductos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            productos.add(new Producto(
+                    i,
+                    NOMBRES[i % NOMBRES.length] + " " + i,
+                    50_000 + (i % 100) * 1_000,
+                    i % 60,
+                    CATEGORIAS[i % CATEGORIAS.length],
+                    Arrays.asList("30", "32", "34"),
+                    Arrays.asList("azul", "negro"),
+                    i % 60 > 0));
+        }
+        return productos;
+    }
+
+    private static long contarUnidades(List<Producto> productos) {
+        long total = 0;
+        for (Producto producto : productos) {
+            total += producto.getStock();
+        }
+        return total;
+    }
+
+    private static double milisegundos(long inicio) {
+        return (System.nanoTime() - inicio) / 1e6;
+    }
+}
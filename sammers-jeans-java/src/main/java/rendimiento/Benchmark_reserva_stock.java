@@ -0,0 +1,225 @@
+package rendimiento;
+
+import catalogo.Catalogo;
+import inventario.Gestion_inventario;
+import producto.Producto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide cuántas reservas por segundo soporta un solo producto muy pedido cuando
+ * muchos hilos reservan y devuelven unidades al mismo tiempo
+ * Compara la reserva atómica de Producto (sin oyentes y dentro de un inventario con
+ * catálogo) y el stock repartido en cubetas de venta relámpago contra la misma operación
+ * protegida con synchronized, y verifica que al agotar el stock se venda exactamente lo que había
+ * y que con el stock repartido getStock() nunca quede atrasado 32 unidades o más
+ * Uso: java rendimiento.Benchmark_reserva_stock [milisegundos por medición]
+ */
+public class Benchmark_reserva_stock {
+    private static final int[] HILOS = {1, 2, 4, 8, 16, 32};
+    private static final int STOCK_INICIAL = 1_000;
+    private static final int STOCK_AGOTAR = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        long duracion = (args.length > 0) ? Long.parseLong(args[0]) : 1_000;
+
+        verificarAgotamiento(false);
+        verificarAgotamiento(true);
+        verificarAtraso();
+
+        System.out.println("Reservar 1 y devolver 1 sobre el mismo producto (" + duracion + " ms por medición)");
+        System.out.printf("%-6s %15s %15s %15s %15s%n",
+                "HILOS", "CAS (Mops/s)", "CAS+CATÁLOGO", "REPARTIDO", "SYNCHRONIZED");
+        System.out.println("=".repeat(70));
+
+        for (int hilos : HILOS) {
+            Producto solo = new Producto(1, "jean clásico", 89900, STOCK_INICIAL, "Caballero");
+            double cas = medir(hilos, duracion, () -> {
+                if (solo.reducirStock(1)) {
+                    solo.aumentarStock(1);
+                }
+            });
+            verificarStock(solo.getStock(), "CAS");
+
+            Producto conCatalogo = productoConCatalogo();
+            double catalogo = medir(hilos, duracion, () -> {
+                if (conCatalogo.reducirStock(1)) {
+                    conCatalogo.aumentarStock(1);
+                }
+            });
+            verificarStock(conCatalogo.getStock(), "CAS+CATÁLOGO");
+
+            Producto repartido = productoConCatalogo();
+            repartido.activarStockRepartido(Runtime.getRuntime().availableProcessors());
+            double cubetas = medir(hilos, duracion, () -> {
+                if (repartido.reducirStock(1)) {
+                    repartido.aumentarStock(1);
+                }
+            });
+            verificarStock(repartido.getStock(), "REPARTIDO");
+
+            Stock_sincronizado sincronizado = new Stock_sincronizado(STOCK_INICIAL);
+            double conCandado = medir(hilos, duracion, () -> {
+                if (sincronizado.reducir(1)) {
+                    sincronizado.aumentar(1);
+                }
+            });
+            verificarStock(sincronizado.stock, "SYNCHRONIZED");
+
+            System.out.printf("%-6d %15.2f %15.2f %15.2f %15.2f%n", hilos, cas, catalogo, cubetas, conCandado);
+        }
+    }
+
+    // ==================== MEDICIONES ====================
+
+    /**
+     * Ejecuta la operación desde varios hilos durante un tiempo fijo
+     * @return Millones de operaciones por segundo (sumando todos los hilos)
+     */
+    private static double medir(int hilos, long duracionMillis, Runnable operacion) throws InterruptedException {
+        // Calentamiento del compilador JIT con un solo hilo
+        for (int i = 0; i < 200_000; i++) {
+            operacion.run();
+        }
+
+        AtomicLong operaciones = new AtomicLong();
+        CountDownLatch largada = new CountDownLatch(1);
+        long[] fin = new long[1];
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long cuenta = 0;
+                while (System.nanoTime() < fin[0]) {
+                    for (int i = 0; i < 256; i++) {
+                        operacion.run();
+                    }
+                    cuenta += 256;
+                }
+                operaciones.addAndGet(cuenta);
+            });
+            trabajadores[h].start();
+        }
+
+        long inicio = System.nanoTime();
+        fin[0] = inicio + duracionMillis * 1_000_000;
+        largada.countDown();
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return operaciones.get() / segundos / 1e6;
+    }
+
+    /**
+     * Varios hilos compran de a una unidad hasta agotar el stock: la cantidad de
+     * compras exitosas tiene que ser exactamente el stock inicial
+     */
+    private static void verificarAgotamiento(boolean repartido) throws InterruptedException {
+        Producto producto = productoConCatalogo();
+        producto.setStock(STOCK_AGOTAR);
+        if (repartido) {
+            producto.activarStockRepartido(Runtime.getRuntime().availableProcessors());
+        }
+
+        AtomicLong vendidas = new AtomicLong();
+        Thread[] compradores = new Thread[16];
+        for (int h = 0; h < compradores.length; h++) {
+            compradores[h] = new Thread(() -> {
+                long cuenta = 0;
+                while (producto.reducirStock(1)) {
+                    cuenta++;
+                }
+                vendidas.addAndGet(cuenta);
+            });
+            compradores[h].start();
+        }
+        for (Thread comprador : compradores) {
+            comprador.join();
+        }
+
+        if (vendidas.get() != STOCK_AGOTAR || producto.getStock() != 0 || producto.isDisponible()) {
+            throw new IllegalStateException("Se vendieron " + vendidas.get() + " de " + STOCK_AGOTAR
+                    + " unidades (stock final " + producto.getStock() + ")");
+        }
+        System.out.println("Agotamiento con " + compradores.length + " hilos"
+                + (repartido ? " (stock repartido): " : ": ") + vendidas.get()
+                + " vendidas de " + STOCK_AGOTAR + ", stock final 0");
+    }
+
+    /**
+     * Reservas desde muchos hilos distintos (caen en cubetas distintas) sobre un producto
+     * con 4 cubetas: después de cada una, lo que getStock() va atrasado respecto de lo
+     * reservado tiene que ser menor a 32 unidades
+     */
+    private static void verificarAtraso() throws InterruptedException {
+        Producto producto = productoConCatalogo();
+        producto.activarStockRepartido(4);
+
+        int reservadas = 0;
+        int mayorAtraso = 0;
+        for (int i = 0; i < 300; i++) {
+            int cantidad = 1 + i % 3;
+            Thread comprador = new Thread(() -> producto.reducirStock(cantidad));
+            comprador.start();
+            comprador.join();
+            reservadas += cantidad;
+
+            int atraso = producto.getStock() - (STOCK_INICIAL - reservadas);
+            mayorAtraso = Math.max(mayorAtraso, atraso);
+            if (atraso >= 32) {
+                throw new IllegalStateException("getStock() quedó " + atraso + " unidades atrasado");
+            }
+        }
+        System.out.println("Stock repartido en 4 cubetas: getStock() quedó a lo sumo "
+                + mayorAtraso + " unidades atrasado");
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private static Producto productoConCatalogo() {
+        Gestion_inventario inventario = new Gestion_inventario();
+        new Catalogo(inventario);
+        Producto producto = new Producto(9_999, "jean edición limitada", 129900, STOCK_INICIAL, "Dama");
+        // En lote para no mezclar el mensaje de cada producto agregado con la tabla
+        inventario.agregarProductos(List.of(producto), new ArrayList<>());
+        return producto;
+    }
+
+    private static void verificarStock(int stock, String nombre) {
+        if (stock != STOCK_INICIAL) {
+            throw new IllegalStateException(nombre + ": el stock terminó en " + stock
+                    + " en vez de " + STOCK_INICIAL);
+        }
+    }
+
+    /**
+     * La misma reserva protegida con un candado, como referencia
+     */
+    private static final class Stock_sincronizado {
+        private int stock;
+
+        Stock_sincronizado(int stock) {
+            this.stock = stock;
+        }
+
+        synchronized boolean reducir(int cantidad) {
+            if (stock < cantidad) {
+                return false;
+            }
+            stock -= cantidad;
+            return true;
+        }
+
+        synchronized void aumentar(int cantidad) {
+            stock += cantidad;
+        }
+    }
+}